@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import dev.benpetrillo.elixir.music.AudioPlayerSendHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the work JDA asks of Elixir for every 20ms frame of every stream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioSendBenchmark {
+
+    private FakeAudioPlayer player;
+    private AudioPlayerSendHandler handler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.player = new FakeAudioPlayer(new FakeAudioPlayer.Manager());
+        this.player.playTrack(new BenchmarkTrack(0));
+        this.handler = new AudioPlayerSendHandler(this.player);
+    }
+
+    /**
+     * A frame is ready, as in normal playback.
+     */
+    @Benchmark
+    public ByteBuffer sendFrame() {
+        this.player.setFrameReady(true);
+        return this.handler.canProvide() ? this.handler.provide20MsAudio() : null;
+    }
+
+    /**
+     * No frame is ready while a track is playing, which is counted as an underrun.
+     */
+    @Benchmark
+    public boolean underrun() {
+        this.player.setFrameReady(false);
+        return this.handler.canProvide();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so runs can be compared by tools.
+ * Any JMH option can be passed. Two more are understood here:
+ *
+ *     --baseline <file>    A JSON result from an earlier run. Exits with 1 if any benchmark regressed.
+ *     --threshold <pct>    How much slower a benchmark may get before it counts as a regression. Defaults to 10.
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        Path baseline = null;
+        var threshold = 10.0;
+        var jmhArgs = new ArrayList<String>();
+        for (var i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                default -> jmhArgs.add(args[i]);
+            }
+        }
+
+        var commandLine = new CommandLineOptions(jmhArgs.toArray(String[]::new));
+        var options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue()) options.result(DEFAULT_RESULT);
+
+        var results = new Runner(options.build()).run();
+        if (baseline == null) return;
+
+        var regressions = compare(results, readScores(baseline), threshold / 100);
+        regressions.forEach(System.out::println);
+        if (!regressions.isEmpty()) System.exit(1);
+        System.out.printf("No regressions over %.1f%% against %s.%n", threshold, baseline);
+    }
+
+    /**
+     * @return A description of every benchmark which got worse than the baseline by more than the threshold.
+     */
+    private static List<String> compare(Collection<RunResult> results, Map<String, Double> baseline, double threshold) {
+        var regressions = new ArrayList<String>();
+        for (var result : results) {
+            var params = result.getParams();
+            var values = new TreeMap<String, String>();
+            for (var key : params.getParamsKeys()) values.put(key, params.getParam(key));
+
+            var key = keyOf(params.getBenchmark(), params.getMode().shortLabel(), values);
+            var previous = baseline.get(key);
+            if (previous == null || previous == 0) continue;
+
+            var score = result.getPrimaryResult().getScore();
+            // Throughput is better when higher. Every other mode measures time, which is better when lower.
+            var change = params.getMode() == Mode.Throughput ? (previous - score) / previous : (score - previous) / previous;
+            if (change > threshold) {
+                regressions.add(String.format("REGRESSION %s: %.3f -> %.3f %s (%.1f%% worse)",
+                    key, previous, score, result.getPrimaryResult().getScoreUnit(), change * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, Double> readScores(Path file) throws IOException {
+        var scores = new HashMap<String, Double>();
+        for (JsonElement element : JsonParser.parseString(Files.readString(file)).getAsJsonArray()) {
+            var object = element.getAsJsonObject();
+            var values = new TreeMap<String, String>();
+            if (object.has("params")) {
+                object.getAsJsonObject("params").entrySet()
+                    .forEach(entry -> values.put(entry.getKey(), entry.getValue().getAsString()));
+            }
+            var key = keyOf(object.get("benchmark").getAsString(), object.get("mode").getAsString(), values);
+            scores.put(key, object.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+        }
+        return scores;
+    }
+
+    private static String keyOf(String benchmark, String mode, SortedMap<String, String> params) {
+        return params.isEmpty() ? benchmark + " [" + mode + "]" : benchmark + params + " [" + mode + "]";
+    }
+}
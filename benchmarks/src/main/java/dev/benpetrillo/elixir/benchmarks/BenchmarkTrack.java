@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BaseAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+
+/**
+ * A track with metadata only, for benchmarks which never play audio.
+ */
+public final class BenchmarkTrack extends BaseAudioTrack {
+
+    public BenchmarkTrack(int index) {
+        this(new AudioTrackInfo("Benchmark Track " + index, "Benchmark Artist", 180_000 + index,
+            "video" + index, false, "https://www.youtube.com/watch?v=video" + index));
+    }
+
+    private BenchmarkTrack(AudioTrackInfo trackInfo) {
+        super(trackInfo);
+    }
+
+    @Override
+    public void process(LocalAudioTrackExecutor executor) {
+    }
+
+    @Override
+    protected AudioTrack makeShallowClone() {
+        return new BenchmarkTrack(this.trackInfo);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+
+/**
+ * A player which never decodes anything. Tracks start and stop instantly without events,
+ * and frames are a fixed Opus payload, so benchmarks measure only Elixir's own code.
+ */
+public class FakeAudioPlayer extends DefaultAudioPlayer {
+
+    private static final byte[] FRAME = new byte[160];
+
+    private volatile AudioTrack playing;
+    private volatile boolean frameReady = true;
+
+    public FakeAudioPlayer(DefaultAudioPlayerManager manager) {
+        super(manager);
+    }
+
+    public void setFrameReady(boolean frameReady) {
+        this.frameReady = frameReady;
+    }
+
+    @Override
+    public AudioTrack getPlayingTrack() {
+        return this.playing;
+    }
+
+    @Override
+    public void playTrack(AudioTrack track) {
+        this.playing = track;
+    }
+
+    @Override
+    public boolean startTrack(AudioTrack track, boolean noInterrupt) {
+        if (noInterrupt && this.playing != null) return false;
+        this.playing = track;
+        return true;
+    }
+
+    @Override
+    public void stopTrack() {
+        this.playing = null;
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame) {
+        if (!this.frameReady) return false;
+        targetFrame.store(FRAME, 0, FRAME.length);
+        return true;
+    }
+
+    /**
+     * Creates fake players, so a real {@link dev.benpetrillo.elixir.managers.GuildMusicManager} can be built around one.
+     */
+    public static final class Manager extends DefaultAudioPlayerManager {
+        @Override
+        public AudioPlayer createPlayer() {
+            return new FakeAudioPlayer(this);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import dev.benpetrillo.elixir.storage.PlaylistCodec;
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import dev.benpetrillo.elixir.utils.Utilities;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary playlist encoding against the Gson + base64 encoding it replaced.
+ * Encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaylistCodecBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int trackCount;
+
+    private CustomPlaylist playlist;
+    private byte[] binary;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.playlist = createPlaylist(this.trackCount);
+        this.binary = PlaylistCodec.encode(this.playlist);
+        this.json = Utilities.base64Encode(Utilities.serialize(this.playlist));
+
+        System.out.printf("%n%d tracks: binary=%d bytes, json+base64=%d bytes%n",
+            this.trackCount, this.binary.length, this.json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return PlaylistCodec.encode(this.playlist);
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return Utilities.base64Encode(Utilities.serialize(this.playlist));
+    }
+
+    @Benchmark
+    public CustomPlaylist decodeBinary() {
+        return PlaylistCodec.decode(this.binary);
+    }
+
+    /**
+     * Decodes the playlist and reads the first page of tracks, as the fetch command does.
+     */
+    @Benchmark
+    public Object decodeBinaryFirstPage() {
+        var decoded = PlaylistCodec.decode(this.binary);
+        return decoded.tracks.subList(0, Math.min(8, decoded.tracks.size())).toArray();
+    }
+
+    /**
+     * Decodes the playlist and reads every track, as the queue command does.
+     */
+    @Benchmark
+    public Object decodeBinaryAllTracks() {
+        return PlaylistCodec.decode(this.binary).tracks.toArray();
+    }
+
+    @Benchmark
+    public CustomPlaylist decodeJson() {
+        return Utilities.deserialize(Utilities.base64Decode(this.json), CustomPlaylist.class);
+    }
+
+    /**
+     * Serializes, base64 encodes and reads back the playlist, as a save followed by a load does.
+     */
+    @Benchmark
+    public CustomPlaylist roundTripJson() {
+        var encoded = Utilities.base64Encode(Utilities.serialize(this.playlist));
+        return Utilities.deserialize(Utilities.base64Decode(encoded), CustomPlaylist.class);
+    }
+
+    @Benchmark
+    public CustomPlaylist roundTripBinary() {
+        return PlaylistCodec.decode(PlaylistCodec.encode(this.playlist));
+    }
+
+    @Benchmark
+    public long readVersionBinary() {
+        return PlaylistCodec.readVersion(this.binary);
+    }
+
+    private static CustomPlaylist createPlaylist(int trackCount) {
+        var playlist = new CustomPlaylist();
+        playlist.info = new CustomPlaylist.Info();
+        playlist.info.id = "benchmark";
+        playlist.info.name = "Benchmark Playlist";
+        playlist.info.description = "A playlist used for benchmarking.";
+        playlist.info.playlistCoverUrl = "https://i.imgur.com/benchmark.png";
+        playlist.info.author = "253243332837883904";
+        playlist.options = new CustomPlaylist.Options();
+        playlist.tracks = new ArrayList<>(trackCount);
+        for (var i = 0; i < trackCount; i++) {
+            var track = new CustomPlaylist.CustomPlaylistTrack();
+            track.id = "youtube:video" + i;
+            track.title = "Benchmark Track " + i;
+            track.url = "https://www.youtube.com/watch?v=video" + i;
+            track.artist = "Benchmark Artist";
+            track.coverArt = "https://i.ytimg.com/vi/video" + i + "/hqdefault.jpg";
+            track.duration = 180_000 + i;
+            playlist.tracks.add(track);
+        }
+        return playlist;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.benpetrillo.elixir.managers.GuildMusicManager;
+import dev.benpetrillo.elixir.music.TrackScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures queue commands against a full queue. The queue loops, so skipping keeps its size steady.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackSchedulerBenchmark {
+
+    @Param({"10000"})
+    public int trackCount;
+
+    private TrackScheduler scheduler;
+    private AudioTrack extra;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var musicManager = new GuildMusicManager(new FakeAudioPlayer.Manager(), null);
+        this.scheduler = musicManager.getScheduler();
+        this.scheduler.repeating = TrackScheduler.LoopMode.QUEUE;
+
+        List<AudioTrack> tracks = new ArrayList<>(this.trackCount);
+        for (var i = 0; i < this.trackCount; i++) tracks.add(new BenchmarkTrack(i));
+        this.scheduler.queue(new BenchmarkTrack(-1));
+        this.scheduler.setQueue(tracks);
+        this.extra = new BenchmarkTrack(this.trackCount);
+    }
+
+    /**
+     * Queues a track behind the playing one, then takes it back off to keep the queue size steady.
+     */
+    @Benchmark
+    public AudioTrack queue() {
+        this.scheduler.queue(this.extra);
+        return this.scheduler.getQueue().poll();
+    }
+
+    @Benchmark
+    public List<AudioTrack> shuffle() {
+        return this.scheduler.shuffle();
+    }
+
+    @Benchmark
+    public AudioTrack skip() {
+        this.scheduler.nextTrack();
+        return this.scheduler.player.getPlayingTrack();
+    }
+}
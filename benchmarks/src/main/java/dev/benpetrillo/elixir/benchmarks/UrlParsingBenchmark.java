@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.benchmarks;
+
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.Utilities;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the string handling run for every command that takes a link or shows a duration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlParsingBenchmark {
+
+    @Param({
+        "https://www.youtube.com/watch?v=dQw4w9WgXcQ",
+        "https://youtu.be/dQw4w9WgXcQ",
+        "https://open.spotify.com/track/4cOdK2wGLETKBW3PvgPWqT",
+        "https://soundcloud.com/artist/track"
+    })
+    public String url;
+
+    @Param({"PT1H2M3S"})
+    public String duration;
+
+    @Benchmark
+    public long cleanYouTubeFormat() {
+        return Utilities.cleanYouTubeFormat(this.duration);
+    }
+
+    @Benchmark
+    public String extractVideoId() {
+        return this.url.contains("youtu") ? Utilities.extractVideoId(this.url) : null;
+    }
+
+    @Benchmark
+    public TrackUtil.TrackType determineTrackType() {
+        return TrackUtil.determineTrackType(this.url);
+    }
+}
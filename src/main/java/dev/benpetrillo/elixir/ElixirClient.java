@@ -18,23 +18,41 @@ package dev.benpetrillo.elixir;
 
 import com.neovisionaries.ws.client.WebSocketFactory;
 import dev.benpetrillo.elixir.api.APIHandler;
+import dev.benpetrillo.elixir.cluster.ClusterLauncher;
+import dev.benpetrillo.elixir.events.AutocompleteListener;
 import dev.benpetrillo.elixir.events.GuildListener;
 import dev.benpetrillo.elixir.events.ReadyListener;
 import dev.benpetrillo.elixir.events.ShutdownListener;
+import dev.benpetrillo.elixir.loadtest.LoadTest;
 import dev.benpetrillo.elixir.managers.ApplicationCommandManager;
+import dev.benpetrillo.elixir.managers.CommandDispatcher;
 import dev.benpetrillo.elixir.managers.ConfigStartupManager;
 import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.managers.HistoryManager;
+import dev.benpetrillo.elixir.metrics.Metrics;
+import dev.benpetrillo.elixir.metrics.PopularityTracker;
+import dev.benpetrillo.elixir.music.playlist.TrackValidator;
 import dev.benpetrillo.elixir.music.spotify.SpotifySourceManager;
 import dev.benpetrillo.elixir.objects.OAuthUpdateTask;
+import dev.benpetrillo.elixir.search.TrackIndex;
+import dev.benpetrillo.elixir.storage.PlaylistArchive;
+import dev.benpetrillo.elixir.utils.ErrorReporter;
 import dev.benpetrillo.elixir.utils.Utilities;
 import lombok.Getter;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.MiscUtil;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +60,7 @@ import tech.xigam.cch.ComplexCommandHandler;
 
 import javax.security.auth.login.LoginException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -63,7 +82,8 @@ public final class ElixirClient {
     private static String id;
     @Getter
     private static ElixirClient instance;
-    public JDA jda;
+    @Getter
+    private static ShardManager shardManager;
 
     private ElixirClient(String token) throws LoginException, IllegalArgumentException, IOException {
         final boolean usePrefix = !ElixirConstants.COMMAND_PREFIX.isEmpty();
@@ -71,7 +91,12 @@ public final class ElixirClient {
 
         logger.info("JDA Version: {}", Utilities.getJDAVersion());
 
-        final JDABuilder builder = JDABuilder.createDefault(token)
+        // Only voice states are needed for playback. Members are cached while they are in a voice channel,
+        // and nothing else is cached or chunked, so memory stays flat as guilds grow.
+        final DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createLight(token, GatewayIntent.GUILD_VOICE_STATES)
+            .enableCache(CacheFlag.VOICE_STATE)
+            .setMemberCachePolicy(MemberCachePolicy.VOICE)
+            .setChunkingFilter(ChunkingFilter.NONE)
             .setActivity(Activity.listening(ElixirConstants.ACTIVITY))
             .setStatus(OnlineStatus.ONLINE)
             .setAutoReconnect(true)
@@ -79,36 +104,38 @@ public final class ElixirClient {
             .setHttpClient(new OkHttpClient())
             .setBulkDeleteSplittingEnabled(true)
             .setWebsocketFactory(new WebSocketFactory())
+            // Each shard registers its listeners on its own dispatcher, so every event is handled once.
+            .setEventManagerProvider(shardId -> new CommandDispatcher())
             .addEventListeners(
+                new AutocompleteListener(),
                 new GuildListener(),
                 new ReadyListener(),
                 new ShutdownListener()
-            )
-            .enableIntents(
-                GatewayIntent.DIRECT_MESSAGES,
-                GatewayIntent.DIRECT_MESSAGE_REACTIONS,
-                GatewayIntent.DIRECT_MESSAGE_TYPING,
-                GatewayIntent.GUILD_INVITES,
-                GatewayIntent.GUILD_MESSAGE_REACTIONS,
-                GatewayIntent.GUILD_MESSAGE_TYPING,
-                GatewayIntent.GUILD_VOICE_STATES,
-                GatewayIntent.GUILD_WEBHOOKS
             );
         if (usePrefix) {
-            builder.enableIntents(GatewayIntent.GUILD_MESSAGES);
+            builder.enableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.DIRECT_MESSAGES);
             logger.info("Prefix support enabled! Prefix: {}", ElixirConstants.COMMAND_PREFIX);
         } else {
             Message.suppressContentIntentWarning();
         }
 
-        this.jda = builder.build();
+        configureShards(builder);
+        shardManager = builder.build();
 
-        commandHandler.setJda(this.jda);
-        id = this.jda.getSelfUser().getId();
+        // The first shard is connected before build returns, and global commands can be deployed through any shard.
+        commandHandler.setJda(getJda());
+        id = getJda().getSelfUser().getId();
 
+        ErrorReporter.schedule();
+        Metrics.schedule();
         ApplicationCommandManager.initialize();
         OAuthUpdateTask.schedule();
         DatabaseManager.create();
+        TrackIndex.getInstance().warmup();
+        PopularityTracker.getInstance().warmup();
+        HistoryManager.schedule();
+        TrackValidator.schedule();
+        DrainManager.installSignalHandler();
 
         try {
             SpotifySourceManager.authorize();
@@ -128,6 +155,19 @@ public final class ElixirClient {
 
         ElixirClient.envFile = args[0];
 
+        // Cluster mode supervises worker processes. Load tests and archive commands run without logging in.
+        if (args.length > 1) {
+            var command = Arrays.copyOfRange(args, 1, args.length);
+            if (command[0].equals("cluster")) {
+                if (ClusterLauncher.run(command) != 0) System.exit(1);
+                return;
+            }
+            if (command[0].equals("loadtest")) {
+                System.exit(LoadTest.run(command));
+            }
+            System.exit(PlaylistArchive.run(command));
+        }
+
         try {
             ConfigStartupManager.checkAll();
             APIHandler.initialize();
@@ -138,7 +178,61 @@ public final class ElixirClient {
         }
     }
 
+    /**
+     * Applies the configured shard count and range. By default, every shard Discord recommends is run here.
+     */
+    private static void configureShards(DefaultShardManagerBuilder builder) {
+        var total = (int) Utilities.parseOrDefault(ElixirConstants.SHARD_COUNT, -1);
+        builder.setShardsTotal(total);
+
+        var range = ElixirConstants.SHARD_RANGE;
+        if (range == null || range.isBlank()) return;
+        if (total < 1) {
+            throw new IllegalArgumentException("A shard range requires a fixed shard count.");
+        }
+
+        var bounds = range.split("-", 2);
+        var min = Integer.parseInt(bounds[0].trim());
+        var max = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : min;
+        builder.setShards(min, max);
+        logger.info("Running shards {} to {} of {}.", min, max, total);
+    }
+
+    /**
+     * @return A connected shard, for calls which are not tied to a guild, such as the bot's own user.
+     */
     public static JDA getJda() {
-        return instance.jda;
+        var shards = shardManager.getShardCache();
+        return shards.stream()
+            .filter(shard -> shard.getStatus() == JDA.Status.CONNECTED)
+            .findFirst()
+            .orElseGet(() -> shards.iterator().next());
+    }
+
+    /**
+     * @param guildId The ID of the guild.
+     * @return The ID of the shard which receives the guild's events.
+     */
+    public static int getShardId(String guildId) {
+        return (int) ((MiscUtil.parseSnowflake(guildId) >>> 22) % shardManager.getShardsTotal());
+    }
+
+    /**
+     * @param guildId The ID of the guild.
+     * @return The shard which receives the guild's events, or null if it is not run by this process.
+     */
+    public static JDA getShard(String guildId) {
+        return shardManager.getShardById(getShardId(guildId));
+    }
+
+    /**
+     * Looks up a guild on its own shard, instead of searching every shard.
+     *
+     * @param guildId The ID of the guild.
+     * @return The guild, or null if it is not cached by this process.
+     */
+    public static Guild getGuildById(String guildId) {
+        var shard = getShard(guildId);
+        return shard == null ? null : shard.getGuildById(guildId);
     }
 }
@@ -28,6 +28,14 @@ public final class ElixirConstants {
     public static String ACTIVITY = Config.get("ACTIVITY");
     public static String YOUTUBE_API_KEY = Config.get("YOUTUBE-API-KEY");
     public static String MONGO_URI = Config.get("MONGO-URI");
+    public static String STORAGE_BACKEND = Config.get("STORAGE-BACKEND");
+    public static String STORAGE_PATH = Config.get("STORAGE-PATH");
+    public static String DATABASE_THREADS = Config.get("DATABASE-THREADS");
+    public static String DATABASE_TIMEOUT = Config.get("DATABASE-TIMEOUT");
+    public static String COMMAND_THREADS = Config.get("COMMAND-THREADS");
+    public static String SHARD_COUNT = Config.get("SHARD-COUNT");
+    public static String SHARD_RANGE = Config.get("SHARD-RANGE");
+    public static String DRAIN_TIMEOUT = Config.get("DRAIN-TIMEOUT");
     public static String SPOTIFY_CLIENT_ID = Config.get("SPOTIFY-CLIENT-ID");
     public static String SPOTIFY_CLIENT_SECRET = Config.get("SPOTIFY-CLIENT-SECRET");
     public static String API_ADDRESS = Config.get("API-ADDRESS");
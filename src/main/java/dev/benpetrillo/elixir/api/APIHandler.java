@@ -19,6 +19,9 @@ package dev.benpetrillo.elixir.api;
 import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.ElixirConstants;
 import dev.benpetrillo.elixir.api.controllers.PlayerController;
+import dev.benpetrillo.elixir.api.controllers.ShardController;
+import dev.benpetrillo.elixir.api.controllers.TraceController;
+import dev.benpetrillo.elixir.metrics.Metrics;
 import io.javalin.Javalin;
 import io.javalin.apibuilder.EndpointGroup;
 
@@ -33,7 +36,11 @@ public final class APIHandler {
         var port = Integer.parseInt(ElixirConstants.API_PORT);
 
         EndpointGroup endpoints = () -> path("/api/v1", () -> {
+            get("/shards", ShardController::getShards);
+            get("/drain", ShardController::getDrain);
+            get("/traces", TraceController::getSlowTraces);
             get("/{guild}/nowplaying", PlayerController::getNowPlaying);
+            get("/{guild}/history", PlayerController::getHistory);
             post("/{guild}/join", PlayerController::postJoinChannel);
             post("/{guild}/stop", PlayerController::postStopPlayer);
             post("/{guild}/volume", PlayerController::postVolume);
@@ -44,6 +51,9 @@ public final class APIHandler {
             .exception(NullPointerException.class, (e, ctx) ->
                 ctx.status(400).json(APIError.from(e.getMessage())))
             .get("/", ctx -> ctx.result("Elixir Music API"))
+            .get("/metrics", ctx -> ctx
+                .contentType("text/plain; version=0.0.4; charset=utf-8")
+                .result(Metrics.scrape()))
             .start(address, port);
 
         ElixirClient.logger.info("API server started on {}:{}", address, port);
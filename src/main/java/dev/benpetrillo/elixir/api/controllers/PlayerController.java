@@ -21,10 +21,13 @@ import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.api.APIError;
 import dev.benpetrillo.elixir.api.response.GeneralPlayerResponse;
+import dev.benpetrillo.elixir.api.response.HistoryEntryResponse;
 import dev.benpetrillo.elixir.api.response.JoinChannelResponse;
 import dev.benpetrillo.elixir.api.response.TrackDataResponse;
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
 import dev.benpetrillo.elixir.utils.APIAuthUtil;
+import dev.benpetrillo.elixir.utils.UserLookup;
 import dev.benpetrillo.elixir.utils.Utilities;
 import io.javalin.http.Context;
 import net.dv8tion.jda.api.managers.AudioManager;
@@ -33,7 +36,7 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 import static dev.benpetrillo.elixir.utils.Utilities.deserialize;
 import static java.util.Objects.requireNonNull;
@@ -46,21 +49,29 @@ public class PlayerController {
         var body = requireNonNull(deserialize(ctx.body(), JsonObject.class), "No body provided.");
         var channelId = requireNonNull(body.get("channel").getAsString(), "No voice channel provided.");
         var userId = requireNonNull(body.get("user").getAsString(), "No user provided.");
-        var guild = requireNonNull(ElixirClient.getJda().getGuildById(guildId), "Guild not found.");
+        var guild = requireNonNull(ElixirClient.getGuildById(guildId), "Guild not found.");
 
         requireNonNull(guild.getVoiceChannelById(channelId), "Voice channel not found.");
-        requireNonNull(ElixirClient.getJda().getUserById(userId), "User not found.");
 
-        if (APIAuthUtil.isValidAPIKey(userId, guildId, apiKey)) {
-            return ctx.status(401).json(APIError.from("Request not authorized."));
+        if (!DrainManager.acceptsSession(guild)) {
+            return ctx.status(503).json(APIError.from("Elixir is restarting and can't start new sessions right now."));
         }
 
-        AudioManager audioManager = guild.getAudioManager();
-        audioManager.openAudioConnection(guild.getVoiceChannelById(channelId));
+        ctx.future(() -> withUser(ctx, userId, () -> APIAuthUtil.isValidAPIKey(userId, guildId, apiKey).thenAccept(valid -> {
+            if (valid) {
+                ctx.status(401).json(APIError.from("Request not authorized."));
+                return;
+            }
+
+            AudioManager audioManager = guild.getAudioManager();
+            audioManager.openAudioConnection(guild.getVoiceChannelById(channelId));
 
-        return ctx.status(200).json(
-            JoinChannelResponse.create(
-                guildId, channelId, userId, "Successfully joined the voice channel."));
+            ctx.status(200).json(
+                JoinChannelResponse.create(
+                    guildId, channelId, userId, "Successfully joined the voice channel."));
+        })));
+
+        return ctx;
 
     }
 
@@ -70,29 +81,34 @@ public class PlayerController {
         var apiKey = requireNonNull(authHeader.split(" ")[1], "No API key provided.");
         var body = requireNonNull(deserialize(ctx.body(), JsonObject.class), "No body provided.");
         var userId = requireNonNull(body.get("user").getAsString(), "No user provided.");
-        var guild = requireNonNull(ElixirClient.getJda().getGuildById(guildId), "Guild not found.");
-        requireNonNull(ElixirClient.getJda().getUserById(userId), "User not found.");
+        var guild = requireNonNull(ElixirClient.getGuildById(guildId), "Guild not found.");
 
-        if (APIAuthUtil.isValidAPIKey(userId, guildId, apiKey)) {
-            return ctx.status(401).json(APIError.from("Request not authorized."));
-        }
+        ctx.future(() -> withUser(ctx, userId, () -> APIAuthUtil.isValidAPIKey(userId, guildId, apiKey).thenAccept(valid -> {
+            if (valid) {
+                ctx.status(401).json(APIError.from("Request not authorized."));
+                return;
+            }
 
-        ElixirMusicManager inst = ElixirMusicManager.getInstance();
-        var musicManager = requireNonNull(inst.getMusicManager(guildId), "No music manager found.");
+            ElixirMusicManager inst = ElixirMusicManager.getInstance();
+            var musicManager = requireNonNull(inst.getMusicManager(guildId), "No music manager found.");
 
-        try {
-            musicManager.scheduler.queue.clear();
-            musicManager.audioPlayer.destroy();
-            if (guild.getAudioManager().isConnected()) {
-                guild.getAudioManager().closeAudioConnection();
+            try {
+                musicManager.scheduler.queue.clear();
+                musicManager.audioPlayer.destroy();
+                if (guild.getAudioManager().isConnected()) {
+                    guild.getAudioManager().closeAudioConnection();
+                }
+            } catch (Exception e) {
+                ctx.status(500).json(APIError.from("An error occurred while stopping the player."));
+                return;
             }
-        } catch (Exception e) {
-            return ctx.status(500).json(APIError.from("An error occurred while stopping the player."));
-        }
 
-        return ctx.status(200).json(
-            GeneralPlayerResponse.create(
-                guildId, userId, "Successfully stopped the player."));
+            ctx.status(200).json(
+                GeneralPlayerResponse.create(
+                    guildId, userId, "Successfully stopped the player."));
+        })));
+
+        return ctx;
 
     }
 
@@ -103,90 +119,97 @@ public class PlayerController {
         var body = requireNonNull(deserialize(ctx.body(), JsonObject.class), "No body provided.");
         var userId = requireNonNull(body.get("user").getAsString(), "No user provided.");
         var volumeString = requireNonNull(body.get("volume").getAsString(), "No volume provided.");
-        requireNonNull(ElixirClient.getJda().getGuildById(guildId), "Guild not found.");
-        requireNonNull(ElixirClient.getJda().getUserById(userId), "User not found.");
+        requireNonNull(ElixirClient.getGuildById(guildId), "Guild not found.");
 
+        int volume;
         try {
+            volume = Integer.parseInt(volumeString);
+        } catch (NumberFormatException e) {
+            return ctx.status(500).json(APIError.from("An error occurred while setting the volume."));
+        }
 
-            int volume = Integer.parseInt(volumeString);
-            if (volume < 0 || volume > 100) {
-                return ctx.status(400).json(APIError.from("Volume must be between 0 and 100."));
-            }
+        if (volume < 0 || volume > 100) {
+            return ctx.status(400).json(APIError.from("Volume must be between 0 and 100."));
+        }
 
-            if (APIAuthUtil.isValidAPIKey(userId, guildId, apiKey)) {
-                return ctx.status(401).json(APIError.from("Request not authorized."));
+        ctx.future(() -> withUser(ctx, userId, () -> APIAuthUtil.isValidAPIKey(userId, guildId, apiKey).thenAccept(valid -> {
+            if (valid) {
+                ctx.status(401).json(APIError.from("Request not authorized."));
+                return;
             }
 
-            var inst = ElixirMusicManager.getInstance();
-            var musicManager = requireNonNull(inst.getMusicManager(guildId), "No music manager found.");
+            try {
+                var inst = ElixirMusicManager.getInstance();
+                var musicManager = requireNonNull(inst.getMusicManager(guildId), "No music manager found.");
 
-            musicManager.audioPlayer.setVolume(volume);
+                musicManager.audioPlayer.setVolume(volume);
 
-            return ctx.status(200).json(
-                GeneralPlayerResponse.create(guildId, userId,
-                    "Successfully changed the volume to %s.".formatted(volume)));
+                ctx.status(200).json(
+                    GeneralPlayerResponse.create(guildId, userId,
+                        "Successfully changed the volume to %s.".formatted(volume)));
+            } catch (Exception e) {
+                ctx.status(500).json(APIError.from("An error occurred while setting the volume."));
+            }
+        })));
 
-        } catch (Exception e) {
-            return ctx.status(500).json(APIError.from("An error occurred while setting the volume."));
-        }
+        return ctx;
     }
 
     public static Context postPlay(Context ctx) {
-        var future = new CompletableFuture<Context>();
-
         var guildId = requireNonNull(ctx.pathParam("guild"), "No guild ID provided.");
         var authHeader = requireNonNull(ctx.header("Authorization"), "Missing authorization header.");
         var apiKey = requireNonNull(authHeader.split(" ")[1], "Invalid API key format.");
         var body = requireNonNull(deserialize(ctx.body(), JsonObject.class), "No body provided.");
         var userId = requireNonNull(body.get("user"), "No user provided.");
         var query = requireNonNull(body.get("query"), "No search query provided.");
-        var guild = requireNonNull(ElixirClient.getJda().getGuildById(guildId), "Guild not found.");
-        requireNonNull(ElixirClient.getJda().getUserById(userId.getAsString()), "User not found.");
-
-        try {
+        var guild = requireNonNull(ElixirClient.getGuildById(guildId), "Guild not found.");
 
-            if (!APIAuthUtil.isValidAPIKey(userId.getAsString(), guildId, apiKey)) {
-                ctx.status(401).json(APIError.from("Request not authorized."));
-                return ctx;
-            }
+        if (!DrainManager.acceptsSession(guild)) {
+            return ctx.status(503).json(APIError.from("Elixir is restarting and can't start new sessions right now."));
+        }
 
-            var decodedQuery = URLDecoder.decode(query.getAsString(), StandardCharsets.UTF_8);
+        ctx.future(() -> withUser(ctx, userId.getAsString(), () -> APIAuthUtil.isValidAPIKey(userId.getAsString(), guildId, apiKey).thenCompose(valid -> {
+            var future = new CompletableFuture<Context>();
 
-            if (!Utilities.isValidURL(decodedQuery)) {
-                decodedQuery = "ytsearch:" + decodedQuery;
+            if (!valid) {
+                future.complete(ctx.status(401).json(APIError.from("Request not authorized.")));
+                return future;
             }
 
-            ElixirMusicManager.getInstance().loadAndPlay(guild, query.getAsString(), object -> {
-                if (object == null) {
-                    future.complete(ctx.status(404).json(APIError.from("No track found.")));
-                } else if (object instanceof AudioTrack) {
-                    future.complete(ctx.status(200).json(TrackDataResponse.create((AudioTrack) object)));
-                } else if (object instanceof List<?>) {
-                    List<AudioTrack> tracks = (List<AudioTrack>) object;
-                    future.complete(ctx.status(200).json(Utilities.serialize(tracks.stream().map(TrackDataResponse::create).toArray())));
-                } else if (object instanceof Throwable) {
-                    future.complete(ctx.status(500).json(APIError.from("An error occurred while playing the track.")));
+            try {
+                var decodedQuery = URLDecoder.decode(query.getAsString(), StandardCharsets.UTF_8);
+
+                if (!Utilities.isValidURL(decodedQuery)) {
+                    decodedQuery = "ytsearch:" + decodedQuery;
                 }
-            });
 
-        } catch (Exception e) {
-            ctx.status(500).json(APIError.from("An error occurred while playing the track."));
-            future.complete(ctx);
-        }
+                ElixirMusicManager.getInstance().loadAndPlay(guild, query.getAsString(), object -> {
+                    if (object == null) {
+                        future.complete(ctx.status(404).json(APIError.from("No track found.")));
+                    } else if (object instanceof AudioTrack) {
+                        future.complete(ctx.status(200).json(TrackDataResponse.create((AudioTrack) object)));
+                    } else if (object instanceof List<?>) {
+                        List<AudioTrack> tracks = (List<AudioTrack>) object;
+                        future.complete(ctx.status(200).json(Utilities.serialize(tracks.stream().map(TrackDataResponse::create).toArray())));
+                    } else if (object instanceof Throwable) {
+                        future.complete(ctx.status(500).json(APIError.from("An error occurred while playing the track.")));
+                    }
+                });
+            } catch (Exception e) {
+                future.complete(ctx.status(500).json(APIError.from("An error occurred while playing the track.")));
+            }
 
-        try {
-            return future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Failed to get the context", e);
-        }
+            return future;
+        })));
+
+        return ctx;
     }
 
     public static Context getNowPlaying(Context ctx) {
-        var jda = ElixirClient.getJda();
         var inst = ElixirMusicManager.getInstance();
 
         var guildId = requireNonNull(ctx.pathParam("guild"), "No guild ID provided.");
-        var guild = requireNonNull(jda.getGuildById(guildId), "Guild not found.");
+        var guild = requireNonNull(ElixirClient.getGuildById(guildId), "Guild not found.");
 
         var audioManager = guild.getAudioManager();
         if (!audioManager.isConnected()) {
@@ -198,4 +221,31 @@ public class PlayerController {
 
         return ctx.status(200).json(Utilities.serialize(TrackDataResponse.create(track)));
     }
+
+    public static Context getHistory(Context ctx) {
+        var inst = ElixirMusicManager.getInstance();
+
+        var guildId = requireNonNull(ctx.pathParam("guild"), "No guild ID provided.");
+        // Only guilds with a player have history loaded; looking one up must not create a player.
+        var musicManager = inst.getMusicManager(guildId);
+        if (musicManager == null) {
+            return ctx.status(404).json(APIError.from("No player found."));
+        }
+        var history = musicManager.getHistory().getEntries();
+
+        return ctx.status(200).json(Utilities.serialize(history.stream().map(HistoryEntryResponse::create).toArray()));
+    }
+
+    /**
+     * Runs a request once its user is known to exist, or responds with 400 if they do not.
+     */
+    private static CompletableFuture<?> withUser(Context ctx, String userId, Supplier<CompletableFuture<?>> action) {
+        return UserLookup.retrieve(userId).thenCompose(user -> {
+            if (user == null) {
+                ctx.status(400).json(APIError.from("User not found."));
+                return CompletableFuture.completedFuture(null);
+            }
+            return action.get();
+        });
+    }
 }
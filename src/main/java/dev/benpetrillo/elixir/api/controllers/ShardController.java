@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.api.controllers;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.api.response.DrainStatusResponse;
+import dev.benpetrillo.elixir.api.response.ShardStatusResponse;
+import dev.benpetrillo.elixir.utils.Utilities;
+import io.javalin.http.Context;
+import net.dv8tion.jda.api.JDA;
+
+public class ShardController {
+    /**
+     * Reports the status of every shard run by this process.
+     * Responds with 503 if any shard is not connected, so health checks can act on it.
+     */
+    public static Context getShards(Context ctx) {
+        var shards = ElixirClient.getShardManager().getShards().stream()
+            .map(ShardStatusResponse::create)
+            .toList();
+        var healthy = shards.stream().allMatch(shard -> shard.status().equals(JDA.Status.CONNECTED.name()));
+
+        return ctx.status(healthy ? 200 : 503).json(Utilities.serialize(shards));
+    }
+
+    /**
+     * Reports whether this process is draining, so orchestration can wait for it to exit.
+     */
+    public static Context getDrain(Context ctx) {
+        return ctx.status(200).json(Utilities.serialize(DrainStatusResponse.create()));
+    }
+}
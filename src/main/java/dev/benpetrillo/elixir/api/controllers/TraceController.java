@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.api.controllers;
+
+import dev.benpetrillo.elixir.api.response.TrackTraceResponse;
+import dev.benpetrillo.elixir.metrics.TrackTrace;
+import dev.benpetrillo.elixir.utils.Utilities;
+import io.javalin.http.Context;
+
+public class TraceController {
+    /**
+     * Lists recent play requests which were slow to start, with the time each stage was reached.
+     */
+    public static Context getSlowTraces(Context ctx) {
+        var traces = TrackTrace.getExemplars().stream()
+            .map(TrackTraceResponse::create)
+            .toList();
+
+        return ctx.status(200).json(Utilities.serialize(traces));
+    }
+}
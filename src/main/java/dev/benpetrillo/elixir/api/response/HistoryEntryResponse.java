@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.api.response;
+
+import dev.benpetrillo.elixir.music.TrackHistory;
+
+public record HistoryEntryResponse(
+    String title, String author, long duration, String uri,
+    String identifier, String requestedBy, long playedAt) {
+
+    public static HistoryEntryResponse create(TrackHistory.Entry entry) {
+        return new HistoryEntryResponse(
+            entry.title(), entry.author(), entry.length() / 1000, entry.uri(),
+            entry.identifier(), entry.requester(), entry.playedAt()
+        );
+    }
+}
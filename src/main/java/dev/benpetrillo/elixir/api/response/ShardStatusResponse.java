@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.api.response;
+
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import net.dv8tion.jda.api.JDA;
+
+public record ShardStatusResponse(int id, String status, long gatewayPing, long guilds, int streams) {
+
+    public static ShardStatusResponse create(JDA shard) {
+        var id = shard.getShardInfo().getShardId();
+        var streams = (int) ElixirMusicManager.getInstance().getMusicManagers(id).stream()
+            .filter(manager -> manager.audioPlayer.getPlayingTrack() != null)
+            .count();
+
+        return new ShardStatusResponse(
+            id, shard.getStatus().name(), shard.getGatewayPing(),
+            shard.getGuildCache().size(), streams
+        );
+    }
+}
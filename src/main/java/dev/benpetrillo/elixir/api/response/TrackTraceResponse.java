@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.api.response;
+
+import dev.benpetrillo.elixir.metrics.TrackTrace;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public record TrackTraceResponse(
+    String guildId, String source, String outcome,
+    long startedAt, long totalMillis, Map<String, Long> stages) {
+
+    public static TrackTraceResponse create(TrackTrace trace) {
+        return new TrackTraceResponse(
+            trace.getGuildId(), trace.getSource(), trace.getOutcome(), trace.getStartedAt(),
+            TimeUnit.NANOSECONDS.toMillis(trace.getTotalNanos()), trace.getStages()
+        );
+    }
+}
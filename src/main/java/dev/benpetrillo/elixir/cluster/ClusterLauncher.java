@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.cluster;
+
+import dev.benpetrillo.elixir.Config;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.managers.DrainManager;
+import dev.benpetrillo.elixir.utils.Utilities;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Elixir as several worker processes on one host, each with its own gateway shards and audio players.
+ * Discord sends a guild's voice events to the shard which owns the guild, so placing shards places players,
+ * and audio encoding spreads across processes instead of being capped by one JVM.
+ * <p>
+ * Shards are placed by capacity: a worker with twice the capacity of another runs twice as many shards.
+ * Workers which exit unexpectedly are restarted, and stopping the launcher stops every worker.
+ */
+public final class ClusterLauncher {
+
+    private static final long RESTART_DELAY = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_RESTART_DELAY = TimeUnit.MINUTES.toMillis(2);
+    /**
+     * A worker which ran this long before exiting is considered to have been healthy, and is restarted without backoff.
+     */
+    private static final long HEALTHY_UPTIME = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * How long a worker may take to exit once asked to, beyond the drain timeout.
+     */
+    private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Runs the cluster from the command line, until it is stopped.
+     * Usage: {@code cluster [workers]}. Without a worker count, capacities are read from {@code WORKER_CAPACITY}.
+     *
+     * @param args The command and its arguments.
+     * @return The process exit code.
+     */
+    public static int run(String[] args) {
+        var shards = (int) Utilities.parseOrDefault(ElixirConstants.SHARD_COUNT, -1);
+        if (shards < 1) {
+            ElixirClient.logger.error("Cluster mode requires SHARD_COUNT to be set.");
+            return 1;
+        }
+
+        int[] capacities;
+        try {
+            capacities = args.length > 1 ? equalCapacities(Integer.parseInt(args[1])) : parseCapacities(Config.get("WORKER-CAPACITY"));
+        } catch (IllegalArgumentException exception) {
+            ElixirClient.logger.error("Usage: <env file> cluster [workers], or set WORKER_CAPACITY to a list such as 2,1,1.");
+            return 1;
+        }
+        if (capacities.length > shards) {
+            ElixirClient.logger.error("Cannot run {} workers with only {} shards.", capacities.length, shards);
+            return 1;
+        }
+
+        if ("local".equalsIgnoreCase(ElixirConstants.STORAGE_BACKEND)) {
+            ElixirClient.logger.warn("Local storage is not shared between workers; use MongoDB to share playlists.");
+        }
+
+        var placements = place(shards, capacities);
+        var workers = new ArrayList<Worker>(placements.size());
+        for (var i = 0; i < placements.size(); i++) {
+            workers.add(new Worker(i, shards, placements.get(i)));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Every worker drains at once, and each is given the full drain timeout to hand its queues off.
+            var deadline = System.currentTimeMillis() + DrainManager.getTimeout() + STOP_TIMEOUT;
+            workers.forEach(Worker::drain);
+            workers.forEach(worker -> worker.stop(deadline));
+        }, "cluster-shutdown"));
+
+        workers.forEach(Worker::start);
+        workers.forEach(Worker::supervise);
+        return 0;
+    }
+
+    /**
+     * Splits shards into contiguous ranges sized by capacity, giving leftover shards to the largest remainders.
+     *
+     * @param shards The total number of shards.
+     * @param capacities The relative capacity of each worker.
+     * @return The first and last shard of each worker, in worker order.
+     */
+    public static List<int[]> place(int shards, int[] capacities) {
+        var total = Arrays.stream(capacities).asLongStream().sum();
+        var counts = new int[capacities.length];
+        var remainders = new double[capacities.length];
+        var placed = 0;
+        for (var i = 0; i < capacities.length; i++) {
+            var share = (double) shards * capacities[i] / total;
+            // Every worker runs at least one shard.
+            counts[i] = Math.max(1, (int) share);
+            remainders[i] = share - (int) share;
+            placed += counts[i];
+        }
+        while (placed < shards) {
+            var best = 0;
+            for (var i = 1; i < capacities.length; i++) {
+                if (remainders[i] > remainders[best]) best = i;
+            }
+            counts[best]++;
+            remainders[best] = -1;
+            placed++;
+        }
+        while (placed > shards) {
+            var largest = 0;
+            for (var i = 1; i < counts.length; i++) {
+                if (counts[i] > counts[largest]) largest = i;
+            }
+            counts[largest]--;
+            placed--;
+        }
+
+        var ranges = new ArrayList<int[]>(counts.length);
+        var next = 0;
+        for (var count : counts) {
+            ranges.add(new int[] {next, next + count - 1});
+            next += count;
+        }
+        return ranges;
+    }
+
+    private static int[] equalCapacities(int workers) {
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is required.");
+        var capacities = new int[workers];
+        Arrays.fill(capacities, 1);
+        return capacities;
+    }
+
+    private static int[] parseCapacities(String value) {
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("No worker capacities set.");
+        var capacities = Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+        if (Arrays.stream(capacities).anyMatch(capacity -> capacity < 1)) {
+            throw new IllegalArgumentException("Worker capacities must be positive.");
+        }
+        return capacities;
+    }
+
+    /**
+     * One worker process and its restart state.
+     */
+    private static final class Worker {
+        private final int index;
+        private final int shards;
+        private final int[] range;
+        private volatile Process process;
+        private volatile boolean stopping;
+        private long startedAt;
+        private long restartDelay = RESTART_DELAY;
+
+        Worker(int index, int shards, int[] range) {
+            this.index = index;
+            this.shards = shards;
+            this.range = range;
+        }
+
+        void start() {
+            var command = new ArrayList<String>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ElixirClient.class.getName());
+            command.add(ElixirClient.getEnvFile());
+
+            var builder = new ProcessBuilder(command).inheritIO();
+            this.configure(builder.environment());
+            try {
+                this.process = builder.start();
+                this.startedAt = System.currentTimeMillis();
+                ElixirClient.logger.info("Started worker {} with shards {} to {} (pid {}).",
+                    this.index, this.range[0], this.range[1], this.process.pid());
+            } catch (Exception exception) {
+                ElixirClient.logger.error("Unable to start worker {}.", this.index, exception);
+            }
+        }
+
+        /**
+         * Restarts the worker whenever it exits, until the launcher is stopped. Each worker is watched on its own thread.
+         */
+        void supervise() {
+            var thread = new Thread(() -> {
+                while (!this.stopping) {
+                    var process = this.process;
+                    if (process != null) {
+                        try {
+                            var code = process.waitFor();
+                            if (this.stopping) return;
+                            ElixirClient.logger.warn("Worker {} exited with code {}.", this.index, code);
+                        } catch (InterruptedException exception) {
+                            return;
+                        }
+                    }
+
+                    // Workers which keep failing are restarted less often, so a bad config does not spin.
+                    var uptime = System.currentTimeMillis() - this.startedAt;
+                    this.restartDelay = uptime > HEALTHY_UPTIME ? RESTART_DELAY : Math.min(this.restartDelay * 2, MAX_RESTART_DELAY);
+                    try {
+                        Thread.sleep(this.restartDelay);
+                    } catch (InterruptedException exception) {
+                        return;
+                    }
+                    if (!this.stopping) this.start();
+                }
+            }, "cluster-worker-" + this.index);
+            thread.start();
+        }
+
+        /**
+         * Asks the worker to drain, so it hands its queues off and exits once its streams end.
+         * Where the signal cannot be sent, the worker is asked to shut down instead.
+         */
+        void drain() {
+            this.stopping = true;
+            var process = this.process;
+            if (process == null || !process.isAlive()) return;
+
+            try {
+                var kill = new ProcessBuilder("kill", "-" + DrainManager.SIGNAL, String.valueOf(process.pid())).start();
+                if (kill.waitFor() == 0) return;
+            } catch (Exception exception) {
+                ElixirClient.logger.debug("Unable to signal worker {} to drain.", this.index, exception);
+            }
+            process.destroy();
+        }
+
+        /**
+         * Waits for the worker to exit, shutting it down if it has not drained by the deadline.
+         *
+         * @param deadline When to stop waiting for the drain, in epoch milliseconds.
+         */
+        void stop(long deadline) {
+            var process = this.process;
+            if (process == null) return;
+
+            try {
+                if (process.waitFor(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) return;
+                ElixirClient.logger.warn("Worker {} did not drain in time; shutting it down.", this.index);
+                process.destroy();
+                if (!process.waitFor(STOP_TIMEOUT, TimeUnit.MILLISECONDS)) process.destroyForcibly();
+            } catch (InterruptedException exception) {
+                process.destroyForcibly();
+            }
+        }
+
+        /**
+         * Overrides configuration for the worker. Environment variables take precedence over the env file.
+         */
+        private void configure(Map<String, String> environment) {
+            environment.put("SHARD-COUNT", String.valueOf(this.shards));
+            environment.put("SHARD-RANGE", this.range[0] + "-" + this.range[1]);
+            environment.put("API-PORT", String.valueOf(Integer.parseInt(ElixirConstants.API_PORT) + this.index));
+
+            // Global commands only need to be deployed once.
+            if (this.index > 0) {
+                environment.put("DEPLOY-APPLICATION-COMMANDS-GLOBAL", "false");
+                environment.put("DELETE-APPLICATION-COMMANDS-GLOBAL", "false");
+            }
+
+            // Local storage files cannot be shared between processes, so each worker gets its own directory.
+            if ("local".equalsIgnoreCase(ElixirConstants.STORAGE_BACKEND)) {
+                var path = Objects.requireNonNullElse(ElixirConstants.STORAGE_PATH, "data");
+                environment.put("STORAGE-PATH", Path.of(path, "worker-" + this.index).toString());
+            }
+        }
+    }
+}
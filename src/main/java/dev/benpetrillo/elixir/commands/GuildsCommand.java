@@ -43,7 +43,7 @@ public final class GuildsCommand extends Command {
         embed.setColor(ElixirConstants.DEFAULT_EMBED_COLOR);
 
         Collection<GuildMusicManager> managers = ElixirMusicManager.getInstance().getMusicManagers();
-        User self = ElixirClient.getInstance().jda.getSelfUser();
+        User self = ElixirClient.getJda().getSelfUser();
 
         if (managers.isEmpty()) {
             embed.setDescription("No guilds are currently streaming.");
@@ -57,7 +57,7 @@ public final class GuildsCommand extends Command {
                     embed.addField("Guild Name: " + guild.getName(), "Member Count: " + guild.getMemberCount(), false);
                 }
             }
-            embed.setFooter("Elixir Music", ElixirClient.getInstance().jda.getSelfUser().getEffectiveAvatarUrl());
+            embed.setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getEffectiveAvatarUrl());
         }
         embed.setTimestamp(OffsetDateTime.now());
         interaction.reply(embed.build(), false);
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.commands.misc;
+
+import dev.benpetrillo.elixir.managers.DrainManager;
+import dev.benpetrillo.elixir.utils.Embed;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
+import tech.xigam.cch.command.Command;
+import tech.xigam.cch.utils.Interaction;
+
+public final class DrainCommand extends Command {
+
+    public DrainCommand() {
+        super("drain", "Stop new sessions and restart once current streams end.");
+    }
+
+    @Override
+    public void execute(Interaction interaction) {
+        interaction.setEphemeral();
+
+        Member member = interaction.getMember();
+        if (member == null || !member.getPermissions().contains(Permission.ADMINISTRATOR)) {
+            interaction.reply(Embed.error("Only server administrators can drain Elixir."));
+            return;
+        }
+
+        if (!DrainManager.start("command by " + member.getId())) {
+            interaction.reply(Embed.error("Elixir is already draining."));
+            return;
+        }
+
+        interaction.reply(Embed.def("Draining: waiting for %s streams to end before restarting."
+            .formatted(DrainManager.getActiveStreams())));
+    }
+}
@@ -27,6 +27,7 @@ import tech.xigam.cch.command.Command;
 import tech.xigam.cch.utils.Interaction;
 
 import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
 
 public final class GenKeyCommand extends Command {
 
@@ -55,29 +56,29 @@ public final class GenKeyCommand extends Command {
         String guildId = interaction.getGuild().getId();
 
 
-        if (APIAuthUtil.hasAPIKey(id, guildId)) {
-            interaction.reply("You already have an API key. Please contact a developer.", false);
-            return;
-        }
-
-        try {
-            String key = APIAuthUtil.createAPIKey(id, guildId);
+        APIAuthUtil.hasAPIKey(id, guildId).thenCompose(hasKey -> {
+            if (hasKey) {
+                interaction.reply("You already have an API key. Please contact a developer.", false);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
 
-            String avatar = ElixirClient.getInstance().jda.getSelfUser().getEffectiveAvatarUrl();
+            return APIAuthUtil.createAPIKey(id, guildId).thenAccept(key -> {
+                String avatar = ElixirClient.getJda().getSelfUser().getEffectiveAvatarUrl();
 
-            MessageEmbed embed = new EmbedBuilder()
-                .setDescription("API key for guild %s generated.".formatted(interaction.getGuild().getName()))
-                .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
-                .addField("API Key", String.format("`%s`", key), false)
-                .setFooter("Elixir Music", avatar)
-                .setTimestamp(OffsetDateTime.now())
-                .build();
+                MessageEmbed embed = new EmbedBuilder()
+                    .setDescription("API key for guild %s generated.".formatted(interaction.getGuild().getName()))
+                    .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
+                    .addField("API Key", String.format("`%s`", key), false)
+                    .setFooter("Elixir Music", avatar)
+                    .setTimestamp(OffsetDateTime.now())
+                    .build();
 
-            interaction.reply(embed);
-
-        } catch (Exception e) {
+                interaction.reply(embed);
+            });
+        }).exceptionally(e -> {
             ElixirClient.logger.error(e.getMessage());
             interaction.reply("An error occurred while generating an API key.", false);
-        }
+            return null;
+        });
     }
 }
@@ -40,11 +40,11 @@ public final class InfoCommand extends Command {
     public void execute(Interaction interaction) {
         var streams = 0;
         var users = 0;
-        var servers = ElixirClient.getInstance().jda.getGuilds().size();
+        var servers = (int) ElixirClient.getShardManager().getGuildCache().size();
         for (var musicManager : ElixirMusicManager.getInstance().getMusicManagers()) {
             streams += musicManager.audioPlayer.getPlayingTrack() != null ? 1 : 0;
         }
-        for (var server : ElixirClient.getInstance().jda.getGuilds()) {
+        for (var server : ElixirClient.getShardManager().getGuildCache()) {
             users += server.getMemberCount();
         }
 
@@ -86,7 +86,7 @@ public final class InfoCommand extends Command {
                 • Threads: %s
                 • Total Memory: %s MB
                 """.formatted(cpuUsage, cores, threads, memory), false)
-            .setFooter("Elixir Music", ElixirClient.getInstance().jda.getSelfUser().getEffectiveAvatarUrl())
+            .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getEffectiveAvatarUrl())
             .setTimestamp(OffsetDateTime.now());
         interaction.reply(embed.build(), false);
     }
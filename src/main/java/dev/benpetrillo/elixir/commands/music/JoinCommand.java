@@ -16,6 +16,7 @@
 
 package dev.benpetrillo.elixir.commands.music;
 
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
 import dev.benpetrillo.elixir.utils.Embed;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
@@ -37,6 +38,10 @@ public final class JoinCommand extends Command {
             interaction.reply(Embed.error("This command can only be used in a guild."));
             return;
         }
+        if (!DrainManager.acceptsSession(interaction.getGuild())) {
+            interaction.reply(Embed.error("Elixir is restarting and can't start new sessions right now."));
+            return;
+        }
         assert interaction.getGuild() != null;
         final GuildVoiceState voiceState = interaction.getGuild().getSelfMember().getVoiceState();
         assert interaction.getMember() != null;
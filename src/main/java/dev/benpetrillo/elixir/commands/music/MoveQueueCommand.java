@@ -44,7 +44,7 @@ public final class MoveQueueCommand extends Command implements Arguments {
     @Override
     public void execute(Interaction interaction) {
         final String guildId = interaction.getArgument("guild", String.class);
-        final Guild guild = ElixirClient.getJda().getGuildById(guildId);
+        final Guild guild = ElixirClient.getGuildById(guildId);
         if (guild == null) {
             interaction.reply(Embed.error("The guild with the specified ID doesn't exist."));
             return;
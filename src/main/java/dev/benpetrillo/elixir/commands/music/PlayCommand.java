@@ -18,11 +18,16 @@
 
 package dev.benpetrillo.elixir.commands.music;
 
+import dev.benpetrillo.elixir.managers.CommandDispatcher;
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.metrics.TrackTrace;
 import dev.benpetrillo.elixir.music.spotify.SpotifySourceManager;
+import dev.benpetrillo.elixir.search.QuerySuggestions;
 import dev.benpetrillo.elixir.types.ElixirException;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.HttpUtil;
+import dev.benpetrillo.elixir.utils.TrackUtil;
 import dev.benpetrillo.elixir.utils.Utilities;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
 import net.dv8tion.jda.api.entities.channel.concrete.VoiceChannel;
@@ -52,12 +57,18 @@ public final class PlayCommand extends Command implements Arguments {
             interaction.reply(Embed.error("This command can only be used in a guild."));
             return;
         }
+        if (!DrainManager.acceptsSession(interaction.getGuild())) {
+            interaction.reply(Embed.error("Elixir is restarting and can't start new sessions right now."));
+            return;
+        }
         assert interaction.getGuild() != null;
+        final TrackTrace trace = TrackTrace.begin(interaction.getGuild().getId(), CommandDispatcher.getReceivedAt());
         final GuildVoiceState voiceState = interaction.getGuild().getSelfMember().getVoiceState();
         assert interaction.getMember() != null;
         final GuildVoiceState memberVoiceState = interaction.getMember().getVoiceState();
         assert memberVoiceState != null;
         interaction.deferReply();
+        trace.mark(TrackTrace.Stage.DEFERRED);
         if (!memberVoiceState.inAudioChannel()) {
             interaction.reply(Embed.error("You must be in a voice channel to run this command."), false);
             return;
@@ -71,13 +82,14 @@ public final class PlayCommand extends Command implements Arguments {
             audioManager.setSelfDeafened(true);
         }
         if (!Utilities.isValidURL(query)) {
-            query = HttpUtil.searchForVideo(query);
-            if (query == null) {
-                interaction.reply(Embed.error("No results found for that query."));
+            QuerySuggestions.getInstance().record(query);
+            // Tracks Elixir already knows about are matched locally, skipping the remote search.
+            final String resolved = TrackUtil.resolveQuery(query);
+            if (resolved.equals(HttpUtil.searchForVideo(query))) {
+                ElixirMusicManager.getInstance().loadAndPlay(resolved, interaction, "https://www.youtube.com", trace);
                 return;
             }
-            ElixirMusicManager.getInstance().loadAndPlay(query, interaction, "https://www.youtube.com");
-            return;
+            query = resolved;
         }
         if (Utilities.isValidURL(query) && query.contains("spotify") && query.contains("track")) {
             try {
@@ -86,7 +98,7 @@ public final class PlayCommand extends Command implements Arguments {
                 Utilities.throwThrowable(new ElixirException(interaction.getGuild(), interaction.getMember()).exception(exception).additionalInformation("Spotify authorization exception."));
             }
         }
-        ElixirMusicManager.getInstance().loadAndPlay(query, interaction, query);
+        ElixirMusicManager.getInstance().loadAndPlay(query, interaction, query, trace);
     }
 
     @Override
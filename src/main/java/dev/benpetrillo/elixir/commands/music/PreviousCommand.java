@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2023 Ben Petrillo, KingRainbow44. All rights reserved.
+ *
+ * Project licensed under the MIT License: https://www.mit.edu/~amini/LICENSE.md
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use, provided that
+ * credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.commands.music;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.managers.GuildMusicManager;
+import dev.benpetrillo.elixir.managers.HistoryManager;
+import dev.benpetrillo.elixir.music.TrackHistory;
+import dev.benpetrillo.elixir.utils.AudioUtil;
+import dev.benpetrillo.elixir.utils.Embed;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.Utilities;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import tech.xigam.cch.command.Command;
+import tech.xigam.cch.utils.Interaction;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+public final class PreviousCommand extends Command {
+
+    public PreviousCommand() {
+        super("previous", "Play the previously played track.");
+    }
+
+    @Override
+    public void execute(Interaction interaction) {
+        if (AudioUtil.audioCheck(interaction)) return;
+        assert interaction.getGuild() != null;
+        final GuildMusicManager musicManager = ElixirMusicManager.getInstance().getMusicManager(interaction.getGuild());
+        final TrackHistory.Entry entry = musicManager.getHistory().pop();
+        if (entry == null) {
+            interaction.reply(Embed.error("There are no previously played tracks."), false);
+            return;
+        }
+        HistoryManager.markDirty(musicManager);
+        final AudioTrack previous = entry.decode(ElixirMusicManager.getInstance().getAudioPlayerManager());
+        if (previous == null) {
+            interaction.reply(Embed.error("The previous track can no longer be replayed."), false);
+            return;
+        }
+        // The interrupted track goes back to the front of the queue, so it plays again next.
+        final AudioTrack playing = musicManager.audioPlayer.getPlayingTrack();
+        if (playing != null) {
+            final ArrayList<AudioTrack> queue = new ArrayList<>(musicManager.scheduler.queue);
+            queue.add(0, playing.makeClone());
+            musicManager.scheduler.setQueue(queue);
+        }
+        musicManager.audioPlayer.startTrack(previous, false);
+        final String title = previous.getInfo().title.length() > 60 ? previous.getInfo().title.substring(0, 60) + "..." : previous.getInfo().title;
+        final String duration = Utilities.formatDuration(previous.getDuration());
+        final String artist = previous.getInfo().author;
+        final String url = previous.getInfo().uri;
+        final String requestedBy = "<@" + previous.getUserData(String.class) + ">";
+        final String contents = """
+            • Artist: %s
+            • Requested by: %s
+            • Duration: %s
+            """.formatted(artist, requestedBy, duration);
+        final MessageEmbed embed = new EmbedBuilder()
+            .setTitle("Now Playing")
+            .setDescription("[%s](%s)".formatted(title, url))
+            .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
+            .setThumbnail(TrackUtil.getCoverArt(previous.getInfo()))
+            .addField("Track Data", contents, false)
+            .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getAvatarUrl())
+            .setTimestamp(new Date().toInstant())
+            .build();
+        interaction.reply(embed, false);
+    }
+}
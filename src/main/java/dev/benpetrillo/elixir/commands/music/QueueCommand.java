@@ -85,7 +85,7 @@ public final class QueueCommand extends Command {
                 .setThumbnail(thumbnail)
                 .setDescription(description)
                 .addField("Queue Data", queueData, false)
-                .setFooter("Elixir Music", ElixirClient.getInstance().jda.getSelfUser().getAvatarUrl())
+                .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getAvatarUrl())
                 .setTimestamp(new Date().toInstant())
                 .build();
             interaction.reply(embed, false);
@@ -19,6 +19,7 @@
 package dev.benpetrillo.elixir.commands.playlist;
 
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.benpetrillo.elixir.search.TrackIndex;
 import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.*;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
@@ -29,6 +30,7 @@ import tech.xigam.cch.utils.Interaction;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public final class AddTrackSubCommand extends SubCommand implements Arguments {
 
@@ -40,18 +42,39 @@ public final class AddTrackSubCommand extends SubCommand implements Arguments {
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", "test", String.class);
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("Unable to find a playlist with ID `" + playlistId + "`."), false);
-            return;
-        }
-        assert interaction.getMember() != null;
-        if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
-            interaction.reply(Embed.error("You are not the author of this playlist."), false);
-            return;
-        }
-        String track = interaction.getArgument("track", "https://youtube.com/watch?v=dQw4w9WgXcQ", String.class);
-        final long index = interaction.getArgument("index", -1L, Long.class);
+        PlaylistUtil.findPlaylist(playlistId).whenComplete((playlist, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (playlist == null) {
+                interaction.reply(Embed.error("Unable to find a playlist with ID `" + playlistId + "`."), false);
+                return;
+            }
+            assert interaction.getMember() != null;
+            if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
+                interaction.reply(Embed.error("You are not the author of this playlist."), false);
+                return;
+            }
+            final String query = interaction.getArgument("track", "https://youtube.com/watch?v=dQw4w9WgXcQ", String.class);
+            // Search queries for tracks Elixir already knows about are matched locally.
+            final TrackIndex.Match match = Utilities.isValidURL(query) ? null : TrackIndex.getInstance().findBestMatch(query);
+            final String track = match != null ? match.url() : query;
+            final int index = interaction.getArgument("index", -1L, Long.class).intValue();
+            PlaylistUtil.findKnownTrack(track).whenComplete((knownTrack, lookupError) -> {
+                if (knownTrack == null) {
+                    // Unknown tracks, or a failed catalog lookup, fall back to the remote lookup.
+                    addRemoteTrack(interaction, playlist, track, index);
+                    return;
+                }
+                replyWhenSaved(interaction, PlaylistUtil.addTrackToList(knownTrack, playlist, index),
+                    knownTrack.title, knownTrack.url);
+            });
+        });
+    }
+
+    private static void addRemoteTrack(Interaction interaction, CustomPlaylist playlist, String track, int index) {
         if (!Utilities.isValidURL(track)) {
             try {
                 track = HttpUtil.searchForVideo(track);
@@ -69,13 +92,19 @@ public final class AddTrackSubCommand extends SubCommand implements Arguments {
                 interaction.reply(Embed.error("Unable to find a track with the URL `" + track + "`."), false);
                 return;
             }
-            PlaylistUtil.addTrackToList(trackInfo, playlist, (int) index);
-            interaction.reply(Embed.def("Successfully added [%s](%s) to playlist.".formatted(trackInfo.title, trackInfo.uri)), false);
+            replyWhenSaved(interaction, PlaylistUtil.addTrackToList(trackInfo, playlist, index),
+                trackInfo.title, trackInfo.uri);
         } catch (Exception ignored) {
             interaction.reply(Embed.error("Unable to add track to playlist."), false);
         }
     }
 
+    private static void replyWhenSaved(Interaction interaction, CompletableFuture<Void> save, String title, String url) {
+        save.whenComplete((ignored, error) -> interaction.reply(error != null ?
+            Embed.error("Unable to add track to playlist.") :
+            Embed.def("Successfully added [%s](%s) to playlist.".formatted(title, url)), false));
+    }
+
     @Override
     public Collection<Argument> getArguments() {
         return List.of(
@@ -39,11 +39,18 @@ public final class CreateSubCommand extends SubCommand implements Arguments {
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", String.class);
-        if (!PlaylistUtil.createPlaylist(playlistId, interaction.getMember())) {
-            interaction.reply(Embed.error("A playlist with ID `" + playlistId + "` already exists."), false);
-            return;
-        }
-        interaction.reply(Embed.def("Successfully created a playlist with id `" + playlistId + "`."), false);
+        PlaylistUtil.createPlaylist(playlistId, interaction.getMember()).whenComplete((created, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to create the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (!created) {
+                interaction.reply(Embed.error("A playlist with ID `" + playlistId + "` already exists."), false);
+                return;
+            }
+            interaction.reply(Embed.def("Successfully created a playlist with id `" + playlistId + "`."), false);
+        });
     }
 
     @Override
@@ -18,7 +18,6 @@
 
 package dev.benpetrillo.elixir.commands.playlist;
 
-import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.PlaylistUtil;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
@@ -40,18 +39,25 @@ public final class DeleteSubCommand extends SubCommand implements Arguments {
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", String.class);
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("A playlist with ID `" + playlistId + "` doesn't exist."), false);
-            return;
-        }
-        assert interaction.getMember() != null;
-        if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
-            interaction.reply(Embed.error("You are not the author of this playlist."), false);
-            return;
-        }
-        PlaylistUtil.deletePlaylist(playlistId);
-        interaction.reply(Embed.def("Successfully deleted playlist " + playlist.info.name + "."), false);
+        PlaylistUtil.findPlaylist(playlistId).whenComplete((playlist, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (playlist == null) {
+                interaction.reply(Embed.error("A playlist with ID `" + playlistId + "` doesn't exist."), false);
+                return;
+            }
+            assert interaction.getMember() != null;
+            if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
+                interaction.reply(Embed.error("You are not the author of this playlist."), false);
+                return;
+            }
+            PlaylistUtil.deletePlaylist(playlistId).whenComplete((ignored, deleteError) -> interaction.reply(deleteError != null ?
+                Embed.error("Unable to delete the playlist. Please try again later.") :
+                Embed.def("Successfully deleted playlist " + playlist.info.name + "."), false));
+        });
     }
 
     @Override
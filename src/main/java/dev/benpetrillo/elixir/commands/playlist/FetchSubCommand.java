@@ -18,10 +18,8 @@
 
 package dev.benpetrillo.elixir.commands.playlist;
 
-import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
 import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.ElixirConstants;
-import dev.benpetrillo.elixir.music.playlist.PlaylistTrack;
 import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.PlaylistUtil;
@@ -39,6 +37,8 @@ import java.util.List;
 
 public final class FetchSubCommand extends SubCommand implements Arguments {
 
+    private static final int PAGE_SIZE = 8;
+
     public FetchSubCommand() {
         super("fetch", "Fetch a playlist.");
     }
@@ -47,44 +47,49 @@ public final class FetchSubCommand extends SubCommand implements Arguments {
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", String.class);
-        int page = interaction.getArgument("page", 1L, Long.class).intValue();
-        if (page == 0) page = 1;
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("Unable to find a playlist of id `" + playlistId + "`."), false);
-            return;
-        }
-        final List<PlaylistTrack> tracks = PlaylistUtil.getTracks(playlist);
-        final StringBuilder description = new StringBuilder();
-        final int maxAmount = Math.min(tracks.size(), 8);
-        final String thumbnail = playlist.info.playlistCoverUrl;
-        if (tracks.size() == 0) description.append("This playlist is empty.");
-        for (int i = (page - 1) * 8; i < page * 8 && i < tracks.size(); i++) {
-            PlaylistTrack track = tracks.get(i);
-            AudioTrackInfo info = track.getInfo();
-            String title = info.title.length() > 55 ? info.title.substring(0, 52) + "..." : info.title;
-            String formattedString = String.format("**#%s** - [%s](%s)", i + 1, title, info.uri);
-            description.append(formattedString).append("\n");
-        }
-        if (tracks.size() > maxAmount) {
-            description.append("\n").append(String.format("...and %s more tracks.", tracks.size() - maxAmount));
-        }
-        final String settings = """
-            Shuffle: %s
-            Repeat: %s
-            """.formatted(playlist.options.shuffle ? "Yes" : "No", playlist.options.repeat ? "Yes" : "No");
-        MessageEmbed embed = new EmbedBuilder()
-            .setTitle(playlist.info.name)
-            .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
-            .setThumbnail(thumbnail)
-            .setDescription("Author: <@%s>".formatted(playlist.info.author))
-            .addField("Description", playlist.info.description, false)
-            .addField("Queue Settings", String.valueOf(settings), false)
-            .addField("Sample Tracks", String.valueOf(description), false)
-            .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getAvatarUrl())
-            .setTimestamp(new Date().toInstant())
-            .build();
-        interaction.reply(embed, false);
+        // Fallback the page to 1 if it's 0.
+        final int page = Math.max(1, interaction.getArgument("page", 1L, Long.class).intValue());
+        PlaylistUtil.findPlaylistWindow(playlistId, (page - 1) * PAGE_SIZE, PAGE_SIZE).whenComplete((window, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (window == null) {
+                interaction.reply(Embed.error("Unable to find a playlist of id `" + playlistId + "`."), false);
+                return;
+            }
+            final CustomPlaylist playlist = window.playlist;
+            final StringBuilder description = new StringBuilder();
+            final int maxAmount = Math.min(window.totalTracks, PAGE_SIZE);
+            final String thumbnail = playlist.info.playlistCoverUrl;
+            if (window.totalTracks == 0) description.append("This playlist is empty.");
+            for (int i = 0; i < window.tracks.size(); i++) {
+                CustomPlaylist.CustomPlaylistTrack track = window.tracks.get(i);
+                String title = track.title.length() > 55 ? track.title.substring(0, 52) + "..." : track.title;
+                String formattedString = String.format("**#%s** - [%s](%s)", window.offset + i + 1, title, track.url);
+                description.append(formattedString).append("\n");
+            }
+            if (window.totalTracks > maxAmount) {
+                description.append("\n").append(String.format("...and %s more tracks.", window.totalTracks - maxAmount));
+            }
+            final String settings = """
+                Shuffle: %s
+                Repeat: %s
+                """.formatted(playlist.options.shuffle ? "Yes" : "No", playlist.options.repeat ? "Yes" : "No");
+            MessageEmbed embed = new EmbedBuilder()
+                .setTitle(playlist.info.name)
+                .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
+                .setThumbnail(thumbnail)
+                .setDescription("Author: <@%s>".formatted(playlist.info.author))
+                .addField("Description", playlist.info.description, false)
+                .addField("Queue Settings", String.valueOf(settings), false)
+                .addField("Sample Tracks", String.valueOf(description), false)
+                .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getAvatarUrl())
+                .setTimestamp(new Date().toInstant())
+                .build();
+            interaction.reply(embed, false);
+        });
     }
 
     @Override
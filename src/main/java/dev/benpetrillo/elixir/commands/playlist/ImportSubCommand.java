@@ -19,7 +19,6 @@
 package dev.benpetrillo.elixir.commands.playlist;
 
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
-import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.PlaylistUtil;
 import dev.benpetrillo.elixir.utils.TrackUtil;
@@ -43,30 +42,35 @@ public final class ImportSubCommand extends SubCommand implements Arguments {
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", String.class);
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("Unable to find a playlist with ID `" + playlistId + "`."), false);
-            return;
-        }
-        assert interaction.getMember() != null;
-        if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
-            interaction.reply(Embed.error("You are not the author of this playlist."), false);
-            return;
-        }
-        final String sourcePlaylist = interaction.getArgument("playlist", String.class);
-        if (!Utilities.isValidURL(sourcePlaylist)) {
-            interaction.reply(Embed.error("That isn't a valid playlist!"), false);
-            return;
-        }
-        final Collection<AudioTrackInfo> playlistInfo = TrackUtil.getPlaylistInfoFromUrl(sourcePlaylist);
-        if (playlistInfo == null) {
-            interaction.reply(Embed.error("Unable to get playlist info from that URL."), false);
-            return;
-        }
-        for (var track : playlistInfo) {
-            PlaylistUtil.addTrackToList(track, playlist, -1);
-        }
-        interaction.reply(Embed.def("Successfully imported `" + playlistInfo.size() + "` tracks from playlist."), false);
+        PlaylistUtil.findPlaylist(playlistId).whenComplete((playlist, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (playlist == null) {
+                interaction.reply(Embed.error("Unable to find a playlist with ID `" + playlistId + "`."), false);
+                return;
+            }
+            assert interaction.getMember() != null;
+            if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
+                interaction.reply(Embed.error("You are not the author of this playlist."), false);
+                return;
+            }
+            final String sourcePlaylist = interaction.getArgument("playlist", String.class);
+            if (!Utilities.isValidURL(sourcePlaylist)) {
+                interaction.reply(Embed.error("That isn't a valid playlist!"), false);
+                return;
+            }
+            final Collection<AudioTrackInfo> playlistInfo = TrackUtil.getPlaylistInfoFromUrl(sourcePlaylist);
+            if (playlistInfo == null) {
+                interaction.reply(Embed.error("Unable to get playlist info from that URL."), false);
+                return;
+            }
+            PlaylistUtil.addTracksToList(playlistInfo, playlist).whenComplete((ignored, saveError) -> interaction.reply(saveError != null ?
+                Embed.error("Unable to save the playlist. Please try again later.") :
+                Embed.def("Successfully imported `" + playlistInfo.size() + "` tracks from playlist."), false));
+        });
     }
 
     @Override
@@ -42,31 +42,37 @@ public final class ListSubCommand extends SubCommand implements Arguments {
     @Override
     public void execute(Interaction interaction) {
         interaction.deferReply();
-        int page = interaction.getArgument("page", 1L, Long.class).intValue();
-        if (page == 0) page = 1; // Fallback the page to 1 if it's 0.
-        final List<CustomPlaylist> playlists = PlaylistUtil.getAllPlaylists();
-        int maxAmount = Math.min(playlists.size(), 12);
-        int totalPages = playlists.size() / maxAmount;
-        if (page > totalPages) {
-            interaction.reply(Embed.error("There is not a page `" + page + "`!"), false);
-            return;
-        }
-        final EmbedBuilder embed = new EmbedBuilder()
-            .setTitle("Elixir Playlists")
-            .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
-            .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getAvatarUrl())
-            .setTimestamp(OffsetDateTime.now());
-        final StringBuilder description = new StringBuilder();
-        for (int i = (page - 1) * maxAmount; i < page * maxAmount && i < playlists.size(); i++) {
-            CustomPlaylist playlist = playlists.get(i);
-            String formatted = "**%s**: `%s`".formatted(playlist.info.name, playlist.info.id);
-            description.append(formatted).append("\n");
-        }
-        if (playlists.size() > maxAmount) {
-            description.append("\n").append("Page %d of %d".formatted(page, totalPages));
-        }
-        embed.setDescription(description.toString());
-        interaction.reply(embed.build());
+        // Fallback the page to 1 if it's 0.
+        final int page = Math.max(1, interaction.getArgument("page", 1L, Long.class).intValue());
+        PlaylistUtil.getAllPlaylists().whenComplete((playlists, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load playlists. Please try again later."), false);
+                return;
+            }
+
+            int maxAmount = Math.min(playlists.size(), 12);
+            int totalPages = playlists.size() / maxAmount;
+            if (page > totalPages) {
+                interaction.reply(Embed.error("There is not a page `" + page + "`!"), false);
+                return;
+            }
+            final EmbedBuilder embed = new EmbedBuilder()
+                .setTitle("Elixir Playlists")
+                .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
+                .setFooter("Elixir Music", ElixirClient.getJda().getSelfUser().getAvatarUrl())
+                .setTimestamp(OffsetDateTime.now());
+            final StringBuilder description = new StringBuilder();
+            for (int i = (page - 1) * maxAmount; i < page * maxAmount && i < playlists.size(); i++) {
+                CustomPlaylist playlist = playlists.get(i);
+                String formatted = "**%s**: `%s`".formatted(playlist.info.name, playlist.info.id);
+                description.append(formatted).append("\n");
+            }
+            if (playlists.size() > maxAmount) {
+                description.append("\n").append("Page %d of %d".formatted(page, totalPages));
+            }
+            embed.setDescription(description.toString());
+            interaction.reply(embed.build());
+        });
     }
 
     @Override
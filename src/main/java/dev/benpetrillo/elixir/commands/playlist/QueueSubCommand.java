@@ -18,11 +18,11 @@
 
 package dev.benpetrillo.elixir.commands.playlist;
 
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
 import dev.benpetrillo.elixir.managers.GuildMusicManager;
 import dev.benpetrillo.elixir.music.TrackScheduler;
 import dev.benpetrillo.elixir.music.playlist.PlaylistTrack;
-import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.PlaylistUtil;
 import dev.benpetrillo.elixir.utils.TrackUtil;
@@ -54,42 +54,55 @@ public final class QueueSubCommand extends SubCommand implements Arguments {
             interaction.reply(Embed.error("This command can only be used in a guild."));
             return;
         }
+        if (!DrainManager.acceptsSession(interaction.getGuild())) {
+            interaction.reply(Embed.error("Elixir is restarting and can't start new sessions right now."));
+            return;
+        }
         interaction.deferReply();
         final Member member = interaction.getMember();
         Guild guild = interaction.getGuild();
         final String playlistId = interaction.getArgument("id", String.class);
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("Unable to find a playlist of ID `" + playlistId + "`."), false);
-            return;
-        }
-        assert member != null;
-        final GuildVoiceState memberVoiceState = member.getVoiceState();
-        assert memberVoiceState != null;
-        if (!memberVoiceState.inAudioChannel()) {
-            interaction.reply(Embed.error("You must be in a voice channel to queue tracks."), false);
-            return;
-        }
-        assert guild != null;
-        final GuildVoiceState voiceState = guild.getSelfMember().getVoiceState();
-        assert voiceState != null;
-        final AudioManager audioManager = guild.getAudioManager();
-        final VoiceChannel audioChannel = Objects.requireNonNull(memberVoiceState.getChannel()).asVoiceChannel();
-        if (!voiceState.inAudioChannel()) {
-            audioManager.openAudioConnection(audioChannel);
-            audioManager.setSelfDeafened(true);
-        }
-        final GuildMusicManager musicManager = ElixirMusicManager.getInstance().getMusicManager(guild);
-        final List<PlaylistTrack> tracks = PlaylistUtil.getTracks(playlist);
-        TrackUtil.appendUser(member.getId(), tracks);
-        if (playlist.options.shuffle) Collections.shuffle(tracks);
-        if (musicManager.scheduler.queue.isEmpty() && musicManager.audioPlayer.getPlayingTrack() == null) {
-            musicManager.scheduler.repeating = playlist.options.repeat ? TrackScheduler.LoopMode.QUEUE : TrackScheduler.LoopMode.NONE;
-            musicManager.audioPlayer.setVolume(playlist.info.volume);
-        }
-        musicManager.scheduler.getQueue().addAll(tracks);
-        if (musicManager.audioPlayer.getPlayingTrack() == null) musicManager.scheduler.nextTrack();
-        interaction.reply(Embed.def("Queued **%s** tracks from %s.".formatted(playlist.tracks.size(), playlist.info.name)), false);
+        PlaylistUtil.findPlaylist(playlistId).whenComplete((playlist, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (playlist == null) {
+                interaction.reply(Embed.error("Unable to find a playlist of ID `" + playlistId + "`."), false);
+                return;
+            }
+            assert member != null;
+            final GuildVoiceState memberVoiceState = member.getVoiceState();
+            assert memberVoiceState != null;
+            if (!memberVoiceState.inAudioChannel()) {
+                interaction.reply(Embed.error("You must be in a voice channel to queue tracks."), false);
+                return;
+            }
+            assert guild != null;
+            final GuildVoiceState voiceState = guild.getSelfMember().getVoiceState();
+            assert voiceState != null;
+            final AudioManager audioManager = guild.getAudioManager();
+            final VoiceChannel audioChannel = Objects.requireNonNull(memberVoiceState.getChannel()).asVoiceChannel();
+            if (!voiceState.inAudioChannel()) {
+                audioManager.openAudioConnection(audioChannel);
+                audioManager.setSelfDeafened(true);
+            }
+            final GuildMusicManager musicManager = ElixirMusicManager.getInstance().getMusicManager(guild);
+            final List<PlaylistTrack> tracks = PlaylistUtil.getPlayableTracks(playlist);
+            TrackUtil.appendUser(member.getId(), tracks);
+            if (playlist.options.shuffle) Collections.shuffle(tracks);
+            if (musicManager.scheduler.queue.isEmpty() && musicManager.audioPlayer.getPlayingTrack() == null) {
+                musicManager.scheduler.repeating = playlist.options.repeat ? TrackScheduler.LoopMode.QUEUE : TrackScheduler.LoopMode.NONE;
+                musicManager.audioPlayer.setVolume(playlist.info.volume);
+            }
+            musicManager.scheduler.getQueue().addAll(tracks);
+            if (musicManager.audioPlayer.getPlayingTrack() == null) musicManager.scheduler.nextTrack();
+            final int skipped = playlist.tracks.size() - tracks.size();
+            final String message = "Queued **%s** tracks from %s.".formatted(tracks.size(), playlist.info.name);
+            interaction.reply(Embed.def(skipped == 0 ? message :
+                message + " Skipped **%s** unavailable tracks.".formatted(skipped)), false);
+        });
     }
 
     @Override
@@ -18,7 +18,6 @@
 
 package dev.benpetrillo.elixir.commands.playlist;
 
-import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.PlaylistUtil;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
@@ -28,6 +27,7 @@ import tech.xigam.cch.utils.Argument;
 import tech.xigam.cch.utils.Interaction;
 
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 
 public final class RemoveTrackSubCommand extends SubCommand implements Arguments {
@@ -40,23 +40,34 @@ public final class RemoveTrackSubCommand extends SubCommand implements Arguments
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", String.class);
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("Unable to find a playlist of id `" + playlistId + "`."), false);
-            return;
-        }
-        assert interaction.getMember() != null;
-        if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
-            interaction.reply(Embed.error("You are not the author of this playlist."), false);
-            return;
-        }
-        int index = interaction.getArgument("index", 0L, Long.class).intValue();
-        try {
-            PlaylistUtil.removeTrackFromList(index, playlist);
-            interaction.reply(Embed.def("Successfully removed track from playlist."), false);
-        } catch (IndexOutOfBoundsException ignored) {
-            interaction.reply(Embed.error("That track doesn't exist."), false);
-        }
+        PlaylistUtil.findPlaylist(playlistId).whenComplete((playlist, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
+            }
+
+            if (playlist == null) {
+                interaction.reply(Embed.error("Unable to find a playlist of id `" + playlistId + "`."), false);
+                return;
+            }
+            assert interaction.getMember() != null;
+            if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
+                interaction.reply(Embed.error("You are not the author of this playlist."), false);
+                return;
+            }
+            int index = interaction.getArgument("track", 0L, Long.class).intValue();
+            PlaylistUtil.removeTrackFromList(index, playlist).whenComplete((ignored, saveError) -> {
+                if (saveError == null) {
+                    interaction.reply(Embed.def("Successfully removed track from playlist."), false);
+                } else if (saveError instanceof IndexOutOfBoundsException || saveError.getCause() instanceof IndexOutOfBoundsException) {
+                    interaction.reply(Embed.error("That track doesn't exist."), false);
+                } else if (saveError.getCause() instanceof ConcurrentModificationException) {
+                    interaction.reply(Embed.error("The playlist changed while removing the track. Please check the track number and try again."), false);
+                } else {
+                    interaction.reply(Embed.error("Unable to save the playlist. Please try again later."), false);
+                }
+            });
+        });
     }
 
     @Override
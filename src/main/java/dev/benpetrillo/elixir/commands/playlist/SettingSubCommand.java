@@ -19,11 +19,11 @@
 package dev.benpetrillo.elixir.commands.playlist;
 
 import dev.benpetrillo.elixir.ElixirConstants;
-import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.utils.Embed;
 import dev.benpetrillo.elixir.utils.PlaylistUtil;
 import dev.benpetrillo.elixir.utils.Utilities;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import tech.xigam.cch.command.Arguments;
 import tech.xigam.cch.command.SubCommand;
@@ -32,6 +32,7 @@ import tech.xigam.cch.utils.Interaction;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public final class SettingSubCommand extends SubCommand implements Arguments {
 
@@ -43,59 +44,67 @@ public final class SettingSubCommand extends SubCommand implements Arguments {
     public void execute(Interaction interaction) {
         interaction.deferReply();
         final String playlistId = interaction.getArgument("id", String.class);
-        final CustomPlaylist playlist = PlaylistUtil.findPlaylist(playlistId);
-        if (playlist == null) {
-            interaction.reply(Embed.error("Unable to find a playlist of id `" + playlistId + "`."), false);
-            return;
-        }
-        assert interaction.getMember() != null;
-        if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
-            interaction.reply(Embed.error("You are not the author of this playlist."), false);
-            return;
-        }
-        final String toChange = interaction.getArgument("setting", "name", String.class);
-        final String value = interaction.getArgument("value", "Default Name", String.class);
-        final String defAulr = interaction.getArgument("default", "false", String.class);
-        switch (toChange) {
-            default -> interaction.reply(Embed.error("Invalid setting: `" + toChange + "`."), false);
-            case "cover" -> {
-                if (!Utilities.isValidURL(value)) {
-                    interaction.reply(Embed.error("That isn't a valid URL!"), false);
-                    return;
-                }
-                PlaylistUtil.setPlaylistCover(playlist, value);
-                interaction.reply(new EmbedBuilder()
-                    .setDescription("Successfully swapped the playlist cover!")
-                    .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
-                    .setImage(value).build());
-            }
-            case "name" -> {
-                PlaylistUtil.setPlaylistName(playlist, value);
-                interaction.reply(Embed.def("Successfully changed the playlist name to `" + value + "`."), false);
-            }
-            case "description" -> {
-                PlaylistUtil.setPlaylistDescription(playlist, value);
-                interaction.reply(new EmbedBuilder()
-                    .setDescription("Successfully swapped the playlist description!")
-                    .addField("New Description", value, false)
-                    .setColor(ElixirConstants.DEFAULT_EMBED_COLOR).build(), false);
+        PlaylistUtil.findPlaylist(playlistId).whenComplete((playlist, error) -> {
+            if (error != null) {
+                interaction.reply(Embed.error("Unable to load the playlist. Please try again later."), false);
+                return;
             }
-            case "shuffle" -> {
-                PlaylistUtil.setPlaylistSetting(PlaylistUtil.Setting.SHUFFLE, playlist, Utilities.parseBoolean(value));
-                interaction.reply(Embed.def("Successfully changed the shuffle setting to `" + value + "`."), false);
+
+            if (playlist == null) {
+                interaction.reply(Embed.error("Unable to find a playlist of id `" + playlistId + "`."), false);
+                return;
             }
-            case "repeat" -> {
-                PlaylistUtil.setPlaylistSetting(PlaylistUtil.Setting.REPEAT, playlist, Utilities.parseBoolean(value));
-                interaction.reply(Embed.def("Successfully changed the repeat setting to `" + value + "`."), false);
+            assert interaction.getMember() != null;
+            if (!PlaylistUtil.isAuthor(playlist, interaction.getMember())) {
+                interaction.reply(Embed.error("You are not the author of this playlist."), false);
+                return;
             }
-            case "volume" -> {
-                int volume = Integer.parseInt(value);
-                if (volume < 0 || volume > 150)
-                    volume = 100;
-                PlaylistUtil.setPlaylistVolume(playlist, volume);
-                interaction.reply(Embed.def("Successfully changed the volume to `" + volume + "`%."), false);
+            final String toChange = interaction.getArgument("setting", "name", String.class);
+            final String value = interaction.getArgument("value", "Default Name", String.class);
+            final String defAulr = interaction.getArgument("default", "false", String.class);
+            switch (toChange) {
+                default -> interaction.reply(Embed.error("Invalid setting: `" + toChange + "`."), false);
+                case "cover" -> {
+                    if (!Utilities.isValidURL(value)) {
+                        interaction.reply(Embed.error("That isn't a valid URL!"), false);
+                        return;
+                    }
+                    replyWhenSaved(interaction, PlaylistUtil.setPlaylistCover(playlist, value), new EmbedBuilder()
+                        .setDescription("Successfully swapped the playlist cover!")
+                        .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
+                        .setImage(value).build());
+                }
+                case "name" -> {
+                    replyWhenSaved(interaction, PlaylistUtil.setPlaylistName(playlist, value), Embed.def("Successfully changed the playlist name to `" + value + "`."));
+                }
+                case "description" -> {
+                    replyWhenSaved(interaction, PlaylistUtil.setPlaylistDescription(playlist, value), new EmbedBuilder()
+                        .setDescription("Successfully swapped the playlist description!")
+                        .addField("New Description", value, false)
+                        .setColor(ElixirConstants.DEFAULT_EMBED_COLOR).build());
+                }
+                case "shuffle" -> {
+                    replyWhenSaved(interaction, PlaylistUtil.setPlaylistSetting(PlaylistUtil.Setting.SHUFFLE, playlist, Utilities.parseBoolean(value)),
+                        Embed.def("Successfully changed the shuffle setting to `" + value + "`."));
+                }
+                case "repeat" -> {
+                    replyWhenSaved(interaction, PlaylistUtil.setPlaylistSetting(PlaylistUtil.Setting.REPEAT, playlist, Utilities.parseBoolean(value)),
+                        Embed.def("Successfully changed the repeat setting to `" + value + "`."));
+                }
+                case "volume" -> {
+                    int volume = Integer.parseInt(value);
+                    if (volume < 0 || volume > 150)
+                        volume = 100;
+                    replyWhenSaved(interaction, PlaylistUtil.setPlaylistVolume(playlist, volume),
+                        Embed.def("Successfully changed the volume to `" + volume + "`%."));
+                }
             }
-        }
+        });
+    }
+
+    private static void replyWhenSaved(Interaction interaction, CompletableFuture<Void> save, MessageEmbed success) {
+        save.whenComplete((ignored, error) -> interaction.reply(error != null ?
+            Embed.error("Unable to save the playlist. Please try again later.") : success, false));
     }
 
     @Override
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.events;
+
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.search.QuerySuggestions;
+import dev.benpetrillo.elixir.search.TrackIndex;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggests queries for /play as the user types, and starts loading the top suggestion once they
+ * stop typing, so the track is ready by the time the command runs.
+ * The option itself is marked for autocomplete by {@link dev.benpetrillo.elixir.managers.ApplicationCommandManager}.
+ */
+public final class AutocompleteListener extends ListenerAdapter {
+
+    private static final int MAX_CHOICE_LENGTH = 100;
+    /**
+     * How long a user must stop typing before the top suggestion is loaded.
+     * Discord sends an autocomplete request for every keystroke, and most of them are never submitted.
+     */
+    private static final long PREFETCH_DELAY = 750;
+
+    /**
+     * The latest top suggestion for each user, waiting for the delay to pass.
+     */
+    private final Map<String, Object> pendingPrefetches = new ConcurrentHashMap<>();
+
+    @Override
+    public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
+        if (!event.getName().equals("play") || !event.getFocusedOption().getName().equals("query")) return;
+
+        var input = event.getFocusedOption().getValue();
+        var limit = QuerySuggestions.MAX_SUGGESTIONS;
+        var values = new LinkedHashSet<String>();
+        var choices = new ArrayList<Command.Choice>(limit);
+
+        for (var query : QuerySuggestions.getInstance().complete(input, limit)) {
+            if (values.add(query)) choices.add(new Command.Choice(truncate(query), query));
+        }
+        var matches = input.isBlank() ? List.<TrackIndex.Match>of() : TrackIndex.getInstance().search(input, limit);
+        for (var match : matches) {
+            if (choices.size() >= limit) break;
+            var url = match.url();
+            if (url == null || url.length() > MAX_CHOICE_LENGTH || !values.add(url)) continue;
+            var name = match.artist() == null ? match.title() : match.title() + " — " + match.artist();
+            choices.add(new Command.Choice(truncate(name), url));
+        }
+
+        event.replyChoices(choices).queue();
+        if (!choices.isEmpty()) this.prefetch(event.getUser().getId(), choices.get(0).getAsString());
+    }
+
+    /**
+     * Starts loading the top choice, which is the one most likely to be picked, once the user has stopped typing.
+     * A newer keystroke from the same user replaces the pending choice.
+     */
+    private void prefetch(String userId, String choice) {
+        var token = new Object();
+        this.pendingPrefetches.put(userId, token);
+        CompletableFuture.delayedExecutor(PREFETCH_DELAY, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!this.pendingPrefetches.remove(userId, token)) return;
+            ElixirMusicManager.getInstance().prefetch(TrackUtil.resolveQuery(choice));
+        });
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_CHOICE_LENGTH ? value.substring(0, MAX_CHOICE_LENGTH - 3) + "..." : value;
+    }
+}
@@ -17,15 +17,22 @@
 package dev.benpetrillo.elixir.events;
 
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
 import dev.benpetrillo.elixir.managers.GuildMusicManager;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
 
 public final class GuildListener extends ListenerAdapter {
 
+    @Override
+    public void onGuildReady(@NotNull GuildReadyEvent event) {
+        DrainManager.restore(event.getGuild());
+    }
+
     public void onGuildLeave(@NotNull GuildLeaveEvent event) {
         final ElixirMusicManager elixirMusicManager = ElixirMusicManager.getInstance();
         final Guild guild = event.getGuild();
@@ -32,7 +32,7 @@ public final class ReadyListener extends ListenerAdapter {
         var jda = event.getJDA();
         var username = jda.getSelfUser().getEffectiveName();
 
-        log.info("{} has logged in.", username);
+        log.info("{} has logged in on shard {}.", username, jda.getShardInfo().getShardString());
 
         var deployGuild = ElixirConstants.DEPLOY_GUILD;
         var deleteGuild = Boolean.parseBoolean(Config.get("DELETE-APPLICATION-COMMANDS-GUILD"));
@@ -43,6 +43,9 @@ public final class ReadyListener extends ListenerAdapter {
             log.warn("No action was specified for guild commands.");
         } else {
             for (var guildId : ElixirConstants.GUILDS) {
+                // Each shard deploys to its own guilds.
+                if (ElixirClient.getShardId(guildId) != jda.getShardInfo().getShardId()) continue;
+
                 var guild = jda.getGuildById(guildId);
                 if (guild != null) {
                     if (deployGuild) {
@@ -16,6 +16,14 @@
 
 package dev.benpetrillo.elixir.events;
 
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.CommandDispatcher;
+import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.managers.DrainManager;
+import dev.benpetrillo.elixir.managers.HistoryManager;
+import dev.benpetrillo.elixir.managers.TaskScheduler;
+import dev.benpetrillo.elixir.metrics.PopularityTracker;
+import dev.benpetrillo.elixir.utils.ErrorReporter;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.GuildVoiceState;
@@ -26,9 +34,12 @@ import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.managers.AudioManager;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class ShutdownListener extends ListenerAdapter {
 
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
     @Override
     public void onShutdown(ShutdownEvent event) {
         final JDA jda = event.getJDA();
@@ -44,5 +55,25 @@ public final class ShutdownListener extends ListenerAdapter {
             } catch (NullPointerException ignored) {
             }
         }
+
+        // Shared services are only stopped once the last shard is going down, not when one shard restarts.
+        var shardManager = jda.getShardManager();
+        if (shardManager != null && shardManager.getShardCache().stream().anyMatch(shard -> shard != jda && isRunning(shard))) return;
+        if (!this.stopped.compareAndSet(false, true)) return;
+
+        CommandDispatcher.shutdown();
+        TaskScheduler.shutdown();
+        PopularityTracker.getInstance().persist();
+        HistoryManager.flush().join();
+        DatabaseManager.close();
+        ErrorReporter.shutdown();
+
+        // A drained process has handed its queues off and is expected to exit.
+        if (DrainManager.isDraining()) System.exit(0);
+    }
+
+    private static boolean isRunning(JDA shard) {
+        var status = shard.getStatus();
+        return status != JDA.Status.SHUTTING_DOWN && status != JDA.Status.SHUTDOWN;
     }
 }
@@ -0,0 +1,329 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.managers.GuildMusicManager;
+import dev.benpetrillo.elixir.metrics.LatencyHistogram;
+import net.dv8tion.jda.api.audio.AudioSendHandler;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.managers.AudioManager;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers how many streams fit on a host, by running real players against local stand-ins for Discord and audio sources.
+ * <p>
+ * Each simulated guild has a fake voice connection which takes a frame from its send handler every 20ms, as JDA does.
+ * Tracks are served from a local HTTP server, and each guild plays, skips and lists its queue at random intervals.
+ * Nothing connects to Discord, and no remote source is used.
+ */
+public final class LoadTest {
+
+    private static final long FRAME_INTERVAL = 20;
+    private static final int TRACK_SECONDS = 30;
+    private static final int SAMPLE_RATE = 48_000;
+    private static final long MIN_COMMAND_DELAY = TimeUnit.SECONDS.toMillis(2);
+    private static final long MAX_COMMAND_DELAY = TimeUnit.SECONDS.toMillis(10);
+    private static final int MAX_QUEUED = 5;
+
+    private final int guildCount;
+    private final long duration;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder framesMissed = new LongAdder();
+    private final LongAdder streamTicks = new LongAdder();
+    private final ScheduledExecutorService connections = Executors.newScheduledThreadPool(
+        Runtime.getRuntime().availableProcessors(), daemon("loadtest-voice"));
+    private final ScheduledExecutorService users = Executors.newScheduledThreadPool(4, daemon("loadtest-user"));
+
+    private String trackUrl;
+
+    private LoadTest(int guildCount, long duration) {
+        this.guildCount = guildCount;
+        this.duration = duration;
+    }
+
+    /**
+     * Runs the load test from the command line.
+     * Usage: {@code loadtest [guilds] [seconds] [audio file]}. Without a file, a generated tone is played.
+     *
+     * @param args The command and its arguments.
+     * @return The process exit code.
+     */
+    public static int run(String[] args) {
+        if (!"local".equalsIgnoreCase(ElixirConstants.STORAGE_BACKEND)) {
+            ElixirClient.logger.error("The load test records play history; run it with STORAGE_BACKEND=local.");
+            return 1;
+        }
+
+        int guilds;
+        long seconds;
+        try {
+            guilds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+            seconds = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        } catch (NumberFormatException exception) {
+            ElixirClient.logger.error("Usage: <env file> loadtest [guilds] [seconds] [audio file]");
+            return 1;
+        }
+
+        HttpServer server = null;
+        try {
+            var file = args.length > 3 ? Path.of(args[3]) : writeTone();
+            server = serve(file);
+
+            var test = new LoadTest(guilds, TimeUnit.SECONDS.toMillis(seconds));
+            test.trackUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/" + file.getFileName();
+            DatabaseManager.create();
+            test.execute();
+            return 0;
+        } catch (IOException | InterruptedException exception) {
+            ElixirClient.logger.error("The load test failed.", exception);
+            return 1;
+        } finally {
+            if (server != null) server.stop(0);
+        }
+    }
+
+    private void execute() throws InterruptedException {
+        var cpu = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        ElixirClient.logger.info("Starting {} streams for {}s, playing {}.", this.guildCount, this.duration / 1000, this.trackUrl);
+
+        var musicManager = ElixirMusicManager.getInstance();
+        var startCpu = cpu.getProcessCpuTime();
+        var start = System.nanoTime();
+        for (var i = 0; i < this.guildCount; i++) {
+            var connection = new VoiceConnection();
+            var guild = fakeGuild(String.valueOf(100_000_000_000_000_000L + i), connection);
+            var guildMusicManager = musicManager.getMusicManager(guild);
+
+            this.connections.scheduleAtFixedRate(() -> this.tick(connection, guildMusicManager),
+                ThreadLocalRandom.current().nextLong(FRAME_INTERVAL), FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+            this.play(guild);
+            this.scheduleNextCommand(guild, guildMusicManager);
+        }
+
+        Thread.sleep(this.duration);
+        var elapsed = System.nanoTime() - start;
+        var usedCpu = cpu.getProcessCpuTime() - startCpu;
+
+        this.users.shutdownNow();
+        this.connections.shutdownNow();
+        musicManager.getMusicManagers().forEach(GuildMusicManager::stop);
+        this.report(elapsed, usedCpu);
+    }
+
+    /**
+     * Takes one frame, as JDA's audio sender does every 20ms for a connected guild.
+     */
+    private void tick(VoiceConnection connection, GuildMusicManager musicManager) {
+        var handler = connection.handler;
+        if (handler == null) return;
+
+        var player = musicManager.getAudioPlayer();
+        if (player.getPlayingTrack() == null || player.isPaused()) return;
+
+        this.streamTicks.increment();
+        if (handler.canProvide()) {
+            handler.provide20MsAudio();
+            this.framesSent.increment();
+        } else {
+            this.framesMissed.increment();
+        }
+    }
+
+    private void scheduleNextCommand(Guild guild, GuildMusicManager musicManager) {
+        var delay = ThreadLocalRandom.current().nextLong(MIN_COMMAND_DELAY, MAX_COMMAND_DELAY);
+        this.users.schedule(() -> {
+            var roll = ThreadLocalRandom.current().nextInt(10);
+            if (roll < 3 && musicManager.getScheduler().getQueue().size() < MAX_QUEUED) {
+                this.play(guild);
+            } else if (roll < 5) {
+                this.timed("skip", () -> musicManager.getScheduler().nextTrack());
+            } else {
+                this.timed("queue", () -> {
+                    // Copies and formats the first page, as the queue command does.
+                    var tracks = new ArrayList<>(musicManager.getScheduler().getQueue());
+                    var page = new StringBuilder();
+                    for (var track : tracks.subList(0, Math.min(10, tracks.size()))) {
+                        page.append(track.getInfo().title).append(" - ").append(track.getInfo().author).append('\n');
+                    }
+                });
+            }
+            this.scheduleNextCommand(guild, musicManager);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Plays a track through the same path as the API, timing it until the track is queued.
+     */
+    private void play(Guild guild) {
+        var start = System.nanoTime();
+        ElixirMusicManager.getInstance().loadAndPlay(guild, this.trackUrl, result ->
+            this.latencies.computeIfAbsent("play", k -> new LatencyHistogram()).record(System.nanoTime() - start));
+    }
+
+    private void timed(String command, Runnable action) {
+        var start = System.nanoTime();
+        action.run();
+        this.latencies.computeIfAbsent(command, k -> new LatencyHistogram()).record(System.nanoTime() - start);
+    }
+
+    private void report(long elapsed, long usedCpu) {
+        var seconds = elapsed / 1e9;
+        var streamSeconds = this.streamTicks.sum() * FRAME_INTERVAL / 1000.0;
+        var ticks = Math.max(1, this.streamTicks.sum());
+        var cores = Runtime.getRuntime().availableProcessors();
+
+        var report = new StringBuilder("\nLoad test results\n");
+        report.append(String.format("  Streams:           %d over %.1fs (%.0f stream-seconds played)%n", this.guildCount, seconds, streamSeconds));
+        report.append(String.format("  Frames sent:       %d%n", this.framesSent.sum()));
+        report.append(String.format("  Frames missed:     %d (%.3f%%)%n", this.framesMissed.sum(), 100.0 * this.framesMissed.sum() / ticks));
+        report.append(String.format("  CPU:               %.1f%% of %d cores%n", 100.0 * usedCpu / elapsed / cores, cores));
+        if (streamSeconds > 0) {
+            report.append(String.format("  CPU per stream:    %.2f%% of one core%n", 100.0 * usedCpu / 1e9 / streamSeconds));
+        }
+        report.append(String.format("  Heap used:         %d MB%n", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024)));
+        this.latencies.forEach((command, histogram) -> report.append(String.format(
+            "  %-18s %d runs, p50 <= %dms, p99 <= %dms%n", command + ":", histogram.getCount(),
+            histogram.getPercentile(0.5), histogram.getPercentile(0.99))));
+
+        ElixirClient.logger.info(report.toString());
+    }
+
+    /**
+     * Serves the audio file over HTTP, so tracks are loaded through a real source manager.
+     */
+    private static HttpServer serve(Path file) throws IOException {
+        var bytes = Files.readAllBytes(file);
+        var server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", contentTypeOf(file));
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (var body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool(daemon("loadtest-http")));
+        server.start();
+        return server;
+    }
+
+    private static String contentTypeOf(Path file) {
+        var name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".mp3")) return "audio/mpeg";
+        if (name.endsWith(".ogg") || name.endsWith(".opus")) return "audio/ogg";
+        if (name.endsWith(".flac")) return "audio/flac";
+        return "audio/wav";
+    }
+
+    /**
+     * Writes a stereo 48kHz tone as a WAV file, which needs the same decoding and Opus encoding as real music.
+     */
+    private static Path writeTone() throws IOException {
+        var samples = SAMPLE_RATE * TRACK_SECONDS;
+        var data = samples * 4;
+        var buffer = ByteBuffer.allocate(44 + data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes()).putInt(36 + data).put("WAVE".getBytes());
+        buffer.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 2)
+            .putInt(SAMPLE_RATE).putInt(SAMPLE_RATE * 4).putShort((short) 4).putShort((short) 16);
+        buffer.put("data".getBytes()).putInt(data);
+        for (var i = 0; i < samples; i++) {
+            var sample = (short) (Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE) * 8000);
+            buffer.putShort(sample).putShort(sample);
+        }
+
+        var file = Files.createTempFile("elixir-loadtest", ".wav");
+        file.toFile().deleteOnExit();
+        Files.write(file, buffer.array());
+        return file;
+    }
+
+    /**
+     * Creates a guild which only knows its ID and its audio manager. Anything else returns an empty value.
+     */
+    private static Guild fakeGuild(String id, VoiceConnection connection) {
+        var guild = new Guild[1];
+        var audioManager = (AudioManager) Proxy.newProxyInstance(AudioManager.class.getClassLoader(),
+            new Class<?>[]{AudioManager.class}, (proxy, method, arguments) -> switch (method.getName()) {
+                case "setSendingHandler" -> {
+                    connection.handler = (AudioSendHandler) arguments[0];
+                    yield null;
+                }
+                case "getSendingHandler" -> connection.handler;
+                case "getGuild" -> guild[0];
+                case "isConnected" -> true;
+                default -> defaultValue(method.getReturnType());
+            });
+        guild[0] = (Guild) Proxy.newProxyInstance(Guild.class.getClassLoader(),
+            new Class<?>[]{Guild.class}, (proxy, method, arguments) -> switch (method.getName()) {
+                case "getId" -> id;
+                case "getIdLong" -> Long.parseLong(id);
+                case "getName" -> "Load Test " + id;
+                case "getAudioManager" -> audioManager;
+                case "toString" -> "Guild:LoadTest(" + id + ")";
+                case "hashCode" -> id.hashCode();
+                case "equals" -> proxy == arguments[0];
+                default -> defaultValue(method.getReturnType());
+            });
+        return guild[0];
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return '\0';
+    }
+
+    private static ThreadFactory daemon(String name) {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Stands in for a voice connection, holding the send handler Elixir gives it.
+     */
+    private static final class VoiceConnection {
+        private volatile AudioSendHandler handler;
+    }
+}
@@ -21,18 +21,48 @@ import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.ElixirConstants;
 import dev.benpetrillo.elixir.commands.GuildsCommand;
 import dev.benpetrillo.elixir.commands.misc.ConfigureCommand;
+import dev.benpetrillo.elixir.commands.misc.DrainCommand;
 import dev.benpetrillo.elixir.commands.misc.GenKeyCommand;
 import dev.benpetrillo.elixir.commands.misc.InfoCommand;
 import dev.benpetrillo.elixir.commands.music.*;
 import dev.benpetrillo.elixir.utils.Embed;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.CommandEditAction;
 import tech.xigam.cch.ComplexCommandHandler;
 import tech.xigam.cch.command.BaseCommand;
 
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public final class ApplicationCommandManager {
 
+    /**
+     * The options which are suggested as the user types, by command name.
+     * The command handler cannot mark options for autocomplete, so they are enabled once its deployment has landed.
+     */
+    private static final Map<String, String> autocompleteOptions = Map.of("play", "query");
+    /**
+     * How often deployed commands are checked for options which still need autocomplete, in seconds.
+     */
+    private static final long AUTOCOMPLETE_CHECK_PERIOD = 15;
+    /**
+     * How many checks wait for the command handler's deployment before the options are enabled regardless.
+     */
+    private static final int AUTOCOMPLETE_CHECKS = 8;
+
     private ApplicationCommandManager(ComplexCommandHandler handler) {
         registerCommand(handler,
             new GenKeyCommand(),
@@ -45,6 +75,7 @@ public final class ApplicationCommandManager {
             new PauseCommand(),
             new PlayCommand(),
             new PlaylistCommand(),
+            new PreviousCommand(),
             new QueueCommand(),
             new LeaveCommand(),
             new ResumeCommand(),
@@ -58,7 +89,8 @@ public final class ApplicationCommandManager {
         if (ElixirConstants.DEPLOY_GUILD) {
             handler
                 .registerCommand(new GuildsCommand())
-                .registerCommand(new ConfigureCommand());
+                .registerCommand(new ConfigureCommand())
+                .registerCommand(new DrainCommand());
         }
 
         handler.onArgumentError = interaction -> interaction.setEphemeral().reply(Embed.error("Invalid argument(s) provided."));
@@ -73,6 +105,81 @@ public final class ApplicationCommandManager {
             ElixirClient.getCommandHandler().downsert(null);
             ElixirClient.logger.info("All global slash commands have been deleted.");
         }
+        if (ElixirConstants.DEPLOY_GLOBAL || ElixirConstants.DEPLOY_GUILD) {
+            scheduleAutocomplete();
+        }
+    }
+
+    /**
+     * Enables autocomplete on deployed commands, after the command handler has deployed them.
+     * A command modified since this process started has been deployed by it, so editing it
+     * can no longer be overwritten. Discord keeps the old modification time when a deployment
+     * changes nothing, so the last check edits the command regardless.
+     */
+    private static void scheduleAutocomplete() {
+        var startedAt = OffsetDateTime.ofInstant(Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime()), ZoneOffset.UTC);
+        var enabled = ConcurrentHashMap.<String>newKeySet();
+        var checks = new AtomicInteger();
+        var task = new AtomicReference<TaskScheduler.Task>();
+
+        task.set(TaskScheduler.schedule("commands.autocomplete", AUTOCOMPLETE_CHECK_PERIOD, AUTOCOMPLETE_CHECK_PERIOD, TimeUnit.SECONDS, () -> {
+            var force = checks.incrementAndGet() >= AUTOCOMPLETE_CHECKS;
+            var pending = new ArrayList<CompletableFuture<Boolean>>();
+
+            if (ElixirConstants.DEPLOY_GLOBAL && !enabled.contains("global")) {
+                var jda = ElixirClient.getJda();
+                pending.add(enableAutocomplete(jda.retrieveCommands(), jda::editCommandById, startedAt, force)
+                    .thenApply(done -> done && enabled.add("global")));
+            }
+            if (ElixirConstants.DEPLOY_GUILD) {
+                for (var guildId : ElixirConstants.GUILDS) {
+                    var guild = ElixirClient.getGuildById(guildId);
+                    if (guild == null || enabled.contains(guildId)) continue;
+                    pending.add(enableAutocomplete(guild.retrieveCommands(), guild::editCommandById, startedAt, force)
+                        .thenApply(done -> done && enabled.add(guildId)));
+                }
+            }
+
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).thenRun(() -> {
+                if (force || pending.stream().allMatch(CompletableFuture::join)) task.get().cancel();
+            });
+        }));
+    }
+
+    /**
+     * @param retrieve Retrieves the deployed commands.
+     * @param edit Creates an edit of a deployed command, by its ID.
+     * @param startedAt When this process started.
+     * @param force Whether to edit commands which have not been deployed since this process started.
+     * @return Whether every command now has autocomplete enabled.
+     */
+    private static CompletableFuture<Boolean> enableAutocomplete(
+        RestAction<List<Command>> retrieve, Function<String, CommandEditAction> edit, OffsetDateTime startedAt, boolean force
+    ) {
+        return retrieve.submit().thenCompose(commands -> {
+            var edits = new ArrayList<CompletableFuture<?>>();
+            var done = true;
+            for (var command : commands) {
+                var optionName = autocompleteOptions.get(command.getName());
+                if (optionName == null) continue;
+                if (command.getOptions().stream().anyMatch(option -> option.getName().equals(optionName) && option.isAutoComplete())) continue;
+                if (!force && command.getTimeModified().isBefore(startedAt)) {
+                    done = false;
+                    continue;
+                }
+
+                // The deployed options are kept as they are, so the command handler stays the source of their definition.
+                var options = command.getOptions().stream()
+                    .map(option -> option.getName().equals(optionName) ? OptionData.fromOption(option).setAutoComplete(true) : OptionData.fromOption(option))
+                    .toList();
+                edits.add(edit.apply(command.getId()).clearOptions().addOptions(options).submit());
+            }
+            var result = done;
+            return CompletableFuture.allOf(edits.toArray(CompletableFuture[]::new)).thenApply(ignored -> result);
+        }).exceptionally(error -> {
+            ElixirClient.logger.warn("Unable to enable autocomplete for slash commands.", error);
+            return false;
+        });
     }
 
     private void registerCommand(ComplexCommandHandler handler, BaseCommand... commands) {
@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.managers;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.metrics.LatencyHistogram;
+import dev.benpetrillo.elixir.utils.Utilities;
+import lombok.Getter;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs commands off the gateway thread, so a slow command never holds up events for other guilds.
+ * Commands from the same guild run one at a time, in the order they were received. A slash command
+ * still waiting behind others when its deadline passes is acknowledged, and replies through its hook once it runs.
+ * Each shard has its own dispatcher, with its own listeners, but every dispatcher shares the same workers and lanes.
+ */
+public final class CommandDispatcher extends InterfacedEventManager {
+
+    /**
+     * Discord fails an interaction which is not acknowledged within three seconds.
+     * A command still waiting behind others this long is acknowledged, keeping its place in the lane.
+     */
+    private static final long ACKNOWLEDGE_DEADLINE = 2000;
+    private static final long SLOW_COMMAND_MILLIS = 1000;
+
+    /**
+     * How long each command took to run, keyed by command name.
+     */
+    @Getter
+    private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    /**
+     * How long commands waited before they started running.
+     */
+    @Getter
+    private static final LatencyHistogram queueLatency = new LatencyHistogram();
+
+    private static final ThreadLocal<Long> receivedAt = new ThreadLocal<>();
+
+    private static final ThreadPoolExecutor workers = createExecutor();
+    private static final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    @Override
+    public void handle(@NotNull GenericEvent event) {
+        if (event instanceof SlashCommandInteractionEvent slash) {
+            var task = new Task(event, slash.getFullCommandName());
+            submit(laneKey(slash.getGuild(), slash.getUser()), task);
+            CompletableFuture.delayedExecutor(ACKNOWLEDGE_DEADLINE, TimeUnit.MILLISECONDS).execute(task::acknowledge);
+            return;
+        }
+
+        if (event instanceof MessageReceivedEvent message && isPrefixCommand(message)) {
+            var content = message.getMessage().getContentRaw().substring(ElixirConstants.COMMAND_PREFIX.length());
+            var command = content.isBlank() ? "unknown" : content.split("\\s+", 2)[0];
+            submit(laneKey(message.isFromGuild() ? message.getGuild() : null, message.getAuthor()), new Task(event, command));
+            return;
+        }
+
+        super.handle(event);
+    }
+
+    /**
+     * Stops accepting commands and waits briefly for running ones to finish.
+     */
+    public static void shutdown() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return When the command running on this thread was received, from {@link System#nanoTime()}.
+     */
+    public static long getReceivedAt() {
+        var received = receivedAt.get();
+        return received != null ? received : System.nanoTime();
+    }
+
+    private static void submit(String key, Task task) {
+        // A lane which emptied is closed and removed, so the task is retried on a new one.
+        while (!lanes.computeIfAbsent(key, Lane::new).submit(task)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static String laneKey(Guild guild, User user) {
+        // Direct messages have no guild, so each user gets their own lane.
+        return guild != null ? guild.getId() : "user:" + user.getId();
+    }
+
+    private static boolean isPrefixCommand(MessageReceivedEvent event) {
+        var prefix = ElixirConstants.COMMAND_PREFIX;
+        return prefix != null && !prefix.isEmpty() && !event.getAuthor().isBot()
+            && event.getMessage().getContentRaw().startsWith(prefix);
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        // Commands block on network calls, so the pool is sized for waiting rather than for cores.
+        var threads = (int) Utilities.parseOrDefault(ElixirConstants.COMMAND_THREADS, 16);
+        var counter = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                var thread = new Thread(runnable, "command-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A command waiting to run in its lane.
+     */
+    private final class Task {
+        private final GenericEvent event;
+        private final String command;
+        private final long receivedAt = System.nanoTime();
+        private boolean started = false;
+        private CompletableFuture<?> acknowledgement;
+
+        Task(GenericEvent event, String command) {
+            this.event = event;
+            this.command = command;
+        }
+
+        /**
+         * Acknowledges a slash command which has not started yet, so Discord does not fail it while it waits.
+         */
+        synchronized void acknowledge() {
+            if (this.started || !(this.event instanceof SlashCommandInteractionEvent slash)) return;
+            this.acknowledgement = slash.deferReply().submit();
+            ElixirClient.logger.debug("Acknowledged /{} while it waits behind other commands.", this.command);
+        }
+
+        private synchronized CompletableFuture<?> start() {
+            this.started = true;
+            return this.acknowledgement;
+        }
+
+        void run() {
+            var acknowledgement = this.start();
+            var event = this.event;
+            if (acknowledgement != null) {
+                // The reply must follow the acknowledgement, so it is waited for. If it failed the interaction has
+                // expired, but the command still runs for its other effects.
+                acknowledgement.exceptionally(error -> null).join();
+                event = DeferredInteraction.wrap((SlashCommandInteractionEvent) event);
+            }
+
+            var start = System.nanoTime();
+            queueLatency.record(start - this.receivedAt);
+            CommandDispatcher.receivedAt.set(this.receivedAt);
+            try {
+                CommandDispatcher.super.handle(event);
+            } catch (Throwable throwable) {
+                ElixirClient.logger.error("Command {} failed.", this.command, throwable);
+            } finally {
+                CommandDispatcher.receivedAt.remove();
+                var elapsed = System.nanoTime() - start;
+                latencies.computeIfAbsent(this.command, k -> new LatencyHistogram()).record(elapsed);
+                if (TimeUnit.NANOSECONDS.toMillis(elapsed) > SLOW_COMMAND_MILLIS) {
+                    ElixirClient.logger.warn("Slow command '{}' took {}ms.", this.command, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the commands of one guild in order, one at a time, borrowing a worker only while it has work.
+     * A lane removes itself once it runs out of work, so idle guilds are not kept.
+     */
+    private static final class Lane {
+        private final String key;
+        private final Deque<Task> tasks = new ArrayDeque<>();
+        private boolean draining = false;
+        private boolean closed = false;
+
+        Lane(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return False if the lane has been closed, and the task must go to a new one.
+         */
+        synchronized boolean submit(Task task) {
+            if (this.closed) return false;
+            this.tasks.add(task);
+            if (this.draining) return true;
+            this.draining = true;
+            workers.execute(this::drain);
+            return true;
+        }
+
+        private void drain() {
+            while (true) {
+                Task task;
+                synchronized (this) {
+                    task = this.tasks.poll();
+                    if (task == null) {
+                        this.draining = false;
+                        this.closed = true;
+                        lanes.remove(this.key, this);
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+    }
+}
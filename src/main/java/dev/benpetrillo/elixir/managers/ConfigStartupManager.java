@@ -29,7 +29,7 @@ public final class ConfigStartupManager {
         } else if (ElixirConstants.YOUTUBE_API_KEY == null) {
             log.error("Invalid YouTube API key provided.");
             System.exit(0);
-        } else if (ElixirConstants.MONGO_URI == null) {
+        } else if (ElixirConstants.MONGO_URI == null && !"local".equalsIgnoreCase(ElixirConstants.STORAGE_BACKEND)) {
             log.error("Invalid MongoDB URI provided.");
             System.exit(0);
         } else if (ElixirConstants.SPOTIFY_CLIENT_ID == null) {
@@ -19,41 +19,181 @@ package dev.benpetrillo.elixir.managers;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
-import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import dev.benpetrillo.elixir.Config;
 import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.metrics.LatencyHistogram;
+import dev.benpetrillo.elixir.storage.*;
+import dev.benpetrillo.elixir.utils.Utilities;
 import lombok.Getter;
-import org.bson.Document;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public final class DatabaseManager {
 
+    private static final long SLOW_OPERATION_MILLIS = 250;
+
+    private static final List<LocalStore> localStores = new ArrayList<>();
+    private static final ThreadPoolExecutor executor = createExecutor();
+    private static final long timeoutMillis = Utilities.parseOrDefault(ElixirConstants.DATABASE_TIMEOUT, 5000);
+    @Getter
+    private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    @Getter
+    private static final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
     private static MongoClient client;
     @Getter
-    private static MongoCollection<Document> playlists;
+    private static PlaylistRepository playlistRepository;
     @Getter
-    private static MongoCollection<Document> apiKeys;
+    private static ApiKeyRepository apiKeyRepository;
+    @Getter
+    private static TrackCatalogRepository trackCatalogRepository;
+    @Getter
+    private static HistoryRepository historyRepository;
+    @Getter
+    private static QueueRepository queueRepository;
 
     public static void create() {
-        String uri = Config.get("MONGO-URI");
+        var backend = Objects.requireNonNullElse(ElixirConstants.STORAGE_BACKEND, "mongo").toLowerCase();
         try {
-            DatabaseManager.client = MongoClients.create(uri);
+            switch (backend) {
+                case "mongo" -> createMongo();
+                case "local" -> createLocal();
+                default -> throw new IllegalArgumentException("Unknown storage backend: " + backend);
+            }
 
-            MongoDatabase db = client.getDatabase("Elixir");
-            playlists = db.getCollection("playlists");
-            apiKeys = db.getCollection("apiKeys");
-
-            ElixirClient.logger.info("Database loaded successfully.");
+            ElixirClient.logger.info("Database loaded successfully. ({})", backend);
         } catch (Exception e) {
             ElixirClient.logger.error("Failed to load database: {}", e.getMessage());
         }
     }
 
-    public static MongoCollection<Document> getPlaylistCollection() {
-        return playlists;
+    /**
+     * Runs a database operation on the dedicated database pool.
+     * The returned future is completed on the client executor, so callers
+     * never continue on a database thread.
+     *
+     * @param operation The name of the operation, used for metrics.
+     * @param task The blocking database call.
+     * @return A future completed with the result of the call.
+     */
+    public static <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                var start = System.nanoTime();
+                try {
+                    return task.get();
+                } catch (RuntimeException e) {
+                    failures.computeIfAbsent(operation, k -> new LongAdder()).increment();
+                    throw e;
+                } finally {
+                    var elapsed = System.nanoTime() - start;
+                    latencies.computeIfAbsent(operation, k -> new LatencyHistogram()).record(elapsed);
+                    if (TimeUnit.NANOSECONDS.toMillis(elapsed) > SLOW_OPERATION_MILLIS) {
+                        ElixirClient.logger.warn("Slow database operation '{}' took {}ms.",
+                            operation, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    }
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            failures.computeIfAbsent(operation, k -> new LongAdder()).increment();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return future
+            .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+            .whenCompleteAsync((result, error) -> {}, ElixirClient.getExecutor());
+    }
+
+    /**
+     * Runs a database operation with no result on the dedicated database pool.
+     *
+     * @param operation The name of the operation, used for metrics.
+     * @param task The blocking database call.
+     * @return A future completed once the call finishes.
+     */
+    public static CompletableFuture<Void> execute(String operation, Runnable task) {
+        return submit(operation, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return The number of operations waiting for a database thread.
+     */
+    public static int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Closes any open database connections or storage files.
+     */
+    public static void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                ElixirClient.logger.warn("Database operations did not finish before shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (client != null) client.close();
+        for (var store : localStores) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                ElixirClient.logger.warn("Failed to close local store.", e);
+            }
+        }
+    }
+
+    private static void createMongo() {
+        String uri = Config.get("MONGO-URI");
+        DatabaseManager.client = MongoClients.create(uri);
+
+        MongoDatabase db = client.getDatabase("Elixir");
+        playlistRepository = new MongoPlaylistRepository(db.getCollection("playlists"));
+        apiKeyRepository = new MongoApiKeyRepository(db.getCollection("apiKeys"));
+        trackCatalogRepository = new MongoTrackCatalogRepository(db.getCollection("tracks"));
+        historyRepository = new MongoHistoryRepository(db.getCollection("history"));
+        queueRepository = new MongoQueueRepository(db.getCollection("queues"));
+    }
+
+    private static void createLocal() throws IOException {
+        var directory = Path.of(Objects.requireNonNullElse(ElixirConstants.STORAGE_PATH, "data"));
+        playlistRepository = new LocalPlaylistRepository(openStore(directory.resolve("playlists.log")));
+        apiKeyRepository = new LocalApiKeyRepository(openStore(directory.resolve("api-keys.log")));
+        trackCatalogRepository = new LocalTrackCatalogRepository(openStore(directory.resolve("tracks.log")));
+        historyRepository = new LocalHistoryRepository(openStore(directory.resolve("history.log")));
+        queueRepository = new LocalQueueRepository(openStore(directory.resolve("queues.log")));
+    }
+
+    private static LocalStore openStore(Path path) throws IOException {
+        var store = LocalStore.open(path);
+        localStores.add(store);
+        return store;
     }
 
-    public static MongoCollection<Document> getAPIKeyCollection() {
-        return apiKeys;
+    private static ThreadPoolExecutor createExecutor() {
+        var threads = (int) Utilities.parseOrDefault(ElixirConstants.DATABASE_THREADS, 4);
+        var counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256), runnable -> {
+                var thread = new Thread(runnable, "database-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
     }
 }
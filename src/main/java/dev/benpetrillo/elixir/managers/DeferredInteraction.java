@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.managers;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A slash command event whose interaction was acknowledged by the dispatcher while it waited in its lane.
+ * An interaction can only be acknowledged once, so every reply is built up as usual and then sent through
+ * the interaction hook, which replaces the acknowledgement. Commands run unchanged either way.
+ */
+final class DeferredInteraction {
+
+    private DeferredInteraction() {
+    }
+
+    /**
+     * @param event An event whose interaction has been acknowledged.
+     * @return The same event, replying through the interaction hook.
+     */
+    static SlashCommandInteractionEvent wrap(SlashCommandInteractionEvent event) {
+        var hook = event.getHook();
+        var interaction = interaction(event.getInteraction(), hook);
+        // Replies made on the event, rather than on its interaction, are redirected here.
+        // Every other kind of reply is built on deferReply().
+        return new SlashCommandInteractionEvent(event.getJDA(), event.getResponseNumber(), interaction) {
+            @NotNull
+            @Override
+            public ReplyCallbackAction deferReply() {
+                return hookReply(hook);
+            }
+
+            @NotNull
+            @Override
+            public ReplyCallbackAction deferReply(boolean ephemeral) {
+                return hookReply(hook).setEphemeral(ephemeral);
+            }
+
+            @NotNull
+            @Override
+            public ReplyCallbackAction reply(@NotNull MessageCreateData message) {
+                return hookReply(hook).applyData(message);
+            }
+        };
+    }
+
+    /**
+     * Wraps an interaction so replies made on it are sent through the hook as well.
+     */
+    private static SlashCommandInteraction interaction(SlashCommandInteraction interaction, InteractionHook hook) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            var name = method.getName();
+            if (method.getReturnType() == ReplyCallbackAction.class) {
+                if (name.equals("deferReply")) {
+                    var reply = hookReply(hook);
+                    return args == null ? reply : reply.setEphemeral((boolean) args[0]);
+                }
+                if (name.equals("reply") && args.length == 1 && args[0] instanceof MessageCreateData data) {
+                    return hookReply(hook).applyData(data);
+                }
+                // The remaining replies are built on deferReply().
+                if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+
+            return switch (name) {
+                case "isAcknowledged" -> true;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> call(interaction, method, args);
+            };
+        };
+        return (SlashCommandInteraction) Proxy.newProxyInstance(SlashCommandInteraction.class.getClassLoader(),
+            new Class<?>[] {SlashCommandInteraction.class}, handler);
+    }
+
+    /**
+     * Creates a reply which collects its message like any other, and sends it through the hook once queued.
+     * A reply with no message only acknowledges the interaction, which has already happened, so nothing is sent.
+     */
+    @SuppressWarnings("unchecked")
+    static ReplyCallbackAction hookReply(InteractionHook hook) {
+        var message = new MessageCreateBuilder();
+        var ephemeral = new boolean[1];
+        InvocationHandler handler = (proxy, method, args) -> {
+            var name = method.getName();
+            switch (name) {
+                case "setEphemeral" -> {
+                    ephemeral[0] = (boolean) args[0];
+                    return proxy;
+                }
+                case "queue" -> {
+                    var success = args != null && args.length > 0 ? (Consumer<Object>) args[0] : null;
+                    var failure = args != null && args.length > 1 ? (Consumer<? super Throwable>) args[1] : null;
+                    if (message.isEmpty()) {
+                        if (success != null) success.accept(hook);
+                    } else {
+                        hook.sendMessage(message.build()).setEphemeral(ephemeral[0])
+                            .queue(sent -> { if (success != null) success.accept(hook); }, failure);
+                    }
+                    return null;
+                }
+                case "submit" -> {
+                    if (message.isEmpty()) return CompletableFuture.completedFuture(hook);
+                    return hook.sendMessage(message.build()).setEphemeral(ephemeral[0]).submit().thenApply(sent -> hook);
+                }
+                case "complete" -> {
+                    if (!message.isEmpty()) hook.sendMessage(message.build()).setEphemeral(ephemeral[0]).complete();
+                    return hook;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+            }
+
+            // Everything which builds the message, such as setContent or addEmbeds, goes to the builder.
+            Method builder;
+            try {
+                builder = MessageCreateBuilder.class.getMethod(name, method.getParameterTypes());
+            } catch (NoSuchMethodException exception) {
+                return method.getReturnType().isInstance(proxy) ? proxy : defaultValue(method.getReturnType());
+            }
+            var result = call(message, builder, args);
+            return result == message ? proxy : result;
+        };
+        return (ReplyCallbackAction) Proxy.newProxyInstance(ReplyCallbackAction.class.getClassLoader(),
+            new Class<?>[] {ReplyCallbackAction.class}, handler);
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
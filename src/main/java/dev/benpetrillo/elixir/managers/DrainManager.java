@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.managers;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.music.QueueSnapshot;
+import dev.benpetrillo.elixir.utils.Utilities;
+import lombok.Getter;
+import net.dv8tion.jda.api.entities.Guild;
+import sun.misc.Signal;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Takes the process out of service without cutting off music, for rolling restarts.
+ * While draining, new sessions are refused and playing tracks are left to finish. Once the last stream ends,
+ * or the deadline passes, every queue is saved for the next process to restore, and the process exits.
+ */
+public final class DrainManager {
+
+    private static final long CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+    /**
+     * The signal which starts draining. SIGTERM keeps its default handling, so shutdown hooks still run.
+     */
+    public static final String SIGNAL = "USR1";
+    /**
+     * Saved queues older than this are discarded instead of restored, as listeners will have moved on.
+     */
+    private static final long HANDOFF_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    @Getter
+    private static volatile boolean draining;
+    @Getter
+    private static volatile long startedAt;
+    @Getter
+    private static volatile long deadline;
+    private static final AtomicBoolean finishing = new AtomicBoolean();
+    private static CompletableFuture<ConcurrentHashMap<String, byte[]>> handoff;
+
+    /**
+     * Starts draining when the process receives SIGUSR1. A second SIGUSR1 stops waiting for streams to end.
+     */
+    public static void installSignalHandler() {
+        try {
+            Signal.handle(new Signal(SIGNAL), signal -> {
+                if (!DrainManager.start("SIG" + SIGNAL)) DrainManager.finish();
+            });
+        } catch (IllegalArgumentException exception) {
+            ElixirClient.logger.warn("Unable to handle SIG{}; drain mode can only be started by command.", SIGNAL);
+        }
+    }
+
+    /**
+     * @return How long a drain waits for streams to end before handing queues off anyway, in milliseconds.
+     */
+    public static long getTimeout() {
+        return Utilities.parseOrDefault(ElixirConstants.DRAIN_TIMEOUT, TimeUnit.MINUTES.toMillis(15));
+    }
+
+    /**
+     * Starts draining.
+     *
+     * @param reason What started the drain, for logging.
+     * @return False if the process was already draining.
+     */
+    public static synchronized boolean start(String reason) {
+        if (draining) return false;
+
+        startedAt = System.currentTimeMillis();
+        deadline = startedAt + getTimeout();
+        draining = true;
+        ElixirClient.logger.info("Draining ({}): waiting for {} streams to end.", reason, getActiveStreams());
+
+        TaskScheduler.schedule("drain.monitor", 0, CHECK_INTERVAL, TimeUnit.MILLISECONDS, DrainManager::check);
+        return true;
+    }
+
+    /**
+     * @return True if a new session may be started in the guild. Guilds which are already connected may keep queueing.
+     */
+    public static boolean acceptsSession(Guild guild) {
+        return !draining || guild.getAudioManager().isConnected();
+    }
+
+    /**
+     * @return How many guilds are currently playing a track.
+     */
+    public static int getActiveStreams() {
+        return (int) ElixirMusicManager.getInstance().getMusicManagers().stream()
+            .filter(manager -> manager.audioPlayer.getPlayingTrack() != null)
+            .count();
+    }
+
+    private static void check() {
+        if (getActiveStreams() == 0 || System.currentTimeMillis() >= deadline) {
+            finish();
+        }
+    }
+
+    /**
+     * Saves every queue and shuts down. The shutdown listener exits the process once everything is closed.
+     */
+    private static void finish() {
+        if (!finishing.compareAndSet(false, true)) return;
+
+        // Shutting down waits for the task scheduler to stop, so it cannot be done from one of its workers.
+        new Thread(DrainManager::handOff, "drain-handoff").start();
+    }
+
+    private static void handOff() {
+        var repository = DatabaseManager.getQueueRepository();
+        var saves = new ArrayList<CompletableFuture<Void>>();
+        var manager = ElixirMusicManager.getInstance().getAudioPlayerManager();
+        for (var musicManager : ElixirMusicManager.getInstance().getMusicManagers()) {
+            var channel = musicManager.getGuild().getAudioManager().getConnectedChannel();
+            if (repository == null || channel == null) continue;
+            if (musicManager.audioPlayer.getPlayingTrack() == null && musicManager.scheduler.getQueue().isEmpty()) continue;
+
+            var guildId = musicManager.getGuild().getId();
+            var snapshot = QueueSnapshot.of(manager, musicManager, channel.getId()).encode();
+            saves.add(DatabaseManager.execute("queue.save", () -> repository.save(guildId, snapshot)));
+        }
+
+        CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new))
+            .exceptionally(error -> {
+                ElixirClient.logger.warn("Failed to save some queues before shutting down.", error);
+                return null;
+            })
+            .join();
+
+        ElixirClient.logger.info("Drained; saved {} queues. Shutting down.", saves.size());
+        ElixirClient.getShardManager().shutdown();
+    }
+
+    /**
+     * Restores a queue handed off by the previous process, if there is one for the guild.
+     * Stored queues are loaded once, on the first call.
+     */
+    public static void restore(Guild guild) {
+        var repository = DatabaseManager.getQueueRepository();
+        if (repository == null) return;
+
+        synchronized (DrainManager.class) {
+            if (handoff == null) {
+                handoff = DatabaseManager.submit("queue.findAll", repository::findAll).thenApply(ConcurrentHashMap::new);
+            }
+        }
+        handoff.thenAccept(queues -> {
+            var data = queues.remove(guild.getId());
+            if (data == null) return;
+            DatabaseManager.execute("queue.delete", () -> repository.delete(guild.getId()));
+
+            var snapshot = QueueSnapshot.decode(data);
+            if (snapshot == null || System.currentTimeMillis() - snapshot.savedAt() > HANDOFF_TTL) return;
+            var channel = guild.getVoiceChannelById(snapshot.channelId());
+            if (channel == null) return;
+
+            var audioManager = guild.getAudioManager();
+            audioManager.openAudioConnection(channel);
+            audioManager.setSelfDeafened(true);
+
+            var elixirMusicManager = ElixirMusicManager.getInstance();
+            var restored = snapshot.restore(elixirMusicManager.getAudioPlayerManager(), elixirMusicManager.getMusicManager(guild));
+            ElixirClient.logger.info("Restored {} handed-off tracks in {}.", restored, guild.getId());
+        }).exceptionally(error -> {
+            ElixirClient.logger.warn("Failed to restore the queue of {}.", guild.getId(), error);
+            return null;
+        });
+    }
+}
@@ -37,6 +37,9 @@ import com.sedmelluq.lava.extensions.youtuberotator.planner.NanoIpRoutePlanner;
 import com.sedmelluq.lava.extensions.youtuberotator.tools.ip.Ipv6Block;
 import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.metrics.Metrics;
+import dev.benpetrillo.elixir.metrics.TrackTrace;
+import dev.benpetrillo.elixir.music.PrefetchSourceManager;
 import dev.benpetrillo.elixir.music.spotify.SpotifySourceManager;
 import dev.benpetrillo.elixir.objects.Pair;
 import dev.benpetrillo.elixir.types.ElixirException;
@@ -57,6 +60,7 @@ import tech.xigam.cch.utils.Interaction;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 public final class ElixirMusicManager {
@@ -66,7 +70,8 @@ public final class ElixirMusicManager {
     public final SpotifySourceManager spotifySource = new SpotifySourceManager(youtubeSource);
     public final HttpAudioSourceManager httpSource = new HttpAudioSourceManager(MediaContainerRegistry.DEFAULT_REGISTRY);
     public final SoundCloudAudioSourceManager soundCloudSource = SoundCloudAudioSourceManager.createDefault();
-    private final Map<String, GuildMusicManager> musicManagers = new HashMap<>();
+    public final PrefetchSourceManager prefetchSource = new PrefetchSourceManager();
+    private final Map<String, GuildMusicManager> musicManagers = new ConcurrentHashMap<>();
     @Getter
     private final AudioPlayerManager audioPlayerManager = new DefaultAudioPlayerManager();
     @Getter
@@ -95,6 +100,7 @@ public final class ElixirMusicManager {
         // Configure YouTube using potential credentials.
         this.configureYouTube();
 
+        this.audioPlayerManager.registerSourceManager(this.prefetchSource);
         this.audioPlayerManager.registerSourceManager(new BandcampAudioSourceManager());
         this.audioPlayerManager.registerSourceManager(new VimeoAudioSourceManager());
         this.audioPlayerManager.registerSourceManager(new TwitchStreamAudioSourceManager());
@@ -183,8 +189,8 @@ public final class ElixirMusicManager {
                 .getDeclaredMethod("pollForToken", String.class, long.class);
             pollForToken.setAccessible(true);
 
-            // Begin thread to poll for token acceptance.
-            new Thread(() -> {
+            // Poll for token acceptance in the background.
+            TaskScheduler.submitBlocking("youtube.token-poll", () -> {
                 try {
                     // Poll for the token.
                     pollForToken.invoke(handler,
@@ -198,7 +204,7 @@ public final class ElixirMusicManager {
                     this.setYoutubeConfigured(true);
                 } catch (Exception ignored) {
                 }
-            }, "youtube-source-token-poller").start();
+            });
 
             return Pair.of(url, userCode);
         } catch (Exception exception) {
@@ -225,6 +231,7 @@ public final class ElixirMusicManager {
         return this.musicManagers.computeIfAbsent(guild.getId(), (guildId) -> {
             var guildMusicManager = new GuildMusicManager(this.audioPlayerManager, guild);
             guild.getAudioManager().setSendingHandler(guildMusicManager.getSendHandler());
+            HistoryManager.load(guildId, guildMusicManager.getHistory());
             return guildMusicManager;
         });
     }
@@ -242,17 +249,45 @@ public final class ElixirMusicManager {
         return this.musicManagers.values();
     }
 
-    public void loadAndPlay(String track, Interaction interaction, String url) {
+    /**
+     * @param shardId The ID of the shard.
+     * @return The music managers of the guilds on the shard.
+     */
+    public List<GuildMusicManager> getMusicManagers(int shardId) {
+        return this.musicManagers.entrySet().stream()
+            .filter(entry -> ElixirClient.getShardId(entry.getKey()) == shardId)
+            .map(Map.Entry::getValue)
+            .toList();
+    }
+
+    /**
+     * Starts loading an item ahead of time, so a following {@link #loadAndPlay(String, Interaction, String, TrackTrace)}
+     * for the same identifier can skip the lookup.
+     *
+     * @param identifier The identifier that is likely to be played soon.
+     */
+    public void prefetch(String identifier) {
+        this.prefetchSource.prefetch(this.audioPlayerManager, identifier);
+    }
+
+    /**
+     * Loads an item for a command and queues what was found.
+     *
+     * @param trace The trace of the command, which follows the track until its first frame.
+     */
+    public void loadAndPlay(String track, Interaction interaction, String url, TrackTrace trace) {
         assert interaction.getGuild() != null;
         final GuildMusicManager musicManager = this.getMusicManager(interaction.getGuild());
         ElixirClient.logger.debug("Loading track: {}", track);
-        this.audioPlayerManager.loadItemOrdered(musicManager, track, new AudioLoadResultHandler() {
+        trace.setSource(sourceOf(track));
+        trace.mark(TrackTrace.Stage.LOAD_STARTED);
+        final AudioLoadResultHandler handler = timed(track, new AudioLoadResultHandler() {
 
             @Override
             public void trackLoaded(AudioTrack track) {
                 assert interaction.getMember() != null;
                 track.setUserData(interaction.getMember().getId());
-                musicManager.getScheduler().queue(track);
+                queueTraced(musicManager, track, trace);
                 final String title = track.getInfo().title;
                 final String shortenedTitle = title.length() > 60 ? title.substring(0, 60) + "..." : title;
                 MessageEmbed embed = new EmbedBuilder()
@@ -266,6 +301,7 @@ public final class ElixirMusicManager {
             public void playlistLoaded(AudioPlaylist playlist) {
                 final List<AudioTrack> tracks = playlist.getTracks();
                 if (tracks.size() > 300) {
+                    trace.finish("rejected");
                     interaction.reply(Embed.error("Playlists that exceed 300 tracks cannot be played."));
                     return;
                 }
@@ -279,8 +315,10 @@ public final class ElixirMusicManager {
                         .setDescription(String.format("**Queued:** [%s](%s)", shortenedTitle.replaceAll("\\[|]]", ""), tracks.get(0).getInfo().uri))
                         .build();
                     interaction.reply(embed, false);
-                    musicManager.scheduler.queue(tracks.get(0));
+                    queueTraced(musicManager, tracks.get(0), trace);
                 } else {
+                    trace.mark(TrackTrace.Stage.LOADED);
+                    trace.finish("playlist");
                     final String success = String.format("Queued **%s** tracks from [%s](%s).", tracks.size(), playlist.getName(), url);
                     MessageEmbed embed = new EmbedBuilder()
                         .setColor(ElixirConstants.DEFAULT_EMBED_COLOR)
@@ -297,21 +335,26 @@ public final class ElixirMusicManager {
 
             @Override
             public void noMatches() {
+                trace.finish("no_matches");
                 interaction.reply(Embed.error("Nothing found by that search term."));
             }
 
             @Override
             public void loadFailed(FriendlyException exception) {
+                trace.finish("failed");
                 Utilities.throwThrowable(new ElixirException(interaction.getGuild(), interaction.getMember()).exception(exception));
                 interaction.reply(Embed.error("An error occurred while attempting to play that track."));
             }
         });
+
+        // A prefetched track is served by the prefetch source, in order with the guild's other loads.
+        this.audioPlayerManager.loadItemOrdered(musicManager, track, handler);
     }
 
     @Internal
     public void loadAndPlay(Guild guild, String track, Consumer<Object> callback) {
         final GuildMusicManager musicManager = this.getMusicManager(guild);
-        this.audioPlayerManager.loadItemOrdered(musicManager, track, new AudioLoadResultHandler() {
+        this.audioPlayerManager.loadItemOrdered(musicManager, track, timed(track, new AudioLoadResultHandler() {
 
             @Override
             public void trackLoaded(AudioTrack audioTrack) {
@@ -346,6 +389,74 @@ public final class ElixirMusicManager {
                 callback.accept(e);
                 Utilities.throwThrowable(new ElixirException().guild(guild).exception(e));
             }
-        });
+        }));
+    }
+
+    /**
+     * Queues a loaded track, and keeps tracing it if it starts playing straight away.
+     */
+    private static void queueTraced(GuildMusicManager musicManager, AudioTrack track, TrackTrace trace) {
+        trace.mark(TrackTrace.Stage.LOADED);
+        if (musicManager.audioPlayer.getPlayingTrack() != null) {
+            trace.finish("queued");
+        } else {
+            trace.follow(track);
+        }
+        musicManager.scheduler.queue(track);
+    }
+
+    /**
+     * Wraps a load handler to record how long loading took, by source and result.
+     */
+    private static AudioLoadResultHandler timed(String identifier, AudioLoadResultHandler handler) {
+        final long start = System.nanoTime();
+        final String source = sourceOf(identifier);
+        return new AudioLoadResultHandler() {
+            @Override
+            public void trackLoaded(AudioTrack track) {
+                this.record("track");
+                handler.trackLoaded(track);
+            }
+
+            @Override
+            public void playlistLoaded(AudioPlaylist playlist) {
+                this.record("playlist");
+                handler.playlistLoaded(playlist);
+            }
+
+            @Override
+            public void noMatches() {
+                this.record("no_matches");
+                handler.noMatches();
+            }
+
+            @Override
+            public void loadFailed(FriendlyException exception) {
+                this.record("failed");
+                handler.loadFailed(exception);
+            }
+
+            private void record(String result) {
+                Metrics.histogram("elixir_track_load_seconds", "source", source, "result", result)
+                    .record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * @return A short name for where an identifier is loaded from, for metrics.
+     */
+    private static String sourceOf(String identifier) {
+        final int prefix = identifier.indexOf("search:");
+        if (prefix > 0 && !identifier.startsWith("http")) return identifier.substring(0, prefix) + "search";
+
+        final String lower = identifier.toLowerCase(Locale.ROOT);
+        if (lower.contains("youtube.com") || lower.contains("youtu.be")) return "youtube";
+        if (lower.contains("spotify.com")) return "spotify";
+        if (lower.contains("soundcloud.com")) return "soundcloud";
+        if (lower.contains("bandcamp.com")) return "bandcamp";
+        if (lower.contains("twitch.tv")) return "twitch";
+        if (lower.contains("vimeo.com")) return "vimeo";
+        return lower.startsWith("http") ? "http" : "other";
     }
 }
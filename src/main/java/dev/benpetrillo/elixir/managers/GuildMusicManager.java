@@ -21,6 +21,7 @@ import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import dev.benpetrillo.elixir.music.AudioPlayerSendHandler;
+import dev.benpetrillo.elixir.music.TrackHistory;
 import dev.benpetrillo.elixir.music.TrackScheduler;
 import lombok.Getter;
 import net.dv8tion.jda.api.entities.Guild;
@@ -31,6 +32,7 @@ public final class GuildMusicManager {
     public final AudioPlayer audioPlayer;
     @Getter
     public final TrackScheduler scheduler;
+    private final TrackHistory history = new TrackHistory();
     private final Guild guild;
 
     public GuildMusicManager(AudioPlayerManager manager, Guild guild) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.managers;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.music.TrackHistory;
+import dev.benpetrillo.elixir.search.TrackIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps per-guild play history and writes it behind to storage.
+ * Changed histories are collected and saved together in one batch, instead of on every track.
+ */
+public final class HistoryManager {
+
+    private static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    private static final Map<String, TrackHistory> dirty = new ConcurrentHashMap<>();
+
+    /**
+     * Starts saving changed histories periodically.
+     */
+    public static void schedule() {
+        TaskScheduler.schedule("history.flush", FLUSH_INTERVAL, FLUSH_INTERVAL,
+            TimeUnit.MILLISECONDS, () -> HistoryManager.flush().join());
+    }
+
+    /**
+     * Adds a played track to the history of its guild.
+     *
+     * @param musicManager The music manager of the guild.
+     * @param track The track which finished playing.
+     */
+    public static void record(GuildMusicManager musicManager, AudioTrack track) {
+        var manager = ElixirMusicManager.getInstance().getAudioPlayerManager();
+        musicManager.getHistory().push(TrackHistory.Entry.of(manager, track));
+        markDirty(musicManager);
+    }
+
+    /**
+     * Marks the history of a guild as changed, so it is saved with the next batch.
+     */
+    public static void markDirty(GuildMusicManager musicManager) {
+        dirty.put(musicManager.getGuild().getId(), musicManager.getHistory());
+    }
+
+    /**
+     * Loads the stored history of a guild in the background.
+     * Its tracks become searchable locally, as they would have when they were played.
+     *
+     * @param guildId The guild to load.
+     * @param history The in-memory history to restore into.
+     */
+    public static void load(String guildId, TrackHistory history) {
+        if (DatabaseManager.getHistoryRepository() == null) return;
+
+        DatabaseManager.submit("history.find", () -> DatabaseManager.getHistoryRepository().find(guildId))
+            .thenAccept(data -> {
+                history.restore(data);
+                // Oldest first, so the most recently played tracks are the last to be evicted.
+                var entries = history.getEntries();
+                for (var i = entries.size() - 1; i >= 0; i--) {
+                    TrackIndex.getInstance().add(entries.get(i).toInfo());
+                }
+            })
+            .exceptionally(error -> {
+                ElixirClient.logger.warn("Failed to load play history for {}.", guildId, error);
+                return null;
+            });
+    }
+
+    /**
+     * Saves every changed history in a single batch.
+     *
+     * @return A future completed once the batch is saved.
+     */
+    public static CompletableFuture<Void> flush() {
+        if (dirty.isEmpty() || DatabaseManager.getHistoryRepository() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        var pending = new HashMap<String, TrackHistory>();
+        for (var guildId : dirty.keySet()) {
+            var history = dirty.remove(guildId);
+            if (history != null) pending.put(guildId, history);
+        }
+
+        var batch = new HashMap<String, byte[]>(pending.size());
+        pending.forEach((guildId, history) -> batch.put(guildId, history.encode()));
+        return DatabaseManager.execute("history.save", () -> DatabaseManager.getHistoryRepository().saveAll(batch))
+            .exceptionally(error -> {
+                // Keep the histories dirty so the next flush retries them.
+                pending.forEach(dirty::putIfAbsent);
+                ElixirClient.logger.warn("Failed to save play history.", error);
+                return null;
+            });
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.managers;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.metrics.LatencyHistogram;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs Elixir's background work: periodic jobs and one-off tasks which should not hold up their caller.
+ * A small scheduler thread only keeps time; task bodies run on a separate worker pool so a slow task
+ * never delays another. Tasks which block for minutes run on their own pool, so they never hold a
+ * worker the short tasks need. Every task is named and keeps execution metrics.
+ */
+public final class TaskScheduler {
+
+    /**
+     * The most a periodic task's delay is shifted, as a fraction of its period.
+     * Spreading runs out keeps tasks with the same period from always firing together.
+     */
+    private static final double JITTER = 0.1;
+
+    private static final ScheduledThreadPoolExecutor timer = createTimer();
+    private static final ExecutorService workers = createWorkers("task-worker-");
+    private static final ExecutorService blockingWorkers = createWorkers("task-blocking-");
+    private static final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Runs a task repeatedly. Each delay is jittered, and a run which is due while the previous one
+     * is still going is skipped and counted as an overrun.
+     *
+     * @param name The name of the task, used for metrics and logging.
+     * @param initialDelay The delay before the first run.
+     * @param period The time between runs.
+     * @param unit The unit of the delay and period.
+     * @param body The work to do.
+     * @return The scheduled task.
+     */
+    public static Task schedule(String name, long initialDelay, long period, TimeUnit unit, Runnable body) {
+        return schedule(name, initialDelay, period, unit, body, workers);
+    }
+
+    /**
+     * Runs a long-running task repeatedly, such as one which waits on remote calls for minutes.
+     * It is scheduled like {@link #schedule(String, long, long, TimeUnit, Runnable)}, but runs on the blocking pool.
+     *
+     * @param name The name of the task, used for metrics and logging.
+     * @param initialDelay The delay before the first run.
+     * @param period The time between runs.
+     * @param unit The unit of the delay and period.
+     * @param body The work to do.
+     * @return The scheduled task.
+     */
+    public static Task scheduleBlocking(String name, long initialDelay, long period, TimeUnit unit, Runnable body) {
+        return schedule(name, initialDelay, period, unit, body, blockingWorkers);
+    }
+
+    /**
+     * Runs a task once, as soon as a worker is free.
+     *
+     * @param name The name of the task, used for metrics and logging.
+     * @param body The work to do.
+     * @return The scheduled task.
+     */
+    public static Task submit(String name, Runnable body) {
+        return submit(name, body, workers);
+    }
+
+    /**
+     * Runs a long-running task once, on the blocking pool.
+     *
+     * @param name The name of the task, used for metrics and logging.
+     * @param body The work to do.
+     * @return The scheduled task.
+     */
+    public static Task submitBlocking(String name, Runnable body) {
+        return submit(name, body, blockingWorkers);
+    }
+
+    /**
+     * @return Every task which has been scheduled.
+     */
+    public static Collection<Task> getTasks() {
+        return List.copyOf(tasks.values());
+    }
+
+    /**
+     * Cancels every periodic task and waits briefly for running tasks to finish.
+     */
+    public static void shutdown() {
+        tasks.values().forEach(Task::cancel);
+        timer.shutdownNow();
+        // Long-running tasks would hold up shutdown for minutes, so they are interrupted instead.
+        blockingWorkers.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                ElixirClient.logger.warn("Background tasks did not finish before shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Task schedule(String name, long initialDelay, long period, TimeUnit unit, Runnable body, ExecutorService executor) {
+        var task = new Task(name, unit.toMillis(period), body, executor);
+        register(task);
+        task.scheduleNext(unit.toMillis(initialDelay));
+        return task;
+    }
+
+    private static Task submit(String name, Runnable body, ExecutorService executor) {
+        var task = new Task(name, 0, body, executor);
+        register(task);
+        executor.execute(task::run);
+        return task;
+    }
+
+    private static void register(Task task) {
+        var previous = tasks.put(task.name, task);
+        if (previous != null && previous.period > 0) previous.cancel();
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        var executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "task-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static ExecutorService createWorkers(String prefix) {
+        var counter = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                var thread = new Thread(runnable, prefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public enum Status {
+        SCHEDULED,
+        RUNNING,
+        FAILED,
+        FINISHED,
+        CANCELLED
+    }
+
+    /**
+     * A named unit of background work, and its execution history.
+     */
+    public static final class Task {
+        @Getter
+        private final String name;
+        /**
+         * The time between runs in milliseconds, or 0 for a task which runs once.
+         */
+        @Getter
+        private final long period;
+        private final Runnable body;
+        private final ExecutorService executor;
+        @Getter
+        private final LatencyHistogram executionTime = new LatencyHistogram();
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final AtomicBoolean running = new AtomicBoolean();
+        @Getter
+        private volatile Status status = Status.SCHEDULED;
+        @Getter
+        private volatile long lastRunAt;
+        private volatile ScheduledFuture<?> next;
+
+        private Task(String name, long period, Runnable body, ExecutorService executor) {
+            this.name = name;
+            this.period = period;
+            this.body = body;
+            this.executor = executor;
+        }
+
+        public long getRuns() {
+            return this.runs.sum();
+        }
+
+        public long getFailures() {
+            return this.failures.sum();
+        }
+
+        public long getOverruns() {
+            return this.overruns.sum();
+        }
+
+        /**
+         * Stops the task from running again. A run which has already started is left to finish.
+         */
+        public void cancel() {
+            this.status = Status.CANCELLED;
+            var next = this.next;
+            if (next != null) next.cancel(false);
+        }
+
+        private void scheduleNext(long delay) {
+            if (this.status == Status.CANCELLED || timer.isShutdown()) return;
+            try {
+                this.next = timer.schedule(this::dispatch, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // The scheduler is shutting down.
+            }
+        }
+
+        private void dispatch() {
+            var jitter = (long) (this.period * JITTER * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+            this.scheduleNext(this.period + jitter);
+
+            if (this.running.get()) {
+                this.overruns.increment();
+                ElixirClient.logger.warn("Skipping run of task '{}', as the previous run is still going.", this.name);
+                return;
+            }
+            try {
+                this.executor.execute(this::run);
+            } catch (RejectedExecutionException ignored) {
+                // The scheduler is shutting down.
+            }
+        }
+
+        private void run() {
+            if (!this.running.compareAndSet(false, true)) return;
+
+            if (this.status != Status.CANCELLED) this.status = Status.RUNNING;
+            this.lastRunAt = System.currentTimeMillis();
+            var start = System.nanoTime();
+            var failed = false;
+            try {
+                this.body.run();
+            } catch (Throwable throwable) {
+                failed = true;
+                this.failures.increment();
+                ElixirClient.logger.warn("Task '{}' failed.", this.name, throwable);
+            } finally {
+                this.executionTime.record(System.nanoTime() - start);
+                this.runs.increment();
+                if (this.status != Status.CANCELLED) {
+                    this.status = failed ? Status.FAILED : this.period > 0 ? Status.SCHEDULED : Status.FINISHED;
+                }
+                this.running.set(false);
+            }
+        }
+    }
+}
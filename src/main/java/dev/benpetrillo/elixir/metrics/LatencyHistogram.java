@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with fixed, exponentially sized buckets.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The upper bound (inclusive) of each bucket, in milliseconds.
+     * Anything slower falls into a final, unbounded bucket.
+     */
+    public static final long[] BUCKETS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (var i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a single observation.
+     *
+     * @param nanos The observed latency, in nanoseconds.
+     */
+    public void record(long nanos) {
+        // A negative duration can only come from a caller's mistake, and would be subtracted from the total.
+        if (nanos < 0) return;
+        var millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        var bucket = 0;
+        while (bucket < BUCKETS.length && millis > BUCKETS[bucket]) bucket++;
+
+        this.counts[bucket].increment();
+        this.count.increment();
+        this.totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getTotalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    /**
+     * @return The number of observations in each bucket, in the order of {@link #BUCKETS}.
+     */
+    public long[] getBucketCounts() {
+        var snapshot = new long[this.counts.length];
+        for (var i = 0; i < snapshot.length; i++) {
+            snapshot[i] = this.counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Estimates a percentile from the bucket boundaries.
+     *
+     * @param percentile The percentile, between 0 and 1.
+     * @return The upper bound of the bucket containing the percentile, in milliseconds.
+     */
+    public long getPercentile(double percentile) {
+        var snapshot = this.getBucketCounts();
+        var total = 0L;
+        for (var bucketCount : snapshot) total += bucketCount;
+        if (total == 0) return 0;
+
+        var target = (long) Math.ceil(total * percentile);
+        var seen = 0L;
+        for (var i = 0; i < BUCKETS.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) return BUCKETS[i];
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.metrics;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.CommandDispatcher;
+import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.managers.DrainManager;
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.managers.TaskScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds Elixir's counters and histograms, and renders them with everything else worth watching
+ * in the Prometheus text format. Values owned by other components are read when scraped.
+ */
+public final class Metrics {
+
+    private static final long REST_PING_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    private static final Map<String, Map<String, LongAdder>> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Starts measuring values which have to be sampled, such as REST latency.
+     */
+    public static void schedule() {
+        TaskScheduler.schedule("metrics.rest-ping", 0, REST_PING_INTERVAL, TimeUnit.MILLISECONDS, () ->
+            ElixirClient.getJda().getRestPing().queue(millis ->
+                histogram("elixir_rest_ping_seconds").record(TimeUnit.MILLISECONDS.toNanos(millis))));
+    }
+
+    /**
+     * @param name   The metric name.
+     * @param labels Label names and values, alternating.
+     * @return The counter, created on first use.
+     */
+    public static LongAdder counter(String name, String... labels) {
+        return counters.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(labelsOf(labels), k -> new LongAdder());
+    }
+
+    /**
+     * @param name   The metric name.
+     * @param labels Label names and values, alternating.
+     * @return The histogram, created on first use.
+     */
+    public static LatencyHistogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(labelsOf(labels), k -> new LatencyHistogram());
+    }
+
+    /**
+     * Counts a lookup in one of Elixir's caches.
+     */
+    public static void recordCacheLookup(String cache, boolean hit) {
+        counter("elixir_cache_requests_total", "cache", cache, "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * @return Every metric, in the Prometheus text exposition format.
+     */
+    public static String scrape() {
+        var output = new StringBuilder();
+
+        var players = 0;
+        var active = 0;
+        var queued = 0L;
+        for (var musicManager : ElixirMusicManager.getInstance().getMusicManagers()) {
+            players++;
+            if (musicManager.audioPlayer.getPlayingTrack() != null) active++;
+            queued += musicManager.scheduler.getQueue().size();
+        }
+        gauge(output, "elixir_players", "", players);
+        gauge(output, "elixir_players_active", "", active);
+        gauge(output, "elixir_queued_tracks", "", queued);
+        gauge(output, "elixir_draining", "", DrainManager.isDraining() ? 1 : 0);
+
+        var shardManager = ElixirClient.getShardManager();
+        if (shardManager != null) {
+            output.append("# TYPE elixir_gateway_ping_seconds gauge\n");
+            for (var shard : shardManager.getShardCache()) {
+                var labels = labelsOf("shard", String.valueOf(shard.getShardInfo().getShardId()));
+                sample(output, "elixir_gateway_ping_seconds", labels, shard.getGatewayPing() / 1000.0);
+            }
+            gauge(output, "elixir_guilds", "", shardManager.getGuildCache().size());
+        }
+
+        var memory = ManagementFactory.getMemoryMXBean();
+        gauge(output, "jvm_memory_heap_used_bytes", "", memory.getHeapMemoryUsage().getUsed());
+        gauge(output, "jvm_memory_heap_committed_bytes", "", memory.getHeapMemoryUsage().getCommitted());
+        gauge(output, "jvm_threads", "", ManagementFactory.getThreadMXBean().getThreadCount());
+
+        histograms(output, "elixir_database_operation_seconds", "operation", DatabaseManager.getLatencies());
+        counters(output, "elixir_database_failures_total", "operation", DatabaseManager.getFailures());
+        histograms(output, "elixir_command_seconds", "command", CommandDispatcher.getLatencies());
+        histogram(output, "elixir_command_queue_seconds", "", CommandDispatcher.getQueueLatency());
+
+        output.append("# TYPE elixir_task_seconds histogram\n");
+        for (var task : TaskScheduler.getTasks()) {
+            var labels = labelsOf("task", task.getName());
+            histogramSamples(output, "elixir_task_seconds", labels, task.getExecutionTime());
+        }
+        output.append("# TYPE elixir_task_failures_total counter\n");
+        for (var task : TaskScheduler.getTasks()) {
+            sample(output, "elixir_task_failures_total", labelsOf("task", task.getName()), task.getFailures());
+        }
+        output.append("# TYPE elixir_task_overruns_total counter\n");
+        for (var task : TaskScheduler.getTasks()) {
+            sample(output, "elixir_task_overruns_total", labelsOf("task", task.getName()), task.getOverruns());
+        }
+
+        new TreeMap<>(counters).forEach((name, series) -> {
+            output.append("# TYPE ").append(name).append(" counter\n");
+            new TreeMap<>(series).forEach((labels, value) -> sample(output, name, labels, value.sum()));
+        });
+        new TreeMap<>(histograms).forEach((name, series) -> {
+            output.append("# TYPE ").append(name).append(" histogram\n");
+            new TreeMap<>(series).forEach((labels, value) -> histogramSamples(output, name, labels, value));
+        });
+
+        return output.toString();
+    }
+
+    private static void gauge(StringBuilder output, String name, String labels, double value) {
+        output.append("# TYPE ").append(name).append(" gauge\n");
+        sample(output, name, labels, value);
+    }
+
+    private static void counters(StringBuilder output, String name, String label, Map<String, LongAdder> series) {
+        output.append("# TYPE ").append(name).append(" counter\n");
+        new TreeMap<>(series).forEach((key, value) -> sample(output, name, labelsOf(label, key), value.sum()));
+    }
+
+    private static void histograms(StringBuilder output, String name, String label, Map<String, LatencyHistogram> series) {
+        output.append("# TYPE ").append(name).append(" histogram\n");
+        new TreeMap<>(series).forEach((key, value) -> histogramSamples(output, name, labelsOf(label, key), value));
+    }
+
+    private static void histogram(StringBuilder output, String name, String labels, LatencyHistogram histogram) {
+        output.append("# TYPE ").append(name).append(" histogram\n");
+        histogramSamples(output, name, labels, histogram);
+    }
+
+    /**
+     * Writes a histogram's cumulative buckets, converting their bounds from milliseconds to seconds.
+     */
+    private static void histogramSamples(StringBuilder output, String name, String labels, LatencyHistogram histogram) {
+        var buckets = histogram.getBucketCounts();
+        var cumulative = 0L;
+        for (var i = 0; i < LatencyHistogram.BUCKETS.length; i++) {
+            cumulative += buckets[i];
+            var le = "le=\"" + (LatencyHistogram.BUCKETS[i] / 1000.0) + "\"";
+            sample(output, name + "_bucket", withLabel(labels, le), cumulative);
+        }
+        cumulative += buckets[LatencyHistogram.BUCKETS.length];
+        sample(output, name + "_bucket", withLabel(labels, "le=\"+Inf\""), cumulative);
+        sample(output, name + "_sum", labels, histogram.getTotalNanos() / 1e9);
+        sample(output, name + "_count", labels, cumulative);
+    }
+
+    private static void sample(StringBuilder output, String name, String labels, double value) {
+        output.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            output.append((long) value);
+        } else {
+            output.append(value);
+        }
+        output.append('\n');
+    }
+
+    private static String withLabel(String labels, String label) {
+        return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+    }
+
+    private static String labelsOf(String... labels) {
+        if (labels.length == 0) return "";
+        var builder = new StringBuilder("{");
+        for (var i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) builder.append(',');
+            builder.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
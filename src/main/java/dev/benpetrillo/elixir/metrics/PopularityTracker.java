@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.metrics;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.managers.TaskScheduler;
+import dev.benpetrillo.elixir.search.TrackIndex;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.Utilities;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks which tracks are played most across every guild.
+ * Play counts are estimated with a count-min sketch, and the heaviest hitters are kept as candidates.
+ * The candidates are saved periodically, so that caches can be warmed for them after a restart.
+ */
+public final class PopularityTracker {
+
+    @Getter
+    private static final PopularityTracker instance = new PopularityTracker();
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 4096;
+    private static final int MAX_CANDIDATES = 100;
+    private static final int WARMUP_SIZE = 25;
+    /**
+     * Once this many plays are counted, every count is halved, so old favourites fade out.
+     */
+    private static final long DECAY_THRESHOLD = 1 << 20;
+    private static final long PERSIST_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+
+    private final long[][] sketch = new long[DEPTH][WIDTH];
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final Path path = Path.of(Objects.requireNonNullElse(ElixirConstants.STORAGE_PATH, "data"))
+        .resolve("popularity.json");
+    private long total = 0;
+
+    /**
+     * Counts a play of a track.
+     *
+     * @param info The track which started playing.
+     */
+    public synchronized void record(AudioTrackInfo info) {
+        if (info.uri == null || info.isStream) return;
+
+        var key = CustomPlaylistTrack.canonicalUrl(info.uri);
+        var estimate = this.increment(key, 1);
+        if (++this.total >= DECAY_THRESHOLD) this.decay();
+
+        var candidate = this.candidates.get(key);
+        if (candidate != null) {
+            candidate.count = estimate;
+            return;
+        }
+        if (this.candidates.size() >= MAX_CANDIDATES) {
+            var weakest = Collections.min(this.candidates.values(), Comparator.comparingLong(c -> c.count));
+            if (weakest.count >= estimate) return;
+            this.candidates.remove(weakest.uri);
+        }
+        this.candidates.put(key, Candidate.of(key, info, estimate));
+    }
+
+    /**
+     * @param limit The maximum number of tracks to return.
+     * @return The most played tracks, most played first.
+     */
+    public synchronized List<Candidate> getTopTracks(int limit) {
+        return this.candidates.values().stream()
+            .sorted(Comparator.comparingLong((Candidate c) -> c.count).reversed())
+            .limit(limit)
+            .map(Candidate::copy)
+            .toList();
+    }
+
+    /**
+     * Loads the saved candidates, warms caches for the most popular tracks in the background,
+     * and starts saving the candidates periodically.
+     */
+    public void warmup() {
+        this.load();
+
+        ElixirClient.getExecutor().execute(() -> {
+            var tracks = this.getTopTracks(WARMUP_SIZE);
+            for (var track : tracks) {
+                var info = track.toInfo();
+                TrackIndex.getInstance().add(info);
+                TrackUtil.getCoverArt(info);
+            }
+            ElixirClient.logger.debug("Warmed caches for {} popular tracks.", tracks.size());
+        });
+
+        TaskScheduler.schedule("popularity.persist", PERSIST_INTERVAL, PERSIST_INTERVAL,
+            TimeUnit.MILLISECONDS, this::persist);
+    }
+
+    /**
+     * Saves the current candidates to disk.
+     */
+    public void persist() {
+        var snapshot = Utilities.serialize(this.getTopTracks(MAX_CANDIDATES));
+        try {
+            Files.createDirectories(this.path.toAbsolutePath().getParent());
+            var temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+            Files.writeString(temporary, snapshot, StandardCharsets.UTF_8);
+            Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            ElixirClient.logger.warn("Failed to save track popularity.", exception);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(this.path)) return;
+        try {
+            var saved = Utilities.deserialize(Files.readString(this.path, StandardCharsets.UTF_8), Candidate[].class);
+            if (saved == null) return;
+            synchronized (this) {
+                for (var candidate : saved) {
+                    if (candidate == null || candidate.uri == null) continue;
+                    candidate.count = this.increment(candidate.uri, candidate.count);
+                    this.candidates.put(candidate.uri, candidate);
+                    if (this.candidates.size() >= MAX_CANDIDATES) break;
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            ElixirClient.logger.warn("Failed to load track popularity.", exception);
+        }
+    }
+
+    /**
+     * Adds to the count of a key using conservative update, which only raises the
+     * counters that are at the current minimum and keeps over-estimation low.
+     *
+     * @return The new estimated count of the key.
+     */
+    private long increment(String key, long amount) {
+        var indexes = new int[DEPTH];
+        var estimate = Long.MAX_VALUE;
+        for (var row = 0; row < DEPTH; row++) {
+            indexes[row] = index(key, row);
+            estimate = Math.min(estimate, this.sketch[row][indexes[row]]);
+        }
+
+        var updated = estimate + amount;
+        for (var row = 0; row < DEPTH; row++) {
+            if (this.sketch[row][indexes[row]] < updated) this.sketch[row][indexes[row]] = updated;
+        }
+        return updated;
+    }
+
+    private void decay() {
+        for (var row : this.sketch) {
+            for (var column = 0; column < WIDTH; column++) row[column] >>= 1;
+        }
+        for (var candidate : this.candidates.values()) candidate.count >>= 1;
+        this.total >>= 1;
+    }
+
+    private static int index(String key, int row) {
+        // Each row mixes the key's hash with a different seed, then takes the top bits.
+        var hash = key.hashCode() * 0x9E3779B97F4A7C15L + row * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        return (int) (hash >>> (64 - Integer.numberOfTrailingZeros(WIDTH)));
+    }
+
+    /**
+     * A track which is among the most played.
+     */
+    public static final class Candidate {
+        public String uri, title, author, identifier;
+        public long length;
+        public long count;
+
+        static Candidate of(String uri, AudioTrackInfo info, long count) {
+            var candidate = new Candidate();
+            candidate.uri = uri;
+            candidate.title = info.title;
+            candidate.author = info.author;
+            candidate.identifier = info.identifier;
+            candidate.length = info.length;
+            candidate.count = count;
+            return candidate;
+        }
+
+        Candidate copy() {
+            var copy = new Candidate();
+            copy.uri = this.uri;
+            copy.title = this.title;
+            copy.author = this.author;
+            copy.identifier = this.identifier;
+            copy.length = this.length;
+            copy.count = this.count;
+            return copy;
+        }
+
+        public AudioTrackInfo toInfo() {
+            return new AudioTrackInfo(this.title, this.author, this.length, this.identifier, false, this.uri);
+        }
+    }
+}
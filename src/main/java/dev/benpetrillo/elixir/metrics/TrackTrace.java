@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.metrics;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times each stage between a play command arriving and the first audio frame of its track.
+ * Finished traces are recorded into histograms by source, and slow ones are kept whole as exemplars.
+ */
+public final class TrackTrace {
+
+    private static final long SLOW_TRACE_MILLIS = 3000;
+    private static final int MAX_EXEMPLARS = 25;
+    private static final long PENDING_TTL = TimeUnit.MINUTES.toNanos(2);
+
+    /**
+     * Traces whose track was handed to the player, keyed by that track and waiting for its first frame.
+     */
+    private static final Map<AudioTrack, TrackTrace> pending = new ConcurrentHashMap<>();
+    private static final Deque<TrackTrace> exemplars = new ArrayDeque<>();
+
+    @Getter
+    private final String guildId;
+    @Getter
+    private final long startedAt;
+    private final long origin;
+    private final AtomicLongArray stages = new AtomicLongArray(Stage.values().length);
+    private final AtomicBoolean finished = new AtomicBoolean();
+    @Getter
+    private volatile String source = "other";
+    @Getter
+    private volatile String outcome;
+
+    private TrackTrace(String guildId, long receivedAt) {
+        this.guildId = guildId;
+        this.origin = receivedAt;
+        this.startedAt = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedAt);
+        for (var i = 0; i < this.stages.length(); i++) this.stages.set(i, -1);
+        this.stages.set(Stage.RECEIVED.ordinal(), 0);
+    }
+
+    /**
+     * @param guildId    The guild the command came from.
+     * @param receivedAt When the command was received, from {@link System#nanoTime()}.
+     * @return A new trace, with the command marked as received.
+     */
+    public static TrackTrace begin(String guildId, long receivedAt) {
+        return new TrackTrace(guildId, receivedAt);
+    }
+
+    /**
+     * Marks a stage as reached now. Only the first time a stage is reached counts.
+     */
+    public void mark(Stage stage) {
+        this.stages.compareAndSet(stage.ordinal(), -1, System.nanoTime() - this.origin);
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Continues this trace on the given track, once it has been handed to the player.
+     */
+    public void follow(AudioTrack track) {
+        var now = System.nanoTime();
+        pending.values().removeIf(trace -> now - trace.origin > PENDING_TTL);
+        pending.put(track, this);
+    }
+
+    /**
+     * Ends the trace, recording every stage it reached.
+     *
+     * @param outcome How the request ended, such as "played" or "queued".
+     */
+    public void finish(String outcome) {
+        if (!this.finished.compareAndSet(false, true)) return;
+        this.outcome = outcome;
+
+        var previous = 0L;
+        for (var stage : this.reached()) {
+            var offset = this.stages.get(stage.ordinal());
+            if (stage != Stage.RECEIVED) {
+                Metrics.histogram("elixir_track_start_stage_seconds", "stage", stage.getName(), "source", this.source)
+                    .record(offset - previous);
+            }
+            previous = offset;
+        }
+        Metrics.histogram("elixir_track_start_seconds", "source", this.source, "outcome", outcome).record(previous);
+
+        if (TimeUnit.NANOSECONDS.toMillis(previous) < SLOW_TRACE_MILLIS) return;
+        synchronized (exemplars) {
+            exemplars.addFirst(this);
+            if (exemplars.size() > MAX_EXEMPLARS) exemplars.removeLast();
+        }
+    }
+
+    /**
+     * @return The time from receiving the command to the last stage reached, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        var total = 0L;
+        for (var i = 0; i < this.stages.length(); i++) total = Math.max(total, this.stages.get(i));
+        return total;
+    }
+
+    /**
+     * @return Each stage reached, in the order it was reached, with how long after the command it was reached, in milliseconds.
+     */
+    public Map<String, Long> getStages() {
+        var stages = new LinkedHashMap<String, Long>();
+        for (var stage : this.reached()) {
+            stages.put(stage.getName(), TimeUnit.NANOSECONDS.toMillis(this.stages.get(stage.ordinal())));
+        }
+        return stages;
+    }
+
+    /**
+     * Stages are not always reached in their declared order: lavaplayer starts a track before
+     * resolving it, so Spotify tracks reach STARTED before RESOLVE_STARTED.
+     *
+     * @return The stages reached, ordered by when they were reached.
+     */
+    private List<Stage> reached() {
+        return Arrays.stream(Stage.values())
+            .filter(stage -> this.stages.get(stage.ordinal()) >= 0)
+            .sorted(Comparator.comparingLong(stage -> this.stages.get(stage.ordinal())))
+            .toList();
+    }
+
+    /**
+     * Marks a stage on the trace following the track, if there is one.
+     */
+    public static void mark(AudioTrack track, Stage stage) {
+        if (pending.isEmpty()) return;
+        var trace = pending.get(track);
+        if (trace != null) trace.mark(stage);
+    }
+
+    /**
+     * @return True if any trace is waiting for a first frame. Cheap enough to check for every frame.
+     */
+    public static boolean isAwaitingFrame() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Finishes the trace following the track, now that its first frame was sent.
+     */
+    public static void firstFrame(AudioTrack track) {
+        if (track == null) return;
+        var trace = pending.remove(track);
+        if (trace == null) return;
+        trace.mark(Stage.FIRST_FRAME);
+        trace.finish("played");
+    }
+
+    /**
+     * Finishes the trace following the track, if it ended before sending any audio.
+     */
+    public static void abandon(AudioTrack track, String outcome) {
+        if (pending.isEmpty()) return;
+        var trace = pending.remove(track);
+        if (trace != null) trace.finish(outcome);
+    }
+
+    /**
+     * @return The most recent slow traces, newest first.
+     */
+    public static List<TrackTrace> getExemplars() {
+        synchronized (exemplars) {
+            return List.copyOf(exemplars);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public enum Stage {
+        RECEIVED("received"),
+        DEFERRED("deferred"),
+        LOAD_STARTED("load_started"),
+        LOADED("loaded"),
+        RESOLVE_STARTED("resolve_started"),
+        RESOLVED("resolved"),
+        STARTED("started"),
+        FIRST_FRAME("first_frame");
+
+        private final String name;
+    }
+}
@@ -17,19 +17,34 @@
 package dev.benpetrillo.elixir.music;
 
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import dev.benpetrillo.elixir.metrics.Metrics;
+import dev.benpetrillo.elixir.metrics.TrackTrace;
 import lombok.Getter;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
 
 @Getter
 public final class AudioPlayerSendHandler implements AudioSendHandler {
 
+    private static final LongAdder underruns = Metrics.counter("elixir_frame_underruns_total");
+    /**
+     * How far, in milliseconds, a track's position may move without a frame before it is treated as a seek.
+     */
+    private static final long SEEK_THRESHOLD = 1000;
+
     private final AudioPlayer player;
     private final ByteBuffer buffer;
     private final MutableAudioFrame frame;
+    /**
+     * The track frames were last provided for, and its position at that frame.
+     */
+    private AudioTrack streamingTrack;
+    private long streamingPosition;
 
     public AudioPlayerSendHandler(AudioPlayer player) {
         this.player = player;
@@ -40,7 +55,23 @@ public final class AudioPlayerSendHandler implements AudioSendHandler {
 
     @Override
     public boolean canProvide() {
-        return this.player.provide(this.frame);
+        final AudioTrack track = this.player.getPlayingTrack();
+        if (this.player.provide(this.frame)) {
+            if (TrackTrace.isAwaitingFrame()) TrackTrace.firstFrame(track);
+            this.streamingTrack = track;
+            this.streamingPosition = track != null ? track.getPosition() : 0;
+            return true;
+        }
+
+        // Buffering before a track's first frame, or after a seek, is expected.
+        // Only a track which was already streaming and fell behind leaves listeners hearing a gap.
+        if (track == null || track != this.streamingTrack || this.player.isPaused()) return false;
+        if (Math.abs(track.getPosition() - this.streamingPosition) > SEEK_THRESHOLD) {
+            this.streamingTrack = null;
+            return false;
+        }
+        underruns.increment();
+        return false;
     }
 
     @Override
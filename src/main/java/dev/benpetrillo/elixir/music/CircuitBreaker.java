@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops requests to a failing dependency for a while, so they fail fast instead of piling up.
+ * The breaker opens once too many failures happen within a window, and after a cooldown
+ * lets a single trial request through to decide whether to close again. A trial which never
+ * reports back, such as a track skipped before it loaded, expires so another one can be made.
+ */
+public final class CircuitBreaker {
+
+    private final int threshold;
+    private final long windowMillis;
+    private final long cooldownMillis;
+    private final long trialTimeoutMillis;
+    private final LongSupplier clock;
+    private final Deque<Long> failures = new ArrayDeque<>();
+    private State state = State.CLOSED;
+    private long openedAt;
+    private long trialStartedAt;
+
+    public CircuitBreaker(int threshold, long windowMillis, long cooldownMillis, long trialTimeoutMillis) {
+        this(threshold, windowMillis, cooldownMillis, trialTimeoutMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int threshold, long windowMillis, long cooldownMillis, long trialTimeoutMillis, LongSupplier clock) {
+        this.threshold = threshold;
+        this.windowMillis = windowMillis;
+        this.cooldownMillis = cooldownMillis;
+        this.trialTimeoutMillis = trialTimeoutMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Claims a request. Once the cooldown has passed, only the first caller is let through,
+     * until it reports a result or its trial expires.
+     *
+     * @return If a request may be made.
+     */
+    public synchronized boolean allowsRequest() {
+        if (this.isRejecting()) return false;
+        if (this.state != State.CLOSED) {
+            this.state = State.HALF_OPEN;
+            this.trialStartedAt = this.clock.getAsLong();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether requests are being rejected, without claiming the trial.
+     *
+     * @return If a request would be turned away right now.
+     */
+    public synchronized boolean isRejecting() {
+        var now = this.clock.getAsLong();
+        return switch (this.state) {
+            case CLOSED -> false;
+            case OPEN -> now - this.openedAt < this.cooldownMillis;
+            case HALF_OPEN -> now - this.trialStartedAt < this.trialTimeoutMillis;
+        };
+    }
+
+    public synchronized void recordSuccess() {
+        this.failures.clear();
+        this.state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        var now = this.clock.getAsLong();
+        this.failures.addLast(now);
+        while (!this.failures.isEmpty() && now - this.failures.peekFirst() > this.windowMillis) {
+            this.failures.removeFirst();
+        }
+
+        // Any failure while not closed means the dependency has not recovered, so the cooldown starts again.
+        if (this.state != State.CLOSED || this.failures.size() >= this.threshold) {
+            this.state = State.OPEN;
+            this.openedAt = now;
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return this.state != State.CLOSED;
+    }
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
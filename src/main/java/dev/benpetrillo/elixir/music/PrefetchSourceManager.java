@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.FunctionalResultHandler;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.AudioItem;
+import com.sedmelluq.discord.lavaplayer.track.AudioReference;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.benpetrillo.elixir.metrics.Metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves tracks that were loaded ahead of time.
+ * Registered before every other source, so any load of a prefetched identifier,
+ * including a guild's ordered loads, is answered from here without a lookup.
+ */
+public final class PrefetchSourceManager implements AudioSourceManager {
+
+    private static final long PREFETCH_TTL = 60_000;
+    private static final int MAX_PREFETCHED = 128;
+
+    private final Map<String, Prefetch> prefetched = new ConcurrentHashMap<>();
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Starts loading an item in the background, keeping the track it resolves to.
+     * Only finished loads are served, so a load never waits on a prefetch.
+     *
+     * @param manager    The player manager to load with.
+     * @param identifier The identifier that is likely to be played soon.
+     */
+    public void prefetch(AudioPlayerManager manager, String identifier) {
+        final long now = System.currentTimeMillis();
+        this.prefetched.values().removeIf(prefetch -> now - prefetch.createdAt() > PREFETCH_TTL);
+        if (this.prefetched.size() + this.loading.size() >= MAX_PREFETCHED) return;
+        if (this.prefetched.containsKey(identifier) || !this.loading.add(identifier)) return;
+
+        manager.loadItem(identifier, new FunctionalResultHandler(
+            track -> this.store(identifier, track),
+            playlist -> {
+                if (playlist.isSearchResult() && !playlist.getTracks().isEmpty()) {
+                    this.store(identifier, playlist.getTracks().get(0));
+                } else {
+                    this.loading.remove(identifier);
+                }
+            },
+            () -> this.loading.remove(identifier),
+            exception -> this.loading.remove(identifier)));
+    }
+
+    private void store(String identifier, AudioTrack track) {
+        this.prefetched.put(identifier, new Prefetch(track, System.currentTimeMillis()));
+        this.loading.remove(identifier);
+    }
+
+    @Override
+    public String getSourceName() {
+        return "prefetch";
+    }
+
+    @Override
+    public AudioItem loadItem(AudioPlayerManager manager, AudioReference reference) {
+        final Prefetch prefetch = this.prefetched.remove(reference.identifier);
+        final boolean fresh = prefetch != null && System.currentTimeMillis() - prefetch.createdAt() <= PREFETCH_TTL;
+        Metrics.recordCacheLookup("prefetch", fresh);
+        // A prefetched instance may only be played once.
+        return fresh ? prefetch.track().makeClone() : null;
+    }
+
+    @Override
+    public boolean isTrackEncodable(AudioTrack track) {
+        return false;
+    }
+
+    @Override
+    public void encodeTrack(AudioTrack track, DataOutput output) {
+    }
+
+    @Override
+    public AudioTrack decodeTrack(AudioTrackInfo trackInfo, DataInput input) {
+        return null;
+    }
+
+    @Override
+    public void shutdown() {
+        this.prefetched.clear();
+    }
+
+    private record Prefetch(AudioTrack track, long createdAt) {}
+}
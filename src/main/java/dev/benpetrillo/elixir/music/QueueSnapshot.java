@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.GuildMusicManager;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sedmelluq.discord.lavaplayer.tools.DataFormatTools.readNullableText;
+import static com.sedmelluq.discord.lavaplayer.tools.DataFormatTools.writeNullableText;
+
+/**
+ * The state of a guild's player, saved by a draining process so the next one can carry on where it stopped.
+ *
+ * @param channelId The voice channel the player was connected to.
+ * @param position  How far into the first track playback had got, in milliseconds.
+ * @param loopMode  The loop mode, as a number.
+ * @param volume    The player volume.
+ * @param savedAt   When the snapshot was taken, in epoch milliseconds.
+ * @param tracks    The playing track, if any, followed by the queue.
+ */
+public record QueueSnapshot(String channelId, long position, int loopMode, int volume, long savedAt,
+                            List<TrackHistory.Entry> tracks) {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    public static QueueSnapshot of(AudioPlayerManager manager, GuildMusicManager musicManager, String channelId) {
+        var tracks = new ArrayList<TrackHistory.Entry>();
+        var playing = musicManager.audioPlayer.getPlayingTrack();
+        if (playing != null) tracks.add(TrackHistory.Entry.of(manager, playing));
+        for (var track : musicManager.scheduler.getQueue()) {
+            tracks.add(TrackHistory.Entry.of(manager, track));
+        }
+
+        var scheduler = musicManager.scheduler;
+        return new QueueSnapshot(channelId, playing == null ? 0 : playing.getPosition(),
+            scheduler.repeating.getValue(), musicManager.audioPlayer.getVolume(), System.currentTimeMillis(), tracks);
+    }
+
+    /**
+     * Queues the saved tracks and settings on a player. Tracks which cannot be decoded are skipped.
+     *
+     * @return How many tracks were queued.
+     */
+    public int restore(AudioPlayerManager manager, GuildMusicManager musicManager) {
+        musicManager.audioPlayer.setVolume(this.volume);
+        musicManager.scheduler.repeating = TrackScheduler.LoopMode.fromNumber(this.loopMode);
+
+        var restored = 0;
+        for (var entry : this.tracks) {
+            var track = entry.decode(manager);
+            if (track == null) continue;
+            if (restored == 0 && this.position > 0 && track.isSeekable()) track.setPosition(this.position);
+            musicManager.play(track);
+            restored++;
+        }
+        return restored;
+    }
+
+    public byte[] encode() {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var output = new DataOutputStream(bytes);
+            output.writeByte(FORMAT_VERSION);
+            writeNullableText(output, this.channelId);
+            output.writeLong(this.position);
+            output.writeInt(this.loopMode);
+            output.writeInt(this.volume);
+            output.writeLong(this.savedAt);
+            output.writeInt(this.tracks.size());
+            for (var track : this.tracks) {
+                track.write(output);
+            }
+            return bytes.toByteArray();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * @param data The encoded snapshot, as produced by {@link #encode()}.
+     * @return The snapshot, or null if it cannot be read.
+     */
+    public static QueueSnapshot decode(byte[] data) {
+        try {
+            var input = new DataInputStream(new ByteArrayInputStream(data));
+            if (input.readByte() != FORMAT_VERSION) return null;
+
+            var channelId = readNullableText(input);
+            var position = input.readLong();
+            var loopMode = input.readInt();
+            var volume = input.readInt();
+            var savedAt = input.readLong();
+            var count = input.readInt();
+            var tracks = new ArrayList<TrackHistory.Entry>(count);
+            for (var i = 0; i < count; i++) {
+                tracks.add(TrackHistory.Entry.read(input));
+            }
+            return new QueueSnapshot(channelId, position, loopMode, volume, savedAt, tracks);
+        } catch (IOException exception) {
+            ElixirClient.logger.warn("Discarding unreadable queue snapshot.", exception);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import com.sedmelluq.discord.lavaplayer.player.FunctionalResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.utils.HttpUtil;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.TrackUtil.TrackType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides what happens to a track which fails to play.
+ * Transient failures are retried with exponential backoff, up to a limit. Once retrying is pointless,
+ * the same track is searched for on another source, and only if that fails is the track skipped.
+ * Failures are also counted per source, and a source which keeps failing is skipped for a while.
+ */
+public final class TrackFailurePolicy {
+
+    public static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY = 500;
+    private static final long MAX_DELAY = 8000;
+    /**
+     * How far an alternative's duration may differ from the failed track, as a fraction of it.
+     */
+    private static final double DURATION_TOLERANCE = 0.15;
+
+    private static final Map<TrackType, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Handles a failed track. The scheduler is told to resume with a retry or replacement,
+     * or to skip the track, once a decision has been made.
+     *
+     * @param scheduler The scheduler which was playing the track.
+     * @param track The track which failed.
+     * @param exception The reason it failed.
+     */
+    public static void handle(TrackScheduler scheduler, AudioTrack track, FriendlyException exception) {
+        var source = sourceOf(track);
+        var breaker = breakerFor(source);
+        // Common failures are caused by the track itself, such as a removed or private video, not by its source.
+        if (exception.severity != FriendlyException.Severity.COMMON) breaker.recordFailure();
+
+        var attempt = scheduler.nextAttempt(track);
+        ElixirClient.logger.debug("Track {} failed on attempt {} ({}): {}",
+            track.getInfo().uri, attempt, exception.severity, exception.getMessage());
+
+        // Common failures, such as removed or private videos, will not succeed on a retry.
+        if (exception.severity != FriendlyException.Severity.COMMON && attempt < MAX_ATTEMPTS && breaker.allowsRequest()) {
+            var retry = track.makeClone();
+            retry.setPosition(track.getPosition());
+            CompletableFuture.delayedExecutor(backoff(attempt), TimeUnit.MILLISECONDS, ElixirClient.getExecutor())
+                .execute(() -> scheduler.recover(track, retry));
+            return;
+        }
+
+        scheduler.clearAttempts(track);
+        if (scheduler.isReplacement(track)) {
+            // A replacement is never replaced again, so a track missing everywhere cannot bounce between sources.
+            scheduler.clearReplacement(track);
+            scheduler.recover(track, null);
+            return;
+        }
+        fallback(scheduler, track, source);
+    }
+
+    /**
+     * Records that a track played, closing the breaker of its source.
+     */
+    public static void recordSuccess(AudioTrack track) {
+        var breaker = breakers.get(sourceOf(track));
+        if (breaker != null) breaker.recordSuccess();
+    }
+
+    /**
+     * @return If the source of a track is failing, so the track should not be tried before it recovers.
+     */
+    public static boolean shouldBypass(AudioTrack track) {
+        var breaker = breakers.get(sourceOf(track));
+        return breaker != null && breaker.isRejecting();
+    }
+
+    /**
+     * Looks for a track on another source without trying its own source first.
+     */
+    public static void reroute(TrackScheduler scheduler, AudioTrack track) {
+        fallback(scheduler, track, sourceOf(track));
+    }
+
+    /**
+     * @return The delay before the given attempt is retried, doubling each time.
+     */
+    static long backoff(int attempt) {
+        return Math.min(MAX_DELAY, BASE_DELAY << Math.max(0, attempt - 1));
+    }
+
+    /**
+     * Searches for the failed track on another source: SoundCloud for YouTube tracks, and YouTube Music otherwise.
+     */
+    private static void fallback(TrackScheduler scheduler, AudioTrack track, TrackType source) {
+        var info = track.getInfo();
+        var alternateSource = source == TrackType.YOUTUBE ? TrackType.SOUNDCLOUD : TrackType.YOUTUBE;
+        if (info.title == null || !breakerFor(alternateSource).allowsRequest()) {
+            scheduler.recover(track, null);
+            return;
+        }
+
+        var query = (info.author == null ? "" : info.author + " ") + info.title;
+        var identifier = alternateSource == TrackType.SOUNDCLOUD ? "scsearch:" + query : HttpUtil.searchForVideo(query);
+        ElixirMusicManager.getInstance().getAudioPlayerManager().loadItem(identifier, new FunctionalResultHandler(
+            alternative -> scheduler.recover(track, prepare(scheduler, track, List.of(alternative))),
+            playlist -> scheduler.recover(track, prepare(scheduler, track, playlist.getTracks())),
+            () -> scheduler.recover(track, null),
+            exception -> {
+                if (exception.severity != FriendlyException.Severity.COMMON) breakerFor(alternateSource).recordFailure();
+                scheduler.recover(track, null);
+            }
+        ));
+    }
+
+    /**
+     * Picks the first candidate whose duration is close to the failed track.
+     *
+     * @return The replacement, or null if no candidate is close enough.
+     */
+    private static AudioTrack prepare(TrackScheduler scheduler, AudioTrack failed, List<AudioTrack> candidates) {
+        var length = failed.getInfo().length;
+        for (var candidate : candidates) {
+            if (length > 0 && Math.abs(candidate.getDuration() - length) > length * DURATION_TOLERANCE) continue;
+            candidate.setUserData(failed.getUserData());
+            scheduler.markReplacement(candidate);
+            ElixirClient.logger.debug("Replacing failed track {} with {}.", failed.getInfo().uri, candidate.getInfo().uri);
+            return candidate;
+        }
+        return null;
+    }
+
+    private static TrackType sourceOf(AudioTrack track) {
+        var uri = track.getInfo().uri;
+        return uri == null ? TrackType.UNKNOWN : TrackUtil.determineTrackType(uri);
+    }
+
+    private static CircuitBreaker breakerFor(TrackType source) {
+        return breakers.computeIfAbsent(source, key -> new CircuitBreaker(5,
+            TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(2), TimeUnit.SECONDS.toMillis(30)));
+    }
+}
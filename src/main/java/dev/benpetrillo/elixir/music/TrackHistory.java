@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
+import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.benpetrillo.elixir.ElixirClient;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.sedmelluq.discord.lavaplayer.tools.DataFormatTools.readNullableText;
+import static com.sedmelluq.discord.lavaplayer.tools.DataFormatTools.writeNullableText;
+
+/**
+ * The most recently played tracks of a guild, held in a fixed-size ring buffer.
+ * Tracks are kept in their encoded form, so they can be replayed without being looked up again.
+ */
+public final class TrackHistory {
+
+    public static final int CAPACITY = 50;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final Entry[] entries = new Entry[CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Adds a track to the history, dropping the oldest entry once full.
+     */
+    public synchronized void push(Entry entry) {
+        this.entries[this.head] = entry;
+        this.head = (this.head + 1) % CAPACITY;
+        this.size = Math.min(this.size + 1, CAPACITY);
+    }
+
+    /**
+     * Removes the most recently played track from the history.
+     *
+     * @return The entry, or null if the history is empty.
+     */
+    public synchronized Entry pop() {
+        if (this.size == 0) return null;
+        this.head = (this.head - 1 + CAPACITY) % CAPACITY;
+        var entry = this.entries[this.head];
+        this.entries[this.head] = null;
+        this.size--;
+        return entry;
+    }
+
+    /**
+     * @return Every entry, most recently played first.
+     */
+    public synchronized List<Entry> getEntries() {
+        var snapshot = new ArrayList<Entry>(this.size);
+        for (var i = 1; i <= this.size; i++) {
+            snapshot.add(this.entries[(this.head - i + CAPACITY) % CAPACITY]);
+        }
+        return snapshot;
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Encodes every entry, oldest first, for storage.
+     */
+    public synchronized byte[] encode() {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var output = new DataOutputStream(bytes);
+            output.writeByte(FORMAT_VERSION);
+            output.writeInt(this.size);
+            for (var i = this.size; i >= 1; i--) {
+                this.entries[(this.head - i + CAPACITY) % CAPACITY].write(output);
+            }
+            return bytes.toByteArray();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Restores stored entries behind any tracks played since the guild was loaded.
+     *
+     * @param data The encoded history, as produced by {@link #encode()}.
+     */
+    public synchronized void restore(byte[] data) {
+        if (data == null) return;
+
+        var recent = this.getEntries();
+        try {
+            var input = new DataInputStream(new ByteArrayInputStream(data));
+            if (input.readByte() != FORMAT_VERSION) return;
+
+            var count = input.readInt();
+            var stored = new ArrayList<Entry>(count);
+            for (var i = 0; i < count; i++) {
+                stored.add(Entry.read(input));
+            }
+
+            this.head = 0;
+            this.size = 0;
+            stored.forEach(this::push);
+            for (var i = recent.size() - 1; i >= 0; i--) {
+                this.push(recent.get(i));
+            }
+        } catch (IOException exception) {
+            ElixirClient.logger.warn("Discarding unreadable play history.", exception);
+        }
+    }
+
+    /**
+     * A played track.
+     *
+     * @param requester The ID of the user who requested the track.
+     * @param playedAt  When the track finished playing, in epoch milliseconds.
+     * @param track     The track encoded by its source manager, or null if it cannot be encoded.
+     */
+    public record Entry(String title, String author, long length, String identifier, String uri,
+                        String requester, long playedAt, byte[] track) {
+
+        public static Entry of(AudioPlayerManager manager, AudioTrack track) {
+            var info = track.getInfo();
+            return new Entry(info.title, info.author, info.length, info.identifier, info.uri,
+                track.getUserData(String.class), System.currentTimeMillis(), encodeTrack(manager, track));
+        }
+
+        public AudioTrackInfo toInfo() {
+            return new AudioTrackInfo(this.title, this.author, this.length, this.identifier, false, this.uri);
+        }
+
+        /**
+         * Recreates the played track.
+         *
+         * @return A new track, or null if this entry cannot be decoded.
+         */
+        public AudioTrack decode(AudioPlayerManager manager) {
+            if (this.track == null) return null;
+            try {
+                var holder = manager.decodeTrack(new MessageInput(new ByteArrayInputStream(this.track)));
+                if (holder == null || holder.decodedTrack == null) return null;
+
+                var decoded = holder.decodedTrack;
+                decoded.setUserData(this.requester);
+                return decoded;
+            } catch (IOException | RuntimeException exception) {
+                ElixirClient.logger.debug("Unable to decode history entry: {}", this.uri, exception);
+                return null;
+            }
+        }
+
+        private static byte[] encodeTrack(AudioPlayerManager manager, AudioTrack track) {
+            try {
+                var bytes = new ByteArrayOutputStream();
+                manager.encodeTrack(new MessageOutput(bytes), track);
+                return bytes.toByteArray();
+            } catch (IOException | RuntimeException exception) {
+                // Tracks from sources which do not support encoding are only kept for display.
+                return null;
+            }
+        }
+
+        void write(DataOutput output) throws IOException {
+            writeNullableText(output, this.title);
+            writeNullableText(output, this.author);
+            output.writeLong(this.length);
+            writeNullableText(output, this.identifier);
+            writeNullableText(output, this.uri);
+            writeNullableText(output, this.requester);
+            output.writeLong(this.playedAt);
+            output.writeInt(this.track == null ? -1 : this.track.length);
+            if (this.track != null) output.write(this.track);
+        }
+
+        static Entry read(DataInput input) throws IOException {
+            var title = readNullableText(input);
+            var author = readNullableText(input);
+            var length = input.readLong();
+            var identifier = readNullableText(input);
+            var uri = readNullableText(input);
+            var requester = readNullableText(input);
+            var playedAt = input.readLong();
+            var trackLength = input.readInt();
+            byte[] track = null;
+            if (trackLength >= 0) {
+                track = new byte[trackLength];
+                input.readFully(track);
+            }
+            return new Entry(title, author, length, identifier, uri, requester, playedAt, track);
+        }
+    }
+}
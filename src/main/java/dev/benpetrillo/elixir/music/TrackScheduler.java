@@ -21,7 +21,12 @@ import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
+import dev.benpetrillo.elixir.managers.DrainManager;
 import dev.benpetrillo.elixir.managers.GuildMusicManager;
+import dev.benpetrillo.elixir.managers.HistoryManager;
+import dev.benpetrillo.elixir.metrics.PopularityTracker;
+import dev.benpetrillo.elixir.metrics.TrackTrace;
+import dev.benpetrillo.elixir.search.TrackIndex;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import net.dv8tion.jda.api.entities.Guild;
@@ -30,7 +35,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
 public final class TrackScheduler extends AudioEventAdapter {
@@ -41,6 +49,12 @@ public final class TrackScheduler extends AudioEventAdapter {
     public final Guild guild;
     private final GuildMusicManager manager;
     public LoopMode repeating = LoopMode.NONE;
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    /**
+     * The tracks playing in place of a failed one, which are skipped instead of replaced again if they fail.
+     */
+    private final Set<String> replacements = ConcurrentHashMap.newKeySet();
+    private volatile AudioTrack recovering;
 
     public TrackScheduler(GuildMusicManager manager) {
         this.manager = manager;
@@ -85,7 +99,64 @@ public final class TrackScheduler extends AudioEventAdapter {
                 this.queue.add(player.getPlayingTrack().makeClone());
             this.player.stopTrack();
         }
-        this.player.startTrack(queue.poll(), false);
+        final AudioTrack next = this.queue.poll();
+        if (next != null && TrackFailurePolicy.shouldBypass(next)) {
+            // The source of this track keeps failing, so an alternative is looked for straight away.
+            this.recovering = next;
+            TrackFailurePolicy.reroute(this, next);
+            return;
+        }
+        this.player.startTrack(next, false);
+    }
+
+    /**
+     * Continues after a failed track, with a retry or a replacement, or by skipping it if there is neither.
+     * Nothing happens if playback has moved on since the track failed.
+     *
+     * @param failed The track which failed.
+     * @param replacement The track to play instead, or null to skip.
+     */
+    void recover(AudioTrack failed, AudioTrack replacement) {
+        final AudioTrack playing = this.player.getPlayingTrack();
+        final boolean current = this.recovering == failed;
+        if (current) this.recovering = null;
+        if (!current || (playing != null && playing != failed)) {
+            // The replacement will not be played, so it is no longer tracked.
+            if (replacement != null) this.clearReplacement(replacement);
+            return;
+        }
+
+        if (replacement != null) {
+            this.player.startTrack(replacement, false);
+        } else {
+            this.nextTrack();
+        }
+    }
+
+    /**
+     * @return How many times the track has now failed.
+     */
+    int nextAttempt(AudioTrack track) {
+        return this.attempts.merge(keyOf(track), 1, Integer::sum);
+    }
+
+    void clearAttempts(AudioTrack track) {
+        this.attempts.remove(keyOf(track));
+    }
+
+    void markReplacement(AudioTrack track) {
+        this.replacements.add(keyOf(track));
+    }
+
+    /**
+     * @return Whether the track was found on another source to replace a failed one.
+     */
+    boolean isReplacement(AudioTrack track) {
+        return this.replacements.contains(keyOf(track));
+    }
+
+    void clearReplacement(AudioTrack track) {
+        this.replacements.remove(keyOf(track));
     }
 
     /**
@@ -98,11 +169,36 @@ public final class TrackScheduler extends AudioEventAdapter {
         this.queue.addAll(tracks);
     }
 
+    @Override
+    public void onTrackStart(AudioPlayer player, AudioTrack track) {
+        TrackTrace.mark(track, TrackTrace.Stage.STARTED);
+        // Played tracks become searchable locally, so asking for them again skips the remote search.
+        TrackIndex.getInstance().add(track.getInfo());
+        PopularityTracker.getInstance().record(track.getInfo());
+    }
+
     @Override
     public void onTrackEnd(AudioPlayer player, AudioTrack track, AudioTrackEndReason endReason) {
+        TrackTrace.abandon(track, endReason == AudioTrackEndReason.LOAD_FAILED ? "failed" : "ended");
+        // Failed tracks are always reported to onTrackException first, and the failure policy decides what plays next.
+        if (endReason == AudioTrackEndReason.LOAD_FAILED) return;
+        this.clearReplacement(track);
+        // A track which produced audio shows its source works, even if it was skipped or replaced.
+        if (track.getPosition() > 0) {
+            TrackFailurePolicy.recordSuccess(track);
+        }
+        if (endReason == AudioTrackEndReason.FINISHED) {
+            this.clearAttempts(track);
+        }
+        // Replaced tracks are left out, so going back through history does not record the track it interrupts.
+        if (endReason == AudioTrackEndReason.FINISHED || endReason == AudioTrackEndReason.STOPPED) {
+            HistoryManager.record(this.manager, track);
+        }
         if (this.queue.isEmpty() && this.repeating == LoopMode.NONE) {
             this.player.destroy();
         }
+        // While draining, the rest of the queue is saved for the next process instead of being started here.
+        if (endReason.mayStartNext && DrainManager.isDraining()) return;
         if (endReason.mayStartNext) {
             if (this.repeating == LoopMode.TRACK) {
                 this.player.startTrack(track.makeClone(), false);
@@ -116,10 +212,13 @@ public final class TrackScheduler extends AudioEventAdapter {
 
     @Override
     public void onTrackException(AudioPlayer player, AudioTrack track, FriendlyException exception) {
-        final Throwable error = exception.getCause();
-        if (error instanceof RuntimeException && error.getMessage().contains("403")) {
-            this.player.startTrack(track.makeClone(), false);
-        }
+        this.recovering = track;
+        TrackFailurePolicy.handle(this, track, exception);
+    }
+
+    private static String keyOf(AudioTrack track) {
+        final String uri = track.getInfo().uri;
+        return uri != null ? uri : track.getIdentifier();
     }
 
     @Getter
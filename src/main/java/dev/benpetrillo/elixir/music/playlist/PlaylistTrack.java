@@ -26,8 +26,6 @@ import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
 import dev.benpetrillo.elixir.music.spotify.SpotifySourceManager;
 import dev.benpetrillo.elixir.music.spotify.SpotifyTrack;
 import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
-import dev.benpetrillo.elixir.utils.TrackUtil;
-import dev.benpetrillo.elixir.utils.Utilities;
 import dev.lavalink.youtube.YoutubeAudioSourceManager;
 import dev.lavalink.youtube.track.YoutubeAudioTrack;
 
@@ -41,11 +39,7 @@ public final class PlaylistTrack extends DelegatedAudioTrack {
     public PlaylistTrack(String title, CustomPlaylistTrack from, AudioSourceManager sourceManager) {
         super(new AudioTrackInfo(
             title, from.artist, from.duration,
-            switch (TrackUtil.determineTrackType(from.url)) {
-                default -> from.url;
-                case YOUTUBE -> Utilities.extractVideoId(from.url);
-                case SPOTIFY -> Utilities.extractSongId(from.url);
-            }, false, from.url
+            PlaylistTrack.identifierOf(from), false, from.url
         ));
         this.isrc = from.isrc;
         this.sourceManager = sourceManager;
@@ -56,7 +50,7 @@ public final class PlaylistTrack extends DelegatedAudioTrack {
     @Override
     public void process(LocalAudioTrackExecutor executor) throws Exception {
         DelegatedAudioTrack track = null;
-        switch (TrackUtil.determineTrackType(this.getInfo().uri)) {
+        switch (this.trackObject.type) {
             case YOUTUBE -> {
                 track = new YoutubeAudioTrack(
                     this.trackInfo, (YoutubeAudioSourceManager) this.sourceManager
@@ -79,6 +73,11 @@ public final class PlaylistTrack extends DelegatedAudioTrack {
         if (track != null) track.process(executor);
     }
 
+    private static String identifierOf(CustomPlaylistTrack track) {
+        track.ensureSource();
+        return track.identifier;
+    }
+
     @Override
     public long getDuration() {
         return this.length;
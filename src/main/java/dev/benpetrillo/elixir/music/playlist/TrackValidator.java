@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music.playlist;
+
+import com.sedmelluq.discord.lavaplayer.player.FunctionalResultHandler;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.managers.TaskScheduler;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.HttpUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks that catalog tracks can still be loaded from their source.
+ * Tracks which cannot are marked unavailable, and a matching alternative is searched for,
+ * so playlists can skip or replace them instead of failing mid-queue.
+ */
+public final class TrackValidator {
+
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    private static final long REVALIDATE_AFTER = TimeUnit.DAYS.toMillis(7);
+    private static final long LOAD_TIMEOUT = TimeUnit.SECONDS.toMillis(20);
+    /**
+     * The pause between starting two checks, to stay well clear of source rate limits.
+     */
+    private static final long THROTTLE = 500;
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_CONCURRENT = 2;
+    /**
+     * How far an alternative's duration may differ from the original, as a fraction of it.
+     */
+    private static final double DURATION_TOLERANCE = 0.1;
+
+    /**
+     * Starts revalidating tracks in the background.
+     */
+    public static void schedule() {
+        TaskScheduler.scheduleBlocking("catalog.revalidate", INTERVAL, INTERVAL,
+            TimeUnit.MILLISECONDS, TrackValidator::revalidate);
+    }
+
+    /**
+     * Revalidates one batch of the tracks which are due, blocking until it is done.
+     */
+    private static void revalidate() {
+        var repository = DatabaseManager.getTrackCatalogRepository();
+        if (repository == null) return;
+
+        var checkedBefore = System.currentTimeMillis() - REVALIDATE_AFTER;
+        var tracks = DatabaseManager.submit("catalog.stale", () -> repository.findStale(checkedBefore, BATCH_SIZE)).join();
+        if (tracks.isEmpty()) return;
+
+        var permits = new Semaphore(MAX_CONCURRENT);
+        var checks = new ArrayList<CompletableFuture<Void>>(tracks.size());
+        try {
+            for (var track : tracks) {
+                permits.acquire();
+                checks.add(validate(track).whenComplete((result, error) -> permits.release()));
+                Thread.sleep(THROTTLE);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).join();
+
+        var unavailable = tracks.stream().filter(track -> track.unavailable).count();
+        DatabaseManager.execute("catalog.revalidate", () -> repository.saveAll(tracks)).join();
+        ElixirClient.logger.debug("Revalidated {} tracks; {} are unavailable.", tracks.size(), unavailable);
+    }
+
+    private static CompletableFuture<Void> validate(CustomPlaylistTrack track) {
+        return load(track.url).thenCompose(result -> {
+            return switch (result.status) {
+                case AVAILABLE -> {
+                    track.checkedAt = System.currentTimeMillis();
+                    track.unavailable = false;
+                    track.alternative = null;
+                    yield CompletableFuture.<Void>completedFuture(null);
+                }
+                case UNAVAILABLE -> {
+                    track.checkedAt = System.currentTimeMillis();
+                    track.unavailable = true;
+                    yield findAlternative(track).thenAccept(alternative -> track.alternative = alternative);
+                }
+                // Transient failures say nothing about the track, so its state is left alone and it is checked again next run.
+                case UNKNOWN -> CompletableFuture.<Void>completedFuture(null);
+            };
+        });
+    }
+
+    /**
+     * Searches for a track with the same title, artist and roughly the same duration.
+     *
+     * @return The URL of the alternative, or null if none matched.
+     */
+    private static CompletableFuture<String> findAlternative(CustomPlaylistTrack track) {
+        return load(HttpUtil.searchForVideo(track.artist + " " + track.title)).thenApply(result -> {
+            for (var candidate : result.tracks) {
+                var difference = Math.abs(candidate.getDuration() - track.duration);
+                if (difference <= track.duration * DURATION_TOLERANCE && !candidate.getInfo().uri.equals(track.url)) {
+                    return candidate.getInfo().uri;
+                }
+            }
+            return null;
+        });
+    }
+
+    private static CompletableFuture<LoadResult> load(String identifier) {
+        var future = new CompletableFuture<LoadResult>();
+        ElixirMusicManager.getInstance().getAudioPlayerManager().loadItem(identifier, new FunctionalResultHandler(
+            track -> future.complete(new LoadResult(Status.AVAILABLE, List.of(track))),
+            playlist -> future.complete(playlist.getTracks().isEmpty() ?
+                new LoadResult(Status.UNAVAILABLE, List.of()) :
+                new LoadResult(Status.AVAILABLE, playlist.getTracks())),
+            () -> future.complete(new LoadResult(Status.UNAVAILABLE, List.of())),
+            exception -> future.complete(new LoadResult(
+                exception.severity == FriendlyException.Severity.COMMON ? Status.UNAVAILABLE : Status.UNKNOWN, List.of()))
+        ));
+        return future.completeOnTimeout(new LoadResult(Status.UNKNOWN, List.of()), LOAD_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    private enum Status {
+        AVAILABLE,
+        UNAVAILABLE,
+        UNKNOWN
+    }
+
+    private record LoadResult(Status status, List<AudioTrack> tracks) {}
+}
@@ -22,12 +22,14 @@ import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.track.*;
 import dev.benpetrillo.elixir.Config;
 import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.metrics.Metrics;
 import org.apache.hc.core5.http.ParseException;
 import se.michaelthelin.spotify.SpotifyApi;
 import se.michaelthelin.spotify.enums.ModelObjectType;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.credentials.ClientCredentials;
 import se.michaelthelin.spotify.model_objects.specification.*;
+import se.michaelthelin.spotify.requests.IRequest;
 import se.michaelthelin.spotify.requests.authorization.client_credentials.ClientCredentialsRequest;
 
 import java.io.DataInput;
@@ -70,7 +72,7 @@ public final class SpotifySourceManager implements AudioSourceManager {
             .build();
         final ClientCredentialsRequest.Builder credRequest =
             new ClientCredentialsRequest.Builder(spotify.getClientId(), spotify.getClientSecret());
-        final ClientCredentials credentials = credRequest.grant_type("client_credentials").build().execute();
+        final ClientCredentials credentials = execute(credRequest.grant_type("client_credentials").build());
         spotify.setAccessToken(credentials.getAccessToken());
         ElixirClient.logger.info("Successfully updated Spotify OAuth access token.");
     }
@@ -79,6 +81,19 @@ public final class SpotifySourceManager implements AudioSourceManager {
         return spotify;
     }
 
+    /**
+     * Executes a Spotify API request, counting it and any error for metrics.
+     */
+    public static <T> T execute(IRequest<T> request) throws IOException, ParseException, SpotifyWebApiException {
+        Metrics.counter("elixir_api_requests_total", "api", "spotify").increment();
+        try {
+            return request.execute();
+        } catch (IOException | ParseException | SpotifyWebApiException | RuntimeException exception) {
+            Metrics.counter("elixir_api_errors_total", "api", "spotify").increment();
+            throw exception;
+        }
+    }
+
     public AudioSourceManager getSearchSourceManager() {
         return this.searchAudioSourceManager;
     }
@@ -149,7 +164,7 @@ public final class SpotifySourceManager implements AudioSourceManager {
     }
 
     public AudioItem getSearch(String query) throws IOException, ParseException, SpotifyWebApiException {
-        final Paging<Track> searchResult = spotify.searchTracks(query).build().execute();
+        final Paging<Track> searchResult = execute(spotify.searchTracks(query).build());
         if (searchResult.getItems().length == 0) {
             return AudioReference.NO_TRACK;
         }
@@ -161,16 +176,16 @@ public final class SpotifySourceManager implements AudioSourceManager {
     }
 
     public AudioItem getTrack(String id) throws IOException, ParseException, SpotifyWebApiException {
-        final Track track = spotify.getTrack(id).build().execute();
+        final Track track = execute(spotify.getTrack(id).build());
         return SpotifyTrack.of(track, this);
     }
 
     public AudioItem getAlbum(String id) throws IOException, ParseException, SpotifyWebApiException {
-        final Album album = spotify.getAlbum(id).build().execute();
+        final Album album = execute(spotify.getAlbum(id).build());
         var tracks = new ArrayList<AudioTrack>();
         Paging<TrackSimplified> paging = null;
         do {
-            paging = spotify.getAlbumsTracks(id).limit(50).offset(paging == null ? 0 : paging.getOffset() + 50).build().execute();
+            paging = execute(spotify.getAlbumsTracks(id).limit(50).offset(paging == null ? 0 : paging.getOffset() + 50).build());
             for (var item : paging.getItems()) {
                 if (item.getType() != ModelObjectType.TRACK) {
                     continue;
@@ -183,11 +198,11 @@ public final class SpotifySourceManager implements AudioSourceManager {
     }
 
     public AudioItem getPlaylist(String id) throws IOException, SpotifyWebApiException, ParseException, NullPointerException {
-        final Playlist playlist = spotify.getPlaylist(id).build().execute();
+        final Playlist playlist = execute(spotify.getPlaylist(id).build());
         var tracks = new ArrayList<AudioTrack>();
         Paging<PlaylistTrack> paging = null;
         do {
-            paging = spotify.getPlaylistsItems(id).limit(50).offset(paging == null ? 0 : paging.getOffset() + 50).build().execute();
+            paging = execute(spotify.getPlaylistsItems(id).limit(50).offset(paging == null ? 0 : paging.getOffset() + 50).build());
             for (var item : paging.getItems()) {
                 if (item.getIsLocal() || item.getTrack().getType() != ModelObjectType.TRACK) {
                     continue;
@@ -200,8 +215,8 @@ public final class SpotifySourceManager implements AudioSourceManager {
     }
 
     public AudioItem getArtist(String id) throws IOException, ParseException, SpotifyWebApiException {
-        final Artist artist = spotify.getArtist(id).build().execute();
-        final Track[] artistTracks = spotify.getArtistsTopTracks(id, CountryCode.US).build().execute();
+        final Artist artist = execute(spotify.getArtist(id).build());
+        final Track[] artistTracks = execute(spotify.getArtistsTopTracks(id, CountryCode.US).build());
         var tracks = new ArrayList<AudioTrack>();
         for (var item : artistTracks) {
             if (item.getType() != ModelObjectType.TRACK) continue;
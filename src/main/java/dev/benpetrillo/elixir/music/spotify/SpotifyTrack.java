@@ -20,6 +20,7 @@ import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.track.*;
 import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
 import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.metrics.TrackTrace;
 import dev.benpetrillo.elixir.utils.HttpUtil;
 import lombok.Getter;
 import se.michaelthelin.spotify.model_objects.specification.*;
@@ -70,6 +71,7 @@ public final class SpotifyTrack extends DelegatedAudioTrack {
 
     @Override
     public void process(LocalAudioTrackExecutor executor) throws Exception {
+        TrackTrace.mark(this, TrackTrace.Stage.RESOLVE_STARTED);
         AudioItem track = null;
         if (this.isrc != null) {
             track = this.spotifySourceManager.getSearchSourceManager()
@@ -88,6 +90,7 @@ public final class SpotifyTrack extends DelegatedAudioTrack {
             track = audioPlaylist.getTracks().get(0);
         }
         if (track instanceof InternalAudioTrack internalAudioTrack) {
+            TrackTrace.mark(this, TrackTrace.Stage.RESOLVED);
             processDelegate(internalAudioTrack, executor);
             return;
         }
@@ -17,20 +17,18 @@
 package dev.benpetrillo.elixir.objects;
 
 import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.TaskScheduler;
 import dev.benpetrillo.elixir.music.spotify.SpotifySourceManager;
 import org.apache.hc.core5.http.ParseException;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 
 import java.io.IOException;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 
-public final class OAuthUpdateTask extends TimerTask {
+public final class OAuthUpdateTask implements Runnable {
 
     public static void schedule() {
-        var delay = TimeUnit.MINUTES.toMillis(45);
-        new Timer().schedule(new OAuthUpdateTask(), delay, delay);
+        TaskScheduler.schedule("spotify.token-refresh", 45, 45, TimeUnit.MINUTES, new OAuthUpdateTask());
     }
 
     @Override
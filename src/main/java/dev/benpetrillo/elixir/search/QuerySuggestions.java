@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.search;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * A prefix trie of the search queries users have played, used to suggest queries as they type.
+ * Every node caches its best completions, so a lookup only walks the prefix.
+ */
+public final class QuerySuggestions {
+
+    @Getter
+    private static final QuerySuggestions instance = new QuerySuggestions();
+
+    /**
+     * The most choices Discord accepts in an autocomplete response.
+     */
+    public static final int MAX_SUGGESTIONS = 25;
+    /**
+     * The longest value Discord accepts for an autocomplete choice.
+     */
+    private static final int MAX_QUERY_LENGTH = 100;
+    static final int MAX_QUERIES = 10_000;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Records that a query was played.
+     *
+     * @param query The query, as the user typed it.
+     */
+    public synchronized void record(String query) {
+        var key = normalize(query);
+        if (key.isEmpty() || query.length() > MAX_QUERY_LENGTH) return;
+
+        var entry = this.entries.get(key);
+        if (entry == null) {
+            if (this.entries.size() >= MAX_QUERIES) this.evict();
+            entry = new Entry(query.trim());
+            this.entries.put(key, entry);
+        }
+        entry.uses++;
+        entry.lastUsed = System.currentTimeMillis();
+
+        // An entry's rank only ever grows, and only when it is recorded,
+        // so re-offering it along its own path keeps every cached list ordered.
+        var node = this.root;
+        node.offer(entry);
+        for (var i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            node.offer(entry);
+        }
+    }
+
+    /**
+     * Suggests previously played queries starting with a prefix.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions.
+     * @return The suggested queries, most popular and recent first.
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        var key = normalize(prefix);
+        var node = this.root;
+        for (var i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) return List.of();
+
+        var suggestions = new ArrayList<String>(Math.min(limit, node.best.size()));
+        for (var entry : node.best) {
+            if (suggestions.size() >= limit) break;
+            suggestions.add(entry.query);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Forgets the lowest ranked query to make room for a new one.
+     * Being ranked below every other query, it can only be cached where no other query displaced it,
+     * so removing it leaves every cached list complete.
+     */
+    private void evict() {
+        var lowest = Collections.min(this.entries.entrySet(),
+            Comparator.comparingDouble(candidate -> candidate.getValue().rank()));
+        var key = lowest.getKey();
+        this.entries.remove(key);
+
+        var path = new ArrayList<Node>(key.length() + 1);
+        var node = this.root;
+        path.add(node);
+        for (var i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+            if (node != null) path.add(node);
+        }
+        for (var i = path.size() - 1; i >= 0; i--) {
+            path.get(i).best.remove(lowest.getValue());
+            // A node with nothing cached has no queries below it.
+            if (i > 0 && path.get(i).best.isEmpty()) path.get(i - 1).children.remove(key.charAt(i - 1));
+        }
+    }
+
+    private static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final String query;
+        private int uses;
+        private long lastUsed;
+
+        Entry(String query) {
+            this.query = query;
+        }
+
+        /**
+         * Each use is worth as much as a day of recency.
+         */
+        double rank() {
+            return this.uses + this.lastUsed / MILLIS_PER_DAY;
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Entry> best = new ArrayList<>(MAX_SUGGESTIONS + 1);
+
+        void offer(Entry entry) {
+            if (!this.best.contains(entry)) this.best.add(entry);
+            this.best.sort(Comparator.comparingDouble(Entry::rank).reversed());
+            if (this.best.size() > MAX_SUGGESTIONS) this.best.remove(MAX_SUGGESTIONS);
+        }
+    }
+}
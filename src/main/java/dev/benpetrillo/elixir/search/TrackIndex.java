@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.search;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import lombok.Getter;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory inverted index over the titles and artists of tracks Elixir already knows about,
+ * so that search queries can be answered without a round trip to YouTube.
+ */
+public final class TrackIndex {
+
+    @Getter
+    private static final TrackIndex instance = new TrackIndex();
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    /**
+     * Words which commonly pad video titles but say nothing about the track itself.
+     */
+    private static final Set<String> NOISE_WORDS = Set.of(
+        "official", "video", "audio", "lyrics", "lyric", "music", "hd", "hq", "4k",
+        "ft", "feat", "remastered", "visualizer", "the", "a", "of"
+    );
+    /**
+     * The most candidate tokens a single query token may expand to through prefix matching.
+     */
+    private static final int MAX_PREFIX_EXPANSION = 64;
+    /**
+     * The most tracks held at once. The least recently added or played tracks are dropped first.
+     */
+    static final int MAX_ENTRIES = 100_000;
+
+    private static final double EXACT_WEIGHT = 1.0, PREFIX_WEIGHT = 0.75, FUZZY_WEIGHT = 0.5;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final NavigableSet<String> tokens = new ConcurrentSkipListSet<>();
+    /**
+     * Every indexed track ID, least recently used first. Also guards every change to the index.
+     */
+    private final LinkedHashMap<String, Boolean> recency = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Loads every track in the catalog, and every track stored inline in a playlist, into the index.
+     * Both are streamed, so neither is held in memory as a whole.
+     *
+     * @return A future completed once the index is loaded.
+     */
+    public CompletableFuture<Void> warmup() {
+        return DatabaseManager.execute("index.warmup", () -> {
+            var start = System.nanoTime();
+            DatabaseManager.getTrackCatalogRepository().forEach(this::add);
+            DatabaseManager.getPlaylistRepository().forEach(playlist -> {
+                if (playlist.tracks != null) playlist.tracks.forEach(this::add);
+            });
+            ElixirClient.logger.info("Indexed {} known tracks in {}ms.",
+                this.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Adds a stored track to the index.
+     *
+     * @param track The track to add.
+     */
+    public void add(CustomPlaylistTrack track) {
+        if (track.url == null || track.title == null) return;
+        var trackId = track.id != null ? track.id : TrackUtil.getCanonicalId(track.url);
+        this.add(trackId, track.title, track.artist, track.url);
+    }
+
+    /**
+     * Adds a loaded or played track to the index.
+     *
+     * @param info The info of the track to add.
+     */
+    public void add(AudioTrackInfo info) {
+        if (info.uri == null || info.title == null) return;
+        var url = CustomPlaylist.CustomPlaylistTrack.canonicalUrl(info.uri);
+        this.add(TrackUtil.getCanonicalId(url), info.title, info.author, url);
+    }
+
+    private void add(String trackId, String title, String artist, String url) {
+        var titleTokens = tokenize(title);
+        var allTokens = tokensOf(title, artist);
+        if (allTokens.isEmpty()) return;
+
+        synchronized (this.recency) {
+            if (this.recency.get(trackId) != null) return;
+
+            this.entries.put(trackId, new Entry(trackId, title, artist, url, significantCount(titleTokens)));
+            this.recency.put(trackId, Boolean.TRUE);
+            for (var token : allTokens) {
+                this.postings.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(trackId);
+                this.tokens.add(token);
+            }
+            if (this.recency.size() > MAX_ENTRIES) this.evictEldest();
+        }
+    }
+
+    /**
+     * Drops the least recently used track, along with any word no other track uses.
+     */
+    private void evictEldest() {
+        var iterator = this.recency.keySet().iterator();
+        var trackId = iterator.next();
+        iterator.remove();
+
+        var entry = this.entries.remove(trackId);
+        if (entry == null) return;
+        for (var token : tokensOf(entry.title(), entry.artist())) {
+            var trackIds = this.postings.computeIfPresent(token, (k, ids) -> {
+                ids.remove(trackId);
+                return ids.isEmpty() ? null : ids;
+            });
+            if (trackIds == null) this.tokens.remove(token);
+        }
+    }
+
+    /**
+     * @return The number of tracks in the index.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Searches the index. Every word of the query must match a word of the track's title or artist,
+     * either exactly, as a prefix, or with a small typo.
+     *
+     * @param query The search query.
+     * @param limit The maximum number of results.
+     * @return The matching tracks, best first.
+     */
+    public List<Match> search(String query, int limit) {
+        var queryTokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTokens.isEmpty()) return List.of();
+
+        var expansions = new ArrayList<Map<String, Double>>(queryTokens.size());
+        for (var token : queryTokens) {
+            var expansion = this.expand(token);
+            if (expansion.isEmpty()) return List.of();
+            expansions.add(expansion);
+        }
+        // Start with the rarest word, so the candidate set is as small as possible.
+        expansions.sort(Comparator.comparingInt(this::postingCount));
+
+        Map<String, Double> scores = null;
+        for (var expansion : expansions) {
+            var tokenScores = new HashMap<String, Double>();
+            for (var candidate : expansion.entrySet()) {
+                var trackIds = this.postings.getOrDefault(candidate.getKey(), Set.of());
+                for (var trackId : trackIds) {
+                    if (scores != null && !scores.containsKey(trackId)) continue;
+                    tokenScores.merge(trackId, candidate.getValue(), Math::max);
+                }
+            }
+            if (scores != null) {
+                for (var score : tokenScores.entrySet()) score.setValue(score.getValue() + scores.get(score.getKey()));
+            }
+            scores = tokenScores;
+            if (scores.isEmpty()) return List.of();
+        }
+
+        var matches = new ArrayList<Match>(scores.size());
+        for (var score : scores.entrySet()) {
+            var entry = this.entries.get(score.getKey());
+            if (entry == null) continue;
+            // Prefer tracks whose title is mostly covered by the query.
+            var coverage = Math.min(1.0, (double) queryTokens.size() / Math.max(1, entry.significantTokens()));
+            matches.add(new Match(entry.trackId(), entry.title(), entry.artist(), entry.url(),
+                score.getValue() / queryTokens.size(), coverage));
+        }
+        matches.sort(Comparator.comparingDouble(Match::rank).reversed());
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Finds a single track which confidently answers a search query.
+     *
+     * @param query The search query.
+     * @return The best match, or null if there is no confident match and a remote search should be used.
+     */
+    public Match findBestMatch(String query) {
+        var matches = this.search(query, 2);
+        if (matches.isEmpty()) return null;
+
+        var best = matches.get(0);
+        // Short or vague queries should still go to a real search engine.
+        if (best.score() < PREFIX_WEIGHT || best.coverage() < 0.5) return null;
+        if (matches.size() > 1 && matches.get(1).rank() >= best.rank()) return null;
+        return best;
+    }
+
+    private int postingCount(Map<String, Double> expansion) {
+        var count = 0;
+        for (var token : expansion.keySet()) count += this.postings.getOrDefault(token, Set.of()).size();
+        return count;
+    }
+
+    /**
+     * Finds the indexed words a query word could refer to.
+     *
+     * @param token The query word.
+     * @return The matching indexed words, with their weight.
+     */
+    private Map<String, Double> expand(String token) {
+        var expansion = new HashMap<String, Double>();
+        if (this.postings.containsKey(token)) expansion.put(token, EXACT_WEIGHT);
+
+        for (var candidate : this.tokens.subSet(token, false, token + Character.MAX_VALUE, false)) {
+            if (expansion.size() >= MAX_PREFIX_EXPANSION) break;
+            expansion.put(candidate, PREFIX_WEIGHT);
+        }
+
+        if (expansion.isEmpty() && token.length() >= 4) {
+            // Typos are rarely in the first letter, so only words sharing it are compared.
+            var maxDistance = token.length() >= 8 ? 2 : 1;
+            var first = token.substring(0, 1);
+            for (var candidate : this.tokens.subSet(first, true, first + Character.MAX_VALUE, false)) {
+                if (Math.abs(candidate.length() - token.length()) > maxDistance) continue;
+                if (distance(token, candidate, maxDistance) <= maxDistance) expansion.put(candidate, FUZZY_WEIGHT);
+            }
+        }
+        return expansion;
+    }
+
+    /**
+     * Splits text into lowercase words, with accents removed.
+     *
+     * @param text The text to split.
+     * @return The words in the text.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) return List.of();
+        var normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        var words = new ArrayList<String>();
+        for (var word : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    private static Set<String> tokensOf(String title, String artist) {
+        var words = new HashSet<>(tokenize(title));
+        if (artist != null) words.addAll(tokenize(artist));
+        return words;
+    }
+
+    private static int significantCount(List<String> words) {
+        var count = 0;
+        for (var word : new HashSet<>(words)) {
+            if (!NOISE_WORDS.contains(word)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, giving up once it exceeds a limit.
+     */
+    private static int distance(String a, String b, int limit) {
+        var previous = new int[b.length() + 1];
+        var current = new int[b.length() + 1];
+        for (var j = 0; j <= b.length(); j++) previous[j] = j;
+
+        for (var i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            var rowMin = current[0];
+            for (var j = 1; j <= b.length(); j++) {
+                var cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) return rowMin;
+
+            var swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private record Entry(String trackId, String title, String artist, String url, int significantTokens) {
+    }
+
+    /**
+     * A search result.
+     *
+     * @param score    How closely the query words matched, between 0 and 1.
+     * @param coverage How much of the track's title the query covered, between 0 and 1.
+     */
+    public record Match(String trackId, String title, String artist, String url, double score, double coverage) {
+
+        double rank() {
+            return this.score * this.coverage;
+        }
+    }
+}
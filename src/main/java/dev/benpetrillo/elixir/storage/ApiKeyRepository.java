@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+/**
+ * Persistent storage for REST API keys.
+ */
+public interface ApiKeyRepository {
+
+    /**
+     * Stores a new API key for a user in a guild.
+     */
+    void insert(String userId, String guildId, String apiKey, long createdAt);
+
+    /**
+     * @return If the user has an API key for the guild.
+     */
+    boolean exists(String userId, String guildId);
+
+    /**
+     * @return If the API key belongs to the user in the guild.
+     */
+    boolean matches(String userId, String guildId, String apiKey);
+}
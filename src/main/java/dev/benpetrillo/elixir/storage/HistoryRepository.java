@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import java.util.Map;
+
+/**
+ * Persistent storage for per-guild play history.
+ * Each guild's history is stored as a single encoded blob.
+ */
+public interface HistoryRepository {
+
+    /**
+     * @param guildId The guild to look up.
+     * @return The encoded history, or null if the guild has none.
+     */
+    byte[] find(String guildId);
+
+    /**
+     * Stores the histories of many guilds in a single batch.
+     *
+     * @param histories The encoded histories, keyed by guild ID.
+     */
+    void saveAll(Map<String, byte[]> histories);
+}
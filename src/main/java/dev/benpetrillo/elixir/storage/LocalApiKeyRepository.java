@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.utils.Utilities;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stores API keys in a {@link LocalStore}, keyed by user and guild.
+ */
+public final class LocalApiKeyRepository implements ApiKeyRepository {
+
+    private final LocalStore store;
+
+    public LocalApiKeyRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void insert(String userId, String guildId, String apiKey, long createdAt) {
+        var entry = new Entry();
+        entry.apiKey = apiKey;
+        entry.createdAt = createdAt;
+        this.store.put(key(userId, guildId), Utilities.serialize(entry).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean exists(String userId, String guildId) {
+        return this.store.contains(key(userId, guildId));
+    }
+
+    @Override
+    public boolean matches(String userId, String guildId, String apiKey) {
+        var data = this.store.get(key(userId, guildId));
+        if (data == null) return false;
+        var entry = Utilities.deserialize(new String(data, StandardCharsets.UTF_8), Entry.class);
+        return entry.apiKey.equals(apiKey);
+    }
+
+    private static String key(String userId, String guildId) {
+        return userId + ":" + guildId;
+    }
+
+    private static final class Entry {
+        public String apiKey;
+        public long createdAt;
+    }
+}
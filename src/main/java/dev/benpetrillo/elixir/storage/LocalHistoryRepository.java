@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import java.util.Map;
+
+/**
+ * Stores play history in a {@link LocalStore}, keyed by guild ID.
+ */
+public final class LocalHistoryRepository implements HistoryRepository {
+
+    private final LocalStore store;
+
+    public LocalHistoryRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public byte[] find(String guildId) {
+        return this.store.get(guildId);
+    }
+
+    @Override
+    public void saveAll(Map<String, byte[]> histories) {
+        histories.forEach(this.store::put);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stores playlists in a {@link LocalStore}, keyed by playlist ID.
+ */
+public final class LocalPlaylistRepository implements PlaylistRepository {
+
+    private final LocalStore store;
+
+    public LocalPlaylistRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public CustomPlaylist find(String playlistId) {
+        var data = this.store.get(playlistId);
+        return data == null ? null : decode(data);
+    }
+
+    @Override
+    public List<CustomPlaylist> findAll() {
+        var playlists = new ArrayList<CustomPlaylist>();
+        for (var data : this.store.values()) {
+            playlists.add(decode(data));
+        }
+        return playlists;
+    }
+
+    @Override
+    public void forEach(Consumer<CustomPlaylist> action) {
+        this.store.forEachValue(data -> action.accept(decode(data)));
+    }
+
+    @Override
+    public boolean insert(CustomPlaylist playlist) {
+        return this.store.putIfAbsent(playlist.info.id, encode(playlist));
+    }
+
+    @Override
+    public boolean update(CustomPlaylist playlist) {
+        var expected = playlist.version;
+        playlist.version = expected + 1;
+        if (this.store.replaceIf(playlist.info.id, current -> PlaylistCodec.readVersion(current) == expected, encode(playlist))) {
+            return true;
+        }
+        playlist.version = expected;
+        return false;
+    }
+
+    @Override
+    public void delete(String playlistId) {
+        this.store.remove(playlistId);
+    }
+
+    private static byte[] encode(CustomPlaylist playlist) {
+        return PlaylistCodec.encode(playlist);
+    }
+
+    private static CustomPlaylist decode(byte[] data) {
+        return PlaylistCodec.decode(data);
+    }
+}
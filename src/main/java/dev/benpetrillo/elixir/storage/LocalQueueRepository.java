@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores handed-off queues in a {@link LocalStore}, keyed by guild ID.
+ */
+public final class LocalQueueRepository implements QueueRepository {
+
+    private final LocalStore store;
+
+    public LocalQueueRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Map<String, byte[]> findAll() {
+        var queues = new HashMap<String, byte[]>();
+        for (var guildId : this.store.keys()) {
+            var queue = this.store.get(guildId);
+            if (queue != null) queues.put(guildId, queue);
+        }
+        return queues;
+    }
+
+    @Override
+    public void save(String guildId, byte[] queue) {
+        this.store.put(guildId, queue);
+    }
+
+    @Override
+    public void delete(String guildId) {
+        this.store.remove(guildId);
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.ElixirClient;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * An embedded key-value store backed by an append-only log file.
+ * Every live record is kept in an in-memory index, so reads never touch the disk.
+ * Writes are appended to the log and superseded records are dropped by compaction.
+ */
+public final class LocalStore implements Closeable {
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final Path path;
+    private final Map<String, byte[]> index = new ConcurrentHashMap<>();
+    private DataOutputStream output;
+    private int staleRecords = 0;
+    private boolean needsCompaction = false;
+
+    private LocalStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens (or creates) a store, replaying its log into memory.
+     *
+     * @param path The log file to use.
+     * @return The opened store.
+     */
+    public static LocalStore open(Path path) throws IOException {
+        var store = new LocalStore(path.toAbsolutePath());
+        Files.createDirectories(store.path.getParent());
+        store.replay();
+        store.output = store.openOutput();
+        if (store.needsCompaction) store.compact();
+        return store;
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The stored value, or null if the key is not present.
+     */
+    public byte[] get(String key) {
+        return this.index.get(key);
+    }
+
+    public boolean contains(String key) {
+        return this.index.containsKey(key);
+    }
+
+    /**
+     * @return A snapshot of every key in the store.
+     */
+    public Set<String> keys() {
+        return Set.copyOf(this.index.keySet());
+    }
+
+    /**
+     * @return A snapshot of every value in the store.
+     */
+    public Collection<byte[]> values() {
+        return List.copyOf(this.index.values());
+    }
+
+    /**
+     * Visits every value in the store without copying them.
+     * Values written while iterating may or may not be visited.
+     */
+    public void forEachValue(Consumer<byte[]> action) {
+        this.index.values().forEach(action);
+    }
+
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Writes a value, replacing any previous value for the key.
+     */
+    public synchronized void put(String key, byte[] value) {
+        this.append(encode(OP_PUT, key, value));
+        if (this.index.put(key, value) != null) this.staleRecords++;
+        this.compactIfNeeded();
+    }
+
+    /**
+     * Writes a value only if the key is not already present.
+     *
+     * @return If the value was written.
+     */
+    public synchronized boolean putIfAbsent(String key, byte[] value) {
+        if (this.index.containsKey(key)) return false;
+        this.put(key, value);
+        return true;
+    }
+
+    /**
+     * Replaces the value of a key only if its current value matches a condition.
+     * The check and the write happen atomically with respect to other writers.
+     *
+     * @param condition Tested against the current value of the key.
+     * @return If the value was written. Missing keys are never written.
+     */
+    public synchronized boolean replaceIf(String key, Predicate<byte[]> condition, byte[] value) {
+        var current = this.index.get(key);
+        if (current == null || !condition.test(current)) return false;
+        this.put(key, value);
+        return true;
+    }
+
+    /**
+     * Removes a key from the store.
+     *
+     * @return If the key was present.
+     */
+    public synchronized boolean remove(String key) {
+        if (!this.index.containsKey(key)) return false;
+        this.append(encode(OP_DELETE, key, null));
+        this.index.remove(key);
+        // Both the tombstone and the record it removed are now dead weight.
+        this.staleRecords += 2;
+        this.compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Rewrites the log so that it only contains the live records.
+     */
+    public synchronized void compact() {
+        var temporary = this.path.resolveSibling(this.path.getFileName() + ".compact");
+        try {
+            try (var compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                for (var entry : this.index.entrySet()) {
+                    writeRecord(compacted, encode(OP_PUT, entry.getKey(), entry.getValue()));
+                }
+            }
+
+            this.output.close();
+            try {
+                Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                this.staleRecords = 0;
+            } finally {
+                this.output = this.openOutput();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to compact " + this.path, exception);
+        }
+
+        ElixirClient.logger.debug("Compacted {} to {} records.", this.path.getFileName(), this.index.size());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.output.close();
+    }
+
+    private void compactIfNeeded() {
+        if (this.staleRecords > COMPACTION_THRESHOLD && this.staleRecords > this.index.size()) {
+            this.compact();
+        }
+    }
+
+    private void append(byte[] payload) {
+        try {
+            writeRecord(this.output, payload);
+            this.output.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to write to " + this.path, exception);
+        }
+    }
+
+    private DataOutputStream openOutput() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.path,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(this.path)) return;
+
+        var log = Files.readAllBytes(this.path);
+        var offset = 0;
+        var validLength = 0;
+        var damaged = 0;
+        while (offset < log.length) {
+            var payload = recordAt(log, offset);
+            if (payload == null || !this.tryApply(payload)) {
+                // A damaged record. The records after it are still read, from the next offset holding an intact one.
+                offset++;
+                continue;
+            }
+            damaged += offset - validLength;
+            offset += 8 + payload.length;
+            validLength = offset;
+        }
+
+        if (damaged > 0) {
+            ElixirClient.logger.warn("Skipped {} corrupt bytes in {}; the log will be compacted.",
+                damaged, this.path.getFileName());
+            this.needsCompaction = true;
+        }
+
+        // Anything after the last valid record is a torn write from a crash.
+        if (validLength < log.length) {
+            ElixirClient.logger.warn("Discarding {} corrupt bytes at the end of {}.",
+                log.length - validLength, this.path.getFileName());
+            try (var channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        ElixirClient.logger.debug("Loaded {} records from {}.", this.index.size(), this.path.getFileName());
+    }
+
+    /**
+     * Applies a record, unless it cannot be parsed.
+     *
+     * @return If the record was applied.
+     */
+    private boolean tryApply(byte[] payload) {
+        try {
+            this.apply(payload);
+            return true;
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(payload));
+        var operation = input.readByte();
+        var key = input.readUTF();
+        switch (operation) {
+            case OP_PUT -> {
+                var value = new byte[input.readInt()];
+                input.readFully(value);
+                if (this.index.put(key, value) != null) this.staleRecords++;
+            }
+            case OP_DELETE -> {
+                if (this.index.remove(key) != null) this.staleRecords++;
+                this.staleRecords++;
+            }
+            default -> throw new IOException("Unknown record type: " + operation);
+        }
+    }
+
+    private static byte[] encode(byte operation, String key, byte[] value) {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var output = new DataOutputStream(bytes);
+            output.writeByte(operation);
+            output.writeUTF(key);
+            if (value != null) {
+                output.writeInt(value.length);
+                output.write(value);
+            }
+            return bytes.toByteArray();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream output, byte[] payload) throws IOException {
+        output.writeInt(payload.length);
+        output.writeInt(checksum(payload));
+        output.write(payload);
+    }
+
+    /**
+     * @return The payload of the record at the offset, or null if there is no intact record there.
+     */
+    private static byte[] recordAt(byte[] log, int offset) {
+        if (log.length - offset < 8) return null;
+
+        var header = ByteBuffer.wrap(log, offset, 8);
+        var length = header.getInt();
+        var checksum = header.getInt();
+        if (length < 0 || length > MAX_RECORD_SIZE || length > log.length - offset - 8) return null;
+
+        var payload = Arrays.copyOfRange(log, offset + 8, offset + 8 + length);
+        return checksum(payload) == checksum ? payload : null;
+    }
+
+    private static int checksum(byte[] payload) {
+        var crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
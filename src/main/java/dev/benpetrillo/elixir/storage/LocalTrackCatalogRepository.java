@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.Utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Stores the track catalog in a {@link LocalStore}, keyed by canonical track ID.
+ */
+public final class LocalTrackCatalogRepository implements TrackCatalogRepository {
+
+    private final LocalStore store;
+
+    public LocalTrackCatalogRepository(LocalStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public CustomPlaylistTrack find(String trackId) {
+        var data = this.store.get(trackId);
+        return data == null ? null : decode(data);
+    }
+
+    @Override
+    public Map<String, CustomPlaylistTrack> findAll(Collection<String> trackIds) {
+        var tracks = new HashMap<String, CustomPlaylistTrack>();
+        for (var trackId : trackIds) {
+            if (tracks.containsKey(trackId)) continue;
+            var track = this.find(trackId);
+            if (track != null) tracks.put(trackId, track);
+        }
+        return tracks;
+    }
+
+    @Override
+    public List<CustomPlaylistTrack> findAll() {
+        var tracks = new ArrayList<CustomPlaylistTrack>();
+        for (var data : this.store.values()) {
+            tracks.add(decode(data));
+        }
+        return tracks;
+    }
+
+    @Override
+    public void forEach(Consumer<CustomPlaylistTrack> action) {
+        this.store.forEachValue(data -> action.accept(decode(data)));
+    }
+
+    @Override
+    public List<CustomPlaylistTrack> findStale(long checkedBefore, int limit) {
+        var tracks = new ArrayList<CustomPlaylistTrack>(limit);
+        for (var data : this.store.values()) {
+            if (tracks.size() >= limit) break;
+            var track = decode(data);
+            if (track.checkedAt < checkedBefore) tracks.add(track);
+        }
+        return tracks;
+    }
+
+    @Override
+    public void saveAll(Collection<CustomPlaylistTrack> tracks) {
+        for (var track : tracks) {
+            this.store.put(track.id, Utilities.serialize(track).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public void insertAll(Collection<CustomPlaylistTrack> tracks) {
+        for (var track : tracks) {
+            this.store.putIfAbsent(track.id, Utilities.serialize(track).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static CustomPlaylistTrack decode(byte[] data) {
+        return Utilities.deserialize(new String(data, StandardCharsets.UTF_8), CustomPlaylistTrack.class);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+
+public final class MongoApiKeyRepository implements ApiKeyRepository {
+
+    private final MongoCollection<Document> collection;
+
+    public MongoApiKeyRepository(MongoCollection<Document> collection) {
+        this.collection = collection;
+    }
+
+    @Override
+    public void insert(String userId, String guildId, String apiKey, long createdAt) {
+        this.collection.insertOne(new Document("userId", userId)
+            .append("guildId", guildId)
+            .append("apiKey", apiKey)
+            .append("createdAt", createdAt)
+        );
+    }
+
+    @Override
+    public boolean exists(String userId, String guildId) {
+        return this.collection.find(new Document("userId", userId)
+            .append("guildId", guildId)).first() != null;
+    }
+
+    @Override
+    public boolean matches(String userId, String guildId, String apiKey) {
+        return this.collection.find(new Document("userId", userId)
+            .append("guildId", guildId)
+            .append("apiKey", apiKey)).first() != null;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.types.Binary;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+public final class MongoHistoryRepository implements HistoryRepository {
+
+    private final MongoCollection<Document> collection;
+
+    public MongoHistoryRepository(MongoCollection<Document> collection) {
+        this.collection = collection;
+        this.collection.createIndex(Indexes.ascending("guildId"), new IndexOptions().unique(true));
+    }
+
+    @Override
+    public byte[] find(String guildId) {
+        var document = this.collection.find(new Document("guildId", guildId)).first();
+        return document == null ? null : document.get("history", Binary.class).getData();
+    }
+
+    @Override
+    public void saveAll(Map<String, byte[]> histories) {
+        if (histories.isEmpty()) return;
+
+        var writes = new ArrayList<ReplaceOneModel<Document>>(histories.size());
+        histories.forEach((guildId, history) -> writes.add(new ReplaceOneModel<>(
+            new Document("guildId", guildId),
+            new Document("guildId", guildId).append("history", new Binary(history)),
+            new ReplaceOptions().upsert(true))));
+        this.collection.bulkWrite(writes);
+    }
+}
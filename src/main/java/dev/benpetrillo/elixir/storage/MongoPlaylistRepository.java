@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import dev.benpetrillo.elixir.utils.Utilities;
+import org.bson.Document;
+import org.bson.types.Binary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public final class MongoPlaylistRepository implements PlaylistRepository {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    private final MongoCollection<Document> collection;
+
+    public MongoPlaylistRepository(MongoCollection<Document> collection) {
+        this.collection = collection;
+    }
+
+    @Override
+    public CustomPlaylist find(String playlistId) {
+        var document = this.collection.find(new Document("playlistId", playlistId)).first();
+        return document == null ? null : decode(document);
+    }
+
+    @Override
+    public List<CustomPlaylist> findAll() {
+        var playlists = new ArrayList<CustomPlaylist>();
+        for (var document : this.collection.find()) {
+            playlists.add(decode(document));
+        }
+        return playlists;
+    }
+
+    @Override
+    public void forEach(Consumer<CustomPlaylist> action) {
+        for (var document : this.collection.find().batchSize(CURSOR_BATCH_SIZE)) {
+            action.accept(decode(document));
+        }
+    }
+
+    @Override
+    public boolean insert(CustomPlaylist playlist) {
+        if (this.collection.find(new Document("playlistId", playlist.info.id)).first() != null) return false;
+        this.collection.insertOne(new Document("playlistId", playlist.info.id)
+            .append("creatorId", playlist.info.author)
+            .append("version", playlist.version)
+            .append("playlistData", encode(playlist)));
+        return true;
+    }
+
+    @Override
+    public boolean update(CustomPlaylist playlist) {
+        var expected = playlist.version;
+        // Documents written before versioning was introduced have no version field.
+        var versionFilter = expected == 0 ?
+            Filters.or(Filters.eq("version", 0L), Filters.exists("version", false)) :
+            Filters.eq("version", expected);
+
+        playlist.version = expected + 1;
+        var result = this.collection.updateOne(
+            Filters.and(Filters.eq("playlistId", playlist.info.id), versionFilter),
+            Updates.combine(
+                Updates.set("playlistData", encode(playlist)),
+                Updates.set("version", playlist.version)));
+        if (result.getModifiedCount() == 1) return true;
+
+        playlist.version = expected;
+        return false;
+    }
+
+    @Override
+    public void delete(String playlistId) {
+        this.collection.deleteOne(new Document("playlistId", playlistId));
+    }
+
+    private static byte[] encode(CustomPlaylist playlist) {
+        return PlaylistCodec.encode(playlist);
+    }
+
+    private static CustomPlaylist decode(Document document) {
+        var playlistData = document.get("playlistData");
+        // Playlists saved before the binary encoding are base64 encoded JSON strings. They are written back
+        // in binary on their next save, which older releases cannot read.
+        var playlist = playlistData instanceof Binary binary ?
+            PlaylistCodec.decode(binary.getData()) :
+            Utilities.deserialize(Utilities.base64Decode((String) playlistData), CustomPlaylist.class);
+        var version = document.get("version");
+        playlist.version = version instanceof Number number ? number.longValue() : 0;
+        return playlist;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import org.bson.types.Binary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class MongoQueueRepository implements QueueRepository {
+
+    private final MongoCollection<Document> collection;
+
+    public MongoQueueRepository(MongoCollection<Document> collection) {
+        this.collection = collection;
+        this.collection.createIndex(Indexes.ascending("guildId"), new IndexOptions().unique(true));
+    }
+
+    @Override
+    public Map<String, byte[]> findAll() {
+        var queues = new HashMap<String, byte[]>();
+        for (var document : this.collection.find()) {
+            queues.put(document.getString("guildId"), document.get("queue", Binary.class).getData());
+        }
+        return queues;
+    }
+
+    @Override
+    public void save(String guildId, byte[] queue) {
+        this.collection.replaceOne(new Document("guildId", guildId),
+            new Document("guildId", guildId).append("queue", new Binary(queue)),
+            new ReplaceOptions().upsert(true));
+    }
+
+    @Override
+    public void delete(String guildId) {
+        this.collection.deleteOne(new Document("guildId", guildId));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import org.bson.Document;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public final class MongoTrackCatalogRepository implements TrackCatalogRepository {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    private final MongoCollection<Document> collection;
+
+    public MongoTrackCatalogRepository(MongoCollection<Document> collection) {
+        this.collection = collection;
+        this.collection.createIndex(Indexes.ascending("trackId"), new IndexOptions().unique(true));
+    }
+
+    @Override
+    public CustomPlaylistTrack find(String trackId) {
+        var document = this.collection.find(new Document("trackId", trackId)).first();
+        return document == null ? null : decode(document);
+    }
+
+    @Override
+    public Map<String, CustomPlaylistTrack> findAll(Collection<String> trackIds) {
+        var tracks = new HashMap<String, CustomPlaylistTrack>();
+        if (trackIds.isEmpty()) return tracks;
+
+        for (var document : this.collection.find(Filters.in("trackId", new HashSet<>(trackIds)))) {
+            var track = decode(document);
+            tracks.put(track.id, track);
+        }
+        return tracks;
+    }
+
+    @Override
+    public List<CustomPlaylistTrack> findAll() {
+        var tracks = new ArrayList<CustomPlaylistTrack>();
+        for (var document : this.collection.find()) {
+            tracks.add(decode(document));
+        }
+        return tracks;
+    }
+
+    @Override
+    public void forEach(Consumer<CustomPlaylistTrack> action) {
+        for (var document : this.collection.find().batchSize(CURSOR_BATCH_SIZE)) {
+            action.accept(decode(document));
+        }
+    }
+
+    @Override
+    public List<CustomPlaylistTrack> findStale(long checkedBefore, int limit) {
+        var tracks = new ArrayList<CustomPlaylistTrack>(limit);
+        var filter = Filters.or(Filters.lt("checkedAt", checkedBefore), Filters.exists("checkedAt", false));
+        for (var document : this.collection.find(filter).limit(limit)) {
+            tracks.add(decode(document));
+        }
+        return tracks;
+    }
+
+    @Override
+    public void saveAll(Collection<CustomPlaylistTrack> tracks) {
+        if (tracks.isEmpty()) return;
+
+        var writes = new ArrayList<ReplaceOneModel<Document>>(tracks.size());
+        for (var track : tracks) {
+            writes.add(new ReplaceOneModel<>(new Document("trackId", track.id), encode(track),
+                new ReplaceOptions().upsert(true)));
+        }
+        this.collection.bulkWrite(writes);
+    }
+
+    @Override
+    public void insertAll(Collection<CustomPlaylistTrack> tracks) {
+        if (tracks.isEmpty()) return;
+
+        var writes = new ArrayList<UpdateOneModel<Document>>(tracks.size());
+        for (var track : tracks) {
+            // The ID comes from the filter, so only the other fields are set on insert.
+            var fields = encode(track);
+            fields.remove("trackId");
+            writes.add(new UpdateOneModel<>(new Document("trackId", track.id), new Document("$setOnInsert", fields),
+                new UpdateOptions().upsert(true)));
+        }
+        this.collection.bulkWrite(writes);
+    }
+
+    private static Document encode(CustomPlaylistTrack track) {
+        return new Document("trackId", track.id)
+            .append("title", track.title)
+            .append("url", track.url)
+            .append("artist", track.artist)
+            .append("coverArt", track.coverArt)
+            .append("duration", track.duration)
+            .append("isrc", track.isrc)
+            .append("type", track.type != null ? track.type.name() : null)
+            .append("identifier", track.identifier)
+            .append("unavailable", track.unavailable)
+            .append("alternative", track.alternative)
+            .append("checkedAt", track.checkedAt);
+    }
+
+    private static CustomPlaylistTrack decode(Document document) {
+        var track = new CustomPlaylistTrack();
+        track.id = document.getString("trackId");
+        track.title = document.getString("title");
+        track.url = document.getString("url");
+        track.artist = document.getString("artist");
+        track.coverArt = document.getString("coverArt");
+        track.duration = document.getLong("duration");
+        track.isrc = document.getString("isrc");
+        var type = document.getString("type");
+        track.type = type != null ? TrackUtil.TrackType.valueOf(type) : null;
+        track.identifier = document.getString("identifier");
+        track.unavailable = document.getBoolean("unavailable", false);
+        track.alternative = document.getString("alternative");
+        track.checkedAt = document.get("checkedAt") instanceof Number checkedAt ? checkedAt.longValue() : 0;
+        return track;
+    }
+}
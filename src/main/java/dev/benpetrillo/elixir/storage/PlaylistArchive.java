@@ -0,0 +1,390 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.managers.DatabaseManager;
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.Utilities;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Streams playlists and the track catalog to and from line-delimited JSON archives.
+ * Records are read and written one at a time, so memory use does not grow with the archive.
+ * <p>
+ * An archive is a header line, every catalog track, every playlist in its stored form,
+ * and a footer with the record counts and a CRC32 of all lines before it.
+ */
+public final class PlaylistArchive {
+
+    public static final int FORMAT_VERSION = 1;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String HEADER = "header";
+    private static final String TRACK = "track";
+    private static final String PLAYLIST = "playlist";
+    private static final String FOOTER = "footer";
+
+    /**
+     * Runs an archive command from the command line.
+     * Usage: {@code <export|import|verify> <file>}
+     *
+     * @param args The command and the archive file.
+     * @return The process exit code.
+     */
+    public static int run(String[] args) {
+        if (args.length < 2) {
+            ElixirClient.logger.error("Usage: <env file> <export|import|verify> <file>");
+            return 1;
+        }
+
+        var file = Path.of(args[1]);
+        try {
+            if (args[0].equals("verify")) {
+                return report("Verified", verify(file));
+            }
+
+            DatabaseManager.create();
+            var playlists = DatabaseManager.getPlaylistRepository();
+            var tracks = DatabaseManager.getTrackCatalogRepository();
+            if (playlists == null || tracks == null) return 1;
+
+            try {
+                return switch (args[0]) {
+                    case "export" -> report("Exported", export(file, playlists, tracks));
+                    case "import" -> report("Imported", importFrom(file, playlists, tracks));
+                    default -> {
+                        ElixirClient.logger.error("Unknown archive command: {}", args[0]);
+                        yield 1;
+                    }
+                };
+            } finally {
+                DatabaseManager.close();
+            }
+        } catch (IOException | UncheckedIOException exception) {
+            ElixirClient.logger.error("Archive {} failed.", args[0], exception);
+            return 1;
+        }
+    }
+
+    /**
+     * Writes every catalog track and playlist to an archive, then verifies the written file.
+     * The archive is written to a temporary file first, so an existing archive is only replaced once complete.
+     *
+     * @param file The archive to write.
+     * @return The number of records written.
+     */
+    public static Summary export(Path file, PlaylistRepository playlists, TrackCatalogRepository tracks) throws IOException {
+        var temporary = file.toAbsolutePath().resolveSibling(file.getFileName() + ".tmp");
+        var counts = new long[2];
+
+        try {
+            write(temporary, playlists, tracks, counts);
+        } catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(temporary);
+            throw exception;
+        }
+
+        var summary = verify(temporary);
+        if (!summary.isValid() || summary.tracks() != counts[0] || summary.playlists() != counts[1]) {
+            Files.deleteIfExists(temporary);
+            throw new IOException("Written archive failed verification: " + summary);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return summary;
+    }
+
+    private static void write(Path file, PlaylistRepository playlists, TrackCatalogRepository tracks, long[] counts) throws IOException {
+        try (var writer = new ArchiveWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            var header = new JsonObject();
+            header.addProperty("format", FORMAT_VERSION);
+            header.addProperty("createdAt", System.currentTimeMillis());
+            writer.write(HEADER, header);
+
+            tracks.forEach(track -> {
+                writer.write(TRACK, Utilities.tree(track).getAsJsonObject());
+                counts[0]++;
+            });
+            playlists.forEach(playlist -> {
+                writer.write(PLAYLIST, Utilities.tree(playlist).getAsJsonObject());
+                counts[1]++;
+            });
+
+            writer.finish(counts[0], counts[1]);
+        }
+    }
+
+    /**
+     * Loads an archive into storage.
+     * The archive is verified before anything is written, and storage is checked against it afterwards.
+     * Tracks replace existing catalog entries; playlists which already exist are skipped.
+     *
+     * @param file The archive to read.
+     * @return The number of records imported, skipped, and missing from storage afterwards.
+     */
+    public static Summary importFrom(Path file, PlaylistRepository playlists, TrackCatalogRepository tracks) throws IOException {
+        var verified = verify(file);
+        if (!verified.isValid()) {
+            throw new IOException("Archive failed verification: " + verified);
+        }
+
+        var counts = new long[3];
+        var batch = new ArrayList<CustomPlaylistTrack>(BATCH_SIZE);
+        read(file, (type, record) -> {
+            switch (type) {
+                case TRACK -> {
+                    batch.add(Utilities.deserialize(record, CustomPlaylistTrack.class));
+                    if (batch.size() >= BATCH_SIZE) {
+                        tracks.saveAll(batch);
+                        batch.clear();
+                    }
+                    counts[0]++;
+                }
+                case PLAYLIST -> {
+                    // Tracks precede playlists, so the catalog is complete before any playlist is stored.
+                    if (!batch.isEmpty()) {
+                        tracks.saveAll(batch);
+                        batch.clear();
+                    }
+                    if (playlists.insert(Utilities.deserialize(record, CustomPlaylist.class))) counts[1]++;
+                    else counts[2]++;
+                }
+                default -> {}
+            }
+        });
+        if (!batch.isEmpty()) tracks.saveAll(batch);
+
+        var missing = compare(file, playlists, tracks);
+        return new Summary(counts[0], counts[1], counts[2], missing);
+    }
+
+    /**
+     * Checks that an archive is complete and intact: every line parses,
+     * and the footer's counts and checksum match what precedes it.
+     *
+     * @param file The archive to check.
+     * @return The records found, and the number of problems.
+     */
+    public static Summary verify(Path file) throws IOException {
+        var checksum = new CRC32();
+        long tracks = 0, playlists = 0, problems = 0, lineNumber = 0;
+        JsonObject header = null, footer = null;
+
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                var record = parse(line);
+                var type = record == null ? null : typeOf(record);
+                if (type == null || footer != null) {
+                    ElixirClient.logger.warn("Unexpected record on line {}.", lineNumber);
+                    problems++;
+                    continue;
+                }
+
+                switch (type) {
+                    case HEADER -> {
+                        if (header != null || lineNumber != 1) problems++;
+                        header = record;
+                    }
+                    case TRACK -> tracks++;
+                    case PLAYLIST -> playlists++;
+                    case FOOTER -> {
+                        footer = record;
+                        continue;
+                    }
+                    default -> problems++;
+                }
+                update(checksum, line);
+            }
+        }
+
+        if (header == null || longOf(header, "format") != FORMAT_VERSION) {
+            ElixirClient.logger.warn("Archive header is missing or has an unsupported format.");
+            problems++;
+        }
+        if (footer == null) {
+            ElixirClient.logger.warn("Archive footer is missing; the archive is incomplete.");
+            problems++;
+        } else if (longOf(footer, TRACK + "s") != tracks
+            || longOf(footer, PLAYLIST + "s") != playlists
+            || longOf(footer, "checksum") != checksum.getValue()) {
+            ElixirClient.logger.warn("Archive footer does not match its contents.");
+            problems++;
+        }
+        return new Summary(tracks, playlists, 0, problems);
+    }
+
+    /**
+     * Checks that every record in an archive is present in storage.
+     *
+     * @return The number of tracks and playlists which are missing or differ.
+     */
+    private static long compare(Path file, PlaylistRepository playlists, TrackCatalogRepository tracks) throws IOException {
+        var missing = new long[1];
+        var pending = new HashMap<String, CustomPlaylistTrack>(BATCH_SIZE);
+        read(file, (type, record) -> {
+            switch (type) {
+                case TRACK -> {
+                    var track = Utilities.deserialize(record, CustomPlaylistTrack.class);
+                    pending.put(track.id, track);
+                    if (pending.size() >= BATCH_SIZE) missing[0] += compareTracks(pending, tracks);
+                }
+                case PLAYLIST -> {
+                    var expected = Utilities.deserialize(record, CustomPlaylist.class);
+                    var stored = playlists.find(expected.info.id);
+                    if (stored == null || sizeOf(stored) != sizeOf(expected)) {
+                        ElixirClient.logger.warn("Playlist {} does not match the archive.", expected.info.id);
+                        missing[0]++;
+                    }
+                }
+                default -> {}
+            }
+        });
+        if (!pending.isEmpty()) missing[0] += compareTracks(pending, tracks);
+        return missing[0];
+    }
+
+    private static long compareTracks(Map<String, CustomPlaylistTrack> expected, TrackCatalogRepository tracks) {
+        var stored = tracks.findAll(expected.keySet());
+        var missing = expected.size() - stored.size();
+        expected.clear();
+        return missing;
+    }
+
+    private static int sizeOf(CustomPlaylist playlist) {
+        if (playlist.trackIds != null) return playlist.trackIds.size();
+        return playlist.tracks == null ? 0 : playlist.tracks.size();
+    }
+
+    private static void read(Path file, RecordHandler handler) throws IOException {
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                var record = parse(line);
+                if (record != null) handler.accept(typeOf(record), record);
+            }
+        }
+    }
+
+    private static JsonObject parse(String line) {
+        try {
+            var element = JsonParser.parseString(line);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (JsonParseException exception) {
+            return null;
+        }
+    }
+
+    private static String typeOf(JsonObject record) {
+        var type = record.get("record");
+        return type == null || !type.isJsonPrimitive() ? null : type.getAsString();
+    }
+
+    private static long longOf(JsonObject record, String key) {
+        var value = record.get(key);
+        try {
+            return value == null ? -1 : value.getAsLong();
+        } catch (RuntimeException exception) {
+            return -1;
+        }
+    }
+
+    private static void update(CRC32 checksum, String line) {
+        checksum.update(line.getBytes(StandardCharsets.UTF_8));
+        checksum.update('\n');
+    }
+
+    private static int report(String action, Summary summary) {
+        ElixirClient.logger.info("{} {} tracks and {} playlists ({} skipped, {} problems).",
+            action, summary.tracks(), summary.playlists(), summary.skipped(), summary.problems());
+        return summary.isValid() ? 0 : 1;
+    }
+
+    /**
+     * The outcome of an archive operation.
+     *
+     * @param skipped  Playlists which were not imported because they already exist.
+     * @param problems Records which are corrupt, or which did not make it into storage.
+     */
+    public record Summary(long tracks, long playlists, long skipped, long problems) {
+        public boolean isValid() {
+            return this.problems == 0;
+        }
+    }
+
+    private interface RecordHandler {
+        void accept(String type, JsonObject record);
+    }
+
+    /**
+     * Writes records one per line, keeping a running checksum for the footer.
+     */
+    private static final class ArchiveWriter implements AutoCloseable {
+        private final BufferedWriter writer;
+        private final CRC32 checksum = new CRC32();
+
+        ArchiveWriter(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        void write(String type, JsonObject record) {
+            record.addProperty("record", type);
+            var line = record.toString();
+            this.writeLine(line);
+            update(this.checksum, line);
+        }
+
+        void finish(long tracks, long playlists) {
+            var footer = new JsonObject();
+            footer.addProperty("record", FOOTER);
+            footer.addProperty(TRACK + "s", tracks);
+            footer.addProperty(PLAYLIST + "s", playlists);
+            footer.addProperty("checksum", this.checksum.getValue());
+            this.writeLine(footer.toString());
+        }
+
+        private void writeLine(String line) {
+            try {
+                this.writer.write(line);
+                this.writer.write('\n');
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.writer.close();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.Utilities;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.sedmelluq.discord.lavaplayer.tools.DataFormatTools.readNullableText;
+import static com.sedmelluq.discord.lavaplayer.tools.DataFormatTools.writeNullableText;
+
+/**
+ * A compact, versioned binary encoding for {@link CustomPlaylist}.
+ * <p>
+ * Playlists saved since the track catalog only hold track IDs, so most of their size is the ID list.
+ * Inline tracks are only present in playlists which have not been saved since the catalog was added.
+ * Those are written as length-prefixed records, and only decoded when they are read.
+ * <p>
+ * Data which was stored as JSON before this encoding existed is still decoded, and re-encoded the next
+ * time the playlist is saved. This migration is one-way: releases from before this encoding cannot read it,
+ * so export the playlists with {@link PlaylistArchive} before upgrading if a rollback may be needed.
+ */
+public final class PlaylistCodec {
+
+    /**
+     * The first byte of every encoded playlist. JSON always starts with '{', so the two never collide.
+     */
+    private static final int MAGIC = 0xE1;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Encodes a playlist.
+     *
+     * @param playlist The playlist to encode.
+     * @return The encoded playlist.
+     */
+    public static byte[] encode(CustomPlaylist playlist) {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeByte(MAGIC);
+            output.writeByte(FORMAT_VERSION);
+            output.writeLong(playlist.version);
+
+            writeNullableText(output, playlist.info.id);
+            writeNullableText(output, playlist.info.name);
+            writeNullableText(output, playlist.info.description);
+            writeNullableText(output, playlist.info.playlistCoverUrl);
+            writeNullableText(output, playlist.info.author);
+            output.writeInt(playlist.info.volume);
+
+            var options = playlist.options != null ? playlist.options : new CustomPlaylist.Options();
+            output.writeBoolean(options.shuffle);
+            output.writeBoolean(options.repeat);
+
+            if (playlist.trackIds == null) {
+                output.writeInt(-1);
+            } else {
+                output.writeInt(playlist.trackIds.size());
+                for (var trackId : playlist.trackIds) output.writeUTF(trackId);
+            }
+
+            if (playlist.tracks == null) {
+                output.writeInt(-1);
+            } else {
+                output.writeInt(playlist.tracks.size());
+                for (var track : playlist.tracks) {
+                    var encoded = encodeTrack(track);
+                    output.writeInt(encoded.length);
+                    output.write(encoded);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a playlist. Tracks are decoded lazily, on first access.
+     *
+     * @param data The encoded playlist, or a legacy JSON playlist.
+     * @return The decoded playlist.
+     */
+    public static CustomPlaylist decode(byte[] data) {
+        if (!isBinary(data)) {
+            return Utilities.deserialize(new String(data, StandardCharsets.UTF_8), CustomPlaylist.class);
+        }
+
+        try (var input = new DataInputStream(new ByteArrayInputStream(data))) {
+            input.skipBytes(1);
+            var formatVersion = input.readUnsignedByte();
+            if (formatVersion > FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported playlist format version: " + formatVersion);
+            }
+
+            var playlist = new CustomPlaylist();
+            playlist.version = input.readLong();
+
+            playlist.info = new CustomPlaylist.Info();
+            playlist.info.id = readNullableText(input);
+            playlist.info.name = readNullableText(input);
+            playlist.info.description = readNullableText(input);
+            playlist.info.playlistCoverUrl = readNullableText(input);
+            playlist.info.author = readNullableText(input);
+            playlist.info.volume = input.readInt();
+
+            playlist.options = new CustomPlaylist.Options();
+            playlist.options.shuffle = input.readBoolean();
+            playlist.options.repeat = input.readBoolean();
+
+            var trackIdCount = input.readInt();
+            if (trackIdCount >= 0) {
+                playlist.trackIds = new ArrayList<>(trackIdCount);
+                for (var i = 0; i < trackIdCount; i++) playlist.trackIds.add(input.readUTF());
+            }
+
+            var trackCount = input.readInt();
+            if (trackCount >= 0) {
+                var tracks = new ArrayList<>(trackCount);
+                for (var i = 0; i < trackCount; i++) {
+                    var encoded = new byte[input.readInt()];
+                    input.readFully(encoded);
+                    tracks.add(encoded);
+                }
+                playlist.tracks = new LazyTrackList(tracks);
+            }
+            return playlist;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads only the version of an encoded playlist.
+     *
+     * @param data The encoded playlist, or a legacy JSON playlist.
+     * @return The version of the playlist.
+     */
+    public static long readVersion(byte[] data) {
+        if (!isBinary(data)) return decode(data).version;
+        // The version directly follows the magic and format bytes.
+        var version = 0L;
+        for (var i = 2; i < 10; i++) version = (version << 8) | (data[i] & 0xFF);
+        return version;
+    }
+
+    /**
+     * Encodes a single track.
+     *
+     * @param track The track to encode.
+     * @return The encoded track.
+     */
+    public static byte[] encodeTrack(CustomPlaylistTrack track) {
+        var bytes = new ByteArrayOutputStream(128);
+        try (var output = new DataOutputStream(bytes)) {
+            writeNullableText(output, track.id);
+            writeNullableText(output, track.title);
+            writeNullableText(output, track.url);
+            writeNullableText(output, track.artist);
+            writeNullableText(output, track.coverArt);
+            output.writeLong(track.duration);
+            writeNullableText(output, track.isrc);
+            writeNullableText(output, track.type != null ? track.type.name() : null);
+            writeNullableText(output, track.identifier);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a single track.
+     *
+     * @param data The encoded track.
+     * @return The decoded track.
+     */
+    public static CustomPlaylistTrack decodeTrack(byte[] data) {
+        try (var input = new DataInputStream(new ByteArrayInputStream(data))) {
+            var track = new CustomPlaylistTrack();
+            track.id = readNullableText(input);
+            track.title = readNullableText(input);
+            track.url = readNullableText(input);
+            track.artist = readNullableText(input);
+            track.coverArt = readNullableText(input);
+            track.duration = input.readLong();
+            track.isrc = readNullableText(input);
+            // Fields added after the first format version are appended, and absent from older records.
+            if (input.available() > 0) {
+                var type = readNullableText(input);
+                track.type = type != null ? TrackUtil.TrackType.valueOf(type) : null;
+                track.identifier = readNullableText(input);
+            }
+            return track;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isBinary(byte[] data) {
+        return data.length > 0 && (data[0] & 0xFF) == MAGIC;
+    }
+
+    /**
+     * A mutable track list which holds encoded tracks until they are first read.
+     */
+    private static final class LazyTrackList extends AbstractList<CustomPlaylistTrack> {
+
+        /**
+         * Each element is either an encoded track (byte[]) or a decoded {@link CustomPlaylistTrack}.
+         */
+        private final List<Object> entries;
+
+        LazyTrackList(List<Object> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public CustomPlaylistTrack get(int index) {
+            var entry = this.entries.get(index);
+            if (entry instanceof CustomPlaylistTrack track) return track;
+
+            var track = decodeTrack((byte[]) entry);
+            this.entries.set(index, track);
+            return track;
+        }
+
+        @Override
+        public int size() {
+            return this.entries.size();
+        }
+
+        @Override
+        public CustomPlaylistTrack set(int index, CustomPlaylistTrack element) {
+            var previous = this.get(index);
+            this.entries.set(index, element);
+            return previous;
+        }
+
+        @Override
+        public void add(int index, CustomPlaylistTrack element) {
+            this.entries.add(index, element);
+            this.modCount++;
+        }
+
+        @Override
+        public CustomPlaylistTrack remove(int index) {
+            var previous = this.get(index);
+            this.entries.remove(index);
+            this.modCount++;
+            return previous;
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends CustomPlaylistTrack> tracks) {
+            this.modCount++;
+            return this.entries.addAll(tracks);
+        }
+    }
+}
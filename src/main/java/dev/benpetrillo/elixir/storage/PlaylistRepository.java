@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Persistent storage for custom playlists.
+ */
+public interface PlaylistRepository {
+
+    /**
+     * @param playlistId The playlist ID to look up.
+     * @return The playlist, or null if one cannot be found.
+     */
+    CustomPlaylist find(String playlistId);
+
+    /**
+     * @return Every stored playlist.
+     */
+    List<CustomPlaylist> findAll();
+
+    /**
+     * Visits every stored playlist without holding them all in memory.
+     *
+     * @param action Invoked with each playlist in turn.
+     */
+    void forEach(Consumer<CustomPlaylist> action);
+
+    /**
+     * Stores a new playlist.
+     *
+     * @param playlist The playlist to store.
+     * @return False if a playlist with the same ID already exists.
+     */
+    boolean insert(CustomPlaylist playlist);
+
+    /**
+     * Replaces the stored copy of an existing playlist, if it has not changed since it was read.
+     * On success, the version of the given playlist is advanced to match the stored copy.
+     *
+     * @param playlist The playlist to store, carrying the version it was read at.
+     * @return False if the playlist was modified or deleted since it was read.
+     */
+    boolean update(CustomPlaylist playlist);
+
+    /**
+     * @param playlistId The ID of the playlist to delete.
+     */
+    void delete(String playlistId);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import java.util.Map;
+
+/**
+ * Persistent storage for queues handed off by a draining process.
+ * Each guild's queue is stored as a single encoded blob until the next process restores it.
+ */
+public interface QueueRepository {
+
+    /**
+     * @return Every stored queue, keyed by guild ID.
+     */
+    Map<String, byte[]> findAll();
+
+    /**
+     * @param guildId The guild the queue belongs to.
+     * @param queue The encoded queue.
+     */
+    void save(String guildId, byte[] queue);
+
+    /**
+     * @param guildId The guild whose queue has been restored.
+     */
+    void delete(String guildId);
+}
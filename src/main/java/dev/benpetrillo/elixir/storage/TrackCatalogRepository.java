@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The shared track catalog.
+ * Track metadata is stored once, keyed by its canonical ID, and playlists only reference it.
+ */
+public interface TrackCatalogRepository {
+
+    /**
+     * @param trackId The canonical track ID.
+     * @return The catalog entry, or null if the track is unknown.
+     */
+    CustomPlaylistTrack find(String trackId);
+
+    /**
+     * Looks up many tracks in a single batch.
+     *
+     * @param trackIds The canonical track IDs.
+     * @return The known tracks, keyed by their ID. Unknown IDs are omitted.
+     */
+    Map<String, CustomPlaylistTrack> findAll(Collection<String> trackIds);
+
+    /**
+     * @return Every track in the catalog.
+     */
+    List<CustomPlaylistTrack> findAll();
+
+    /**
+     * Visits every track in the catalog without holding them all in memory.
+     *
+     * @param action Invoked with each track in turn.
+     */
+    void forEach(Consumer<CustomPlaylistTrack> action);
+
+    /**
+     * Finds tracks which have not been revalidated recently.
+     *
+     * @param checkedBefore Tracks last checked before this time, in epoch milliseconds, are returned.
+     * @param limit The maximum number of tracks to return.
+     * @return The tracks which are due to be revalidated.
+     */
+    List<CustomPlaylistTrack> findStale(long checkedBefore, int limit);
+
+    /**
+     * Stores or replaces catalog entries.
+     *
+     * @param tracks The tracks to store. Each must have its ID set.
+     */
+    void saveAll(Collection<CustomPlaylistTrack> tracks);
+
+    /**
+     * Stores catalog entries which do not exist yet. Existing entries, and the
+     * revalidation state kept on them, are left untouched.
+     *
+     * @param tracks The tracks to store. Each must have its ID set.
+     */
+    void insertAll(Collection<CustomPlaylistTrack> tracks);
+}
@@ -19,6 +19,7 @@ package dev.benpetrillo.elixir.types;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
 import dev.benpetrillo.elixir.Config;
 import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.Utilities;
 import net.dv8tion.jda.api.entities.Member;
 
 import java.util.ArrayList;
@@ -28,7 +29,16 @@ public final class CustomPlaylist {
 
     public Info info;
     public List<CustomPlaylistTrack> tracks;
+    /**
+     * The stored form of a playlist only keeps references into the shared track catalog.
+     * This is null for playlists which were saved with their tracks inline.
+     */
+    public List<String> trackIds;
     public Options options;
+    /**
+     * Incremented on every save; used to detect concurrent edits.
+     */
+    public long version;
 
     public static CustomPlaylist create(String playlistId, Member creator) {
         CustomPlaylist playlist = new CustomPlaylist();
@@ -50,22 +60,75 @@ public final class CustomPlaylist {
 
     public static class CustomPlaylistTrack {
 
+        /**
+         * The key of this track in the shared track catalog.
+         */
+        public String id;
         public String title, url, artist, coverArt;
         public long duration;
         public String isrc = null;
+        /**
+         * The source of this track, derived from its URL when it is first stored.
+         */
+        public TrackUtil.TrackType type;
+        /**
+         * The ID of this track on its source, such as a YouTube video ID.
+         */
+        public String identifier;
+        /**
+         * Set by background revalidation once the track can no longer be loaded from its source.
+         */
+        public boolean unavailable;
+        /**
+         * The URL of a matching track to play instead of an unavailable one, if one was found.
+         */
+        public String alternative;
+        /**
+         * When the track was last revalidated, in epoch milliseconds.
+         */
+        public long checkedAt;
 
         public static CustomPlaylistTrack from(AudioTrackInfo info) {
             CustomPlaylistTrack track = new CustomPlaylistTrack();
             track.title = info.title;
-            track.url = info.uri.contains("spotify") ? "https://open.spotify.com/track/" + info.uri.split("/")[5] : info.uri;
+            track.url = CustomPlaylistTrack.canonicalUrl(info.uri);
             track.artist = info.author;
             track.coverArt = TrackUtil.getCoverArt(info);
             track.duration = info.length;
             if (info instanceof ExtendedAudioTrackInfo) {
                 track.isrc = ((ExtendedAudioTrackInfo) info).isrc;
             }
+            track.ensureSource();
             return track;
         }
+
+        /**
+         * Derives the source type and ID of this track, if they have not been stored yet.
+         *
+         * @return If the track was changed and should be saved.
+         */
+        public boolean ensureSource() {
+            if (this.type != null && this.identifier != null) return false;
+            this.type = TrackUtil.determineTrackType(this.url);
+            this.identifier = switch (this.type) {
+                case YOUTUBE -> Utilities.extractVideoId(this.url);
+                case SPOTIFY -> Utilities.extractSongId(this.url);
+                default -> this.url;
+            };
+            return true;
+        }
+
+        /**
+         * Converts a track URI into the URL form stored in playlists.
+         *
+         * @param uri The track URI.
+         * @return The URL to store.
+         */
+        public static String canonicalUrl(String uri) {
+            if (!uri.contains("spotify")) return uri;
+            var segments = uri.split("/");
+            return "https://open.spotify.com/track/" + segments[segments.length - 1].split("\\?")[0];
+        }
     }
 
     public static class Options {
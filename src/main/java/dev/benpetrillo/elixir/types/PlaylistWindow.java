@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.types;
+
+import java.util.List;
+
+/**
+ * A slice of the tracks in a custom playlist, along with the playlist's info.
+ */
+public final class PlaylistWindow {
+
+    /**
+     * The playlist. Use {@link #tracks} rather than its track list, which may not be loaded.
+     */
+    public final CustomPlaylist playlist;
+    /**
+     * The position of the first track in the window.
+     */
+    public final int offset;
+    /**
+     * The number of tracks in the whole playlist.
+     */
+    public final int totalTracks;
+    public final List<CustomPlaylist.CustomPlaylistTrack> tracks;
+
+    public PlaylistWindow(CustomPlaylist playlist, int offset, int totalTracks, List<CustomPlaylist.CustomPlaylistTrack> tracks) {
+        this.playlist = playlist;
+        this.offset = offset;
+        this.totalTracks = totalTracks;
+        this.tracks = tracks;
+    }
+}
@@ -16,42 +16,35 @@
 
 package dev.benpetrillo.elixir.utils;
 
-import com.mongodb.client.MongoCollection;
 import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.managers.DatabaseManager;
-import org.bson.Document;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public final class APIAuthUtil {
 
-    public static String createAPIKey(String userId, String guildId) {
+    public static CompletableFuture<String> createAPIKey(String userId, String guildId) {
 
         String key = generateAPIKey();
 
-        MongoCollection<Document> dbCollection = DatabaseManager.getAPIKeyCollection();
-        dbCollection.insertOne(new Document("userId", userId)
-            .append("guildId", guildId)
-            .append("apiKey", key)
-            .append("createdAt", System.currentTimeMillis() / 1000L)
-        );
-        return key;
+        return DatabaseManager.submit("apiKey.insert", () -> {
+            DatabaseManager.getApiKeyRepository().insert(userId, guildId, key, System.currentTimeMillis() / 1000L);
+            return key;
+        });
     }
 
-    public static boolean hasAPIKey(String userId, String guildId) {
-        MongoCollection<Document> dbCollection = DatabaseManager.getAPIKeyCollection();
-        return dbCollection.find(new Document("userId", userId)
-            .append("guildId", guildId)).first() != null;
+    public static CompletableFuture<Boolean> hasAPIKey(String userId, String guildId) {
+        return DatabaseManager.submit("apiKey.exists",
+            () -> DatabaseManager.getApiKeyRepository().exists(userId, guildId));
     }
 
-    public static boolean isValidAPIKey(String userId, String guildId, String apiKey) {
-        MongoCollection<Document> dbCollection = DatabaseManager.getAPIKeyCollection();
-        return dbCollection.find(new Document("userId", userId)
-            .append("guildId", guildId)
-            .append("apiKey", apiKey)).first() != null;
+    public static CompletableFuture<Boolean> isValidAPIKey(String userId, String guildId, String apiKey) {
+        return DatabaseManager.submit("apiKey.matches",
+            () -> DatabaseManager.getApiKeyRepository().matches(userId, guildId, apiKey));
     }
 
     private static String generateAPIKey() {
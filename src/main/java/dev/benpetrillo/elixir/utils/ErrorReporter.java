@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.utils;
+
+import club.minnced.discord.webhook.WebhookClient;
+import club.minnced.discord.webhook.WebhookClientBuilder;
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import dev.benpetrillo.elixir.Config;
+import dev.benpetrillo.elixir.ElixirClient;
+import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.managers.TaskScheduler;
+import dev.benpetrillo.elixir.types.ElixirException;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports exceptions to the debug webhook in the background.
+ * Reports are grouped by where and how they failed, and sent once per window as a single message,
+ * so a flood of identical failures becomes one summary instead of thousands of webhook posts.
+ */
+public final class ErrorReporter {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * The most distinct failures held per window. Further ones are only counted.
+     */
+    private static final int MAX_SIGNATURES = 64;
+    /**
+     * Discord accepts at most ten embeds per message.
+     */
+    private static final int MAX_EMBEDS = 10;
+    /**
+     * Discord rejects a message whose embeds hold more than 6000 characters of text in total.
+     */
+    private static final int MAX_MESSAGE_LENGTH = 6000;
+    private static final int MAX_FIELD_LENGTH = 1024;
+
+    private static final Map<String, Report> pending = new LinkedHashMap<>();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static WebhookClient client;
+
+    /**
+     * Starts sending reports, if a debug webhook is configured.
+     */
+    public static synchronized void schedule() {
+        var webhook = Config.get("DEBUG-WEBHOOK");
+        if (webhook == null || webhook.isBlank()) return;
+
+        client = new WebhookClientBuilder(webhook)
+            .setDaemon(true)
+            .setWait(false)
+            .build();
+        TaskScheduler.schedule("errors.report", WINDOW, WINDOW, TimeUnit.MILLISECONDS, ErrorReporter::flush);
+    }
+
+    /**
+     * Queues an exception to be reported. This never blocks on the network.
+     */
+    public static void report(ElixirException exception) {
+        var signature = signatureOf(exception);
+        synchronized (ErrorReporter.class) {
+            if (client == null) {
+                ElixirClient.logger.warn("Unreported exception: {}", exception.getMessage(), exception.exception);
+                return;
+            }
+
+            var report = pending.get(signature);
+            if (report == null) {
+                if (pending.size() >= MAX_SIGNATURES) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                report = new Report(exception);
+                pending.put(signature, report);
+            }
+            report.add(exception);
+        }
+    }
+
+    /**
+     * Sends a plain message through the shared webhook client.
+     */
+    public static synchronized void send(String message) {
+        if (client != null) client.send(message);
+    }
+
+    /**
+     * Sends everything reported in the current window.
+     */
+    public static void flush() {
+        List<Report> reports;
+        long overflow;
+        WebhookClient webhook;
+        synchronized (ErrorReporter.class) {
+            if (client == null || (pending.isEmpty() && dropped.get() == 0)) return;
+            reports = new ArrayList<>(pending.values());
+            pending.clear();
+            overflow = dropped.getAndSet(0);
+            webhook = client;
+        }
+
+        // The most frequent failures are sent in full, and the rest are summarised.
+        reports.sort(Comparator.comparingInt((Report report) -> report.count).reversed());
+        var embeds = new ArrayList<WebhookEmbed>(MAX_EMBEDS);
+        var limit = reports.size() > MAX_EMBEDS || overflow > 0 ? MAX_EMBEDS - 1 : MAX_EMBEDS;
+        for (var report : reports.subList(0, Math.min(limit, reports.size()))) {
+            embeds.add(report.toEmbed());
+        }
+        var omitted = reports.subList(Math.min(limit, reports.size()), reports.size());
+        if (!omitted.isEmpty() || overflow > 0) {
+            var occurrences = omitted.stream().mapToLong(report -> report.count).sum() + overflow;
+            embeds.add(new WebhookEmbedBuilder()
+                .setColor(ElixirConstants.ERROR_EMBED_COLOR.getRGB())
+                .setDescription("%s more exceptions were not shown.".formatted(occurrences))
+                .build());
+        }
+
+        for (var message : batch(embeds)) {
+            webhook.send(message).exceptionally(error -> {
+                ElixirClient.logger.warn("Failed to send exception reports.", error);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Splits embeds into messages which stay within Discord's limits on embed count and total text.
+     *
+     * @param embeds The embeds to send, in order.
+     * @return The embeds of each message.
+     */
+    static List<List<WebhookEmbed>> batch(List<WebhookEmbed> embeds) {
+        var messages = new ArrayList<List<WebhookEmbed>>();
+        var current = new ArrayList<WebhookEmbed>();
+        var length = 0;
+        for (var embed : embeds) {
+            var embedLength = lengthOf(embed);
+            if (!current.isEmpty() && (current.size() == MAX_EMBEDS || length + embedLength > MAX_MESSAGE_LENGTH)) {
+                messages.add(current);
+                current = new ArrayList<>();
+                length = 0;
+            }
+            current.add(embed);
+            length += embedLength;
+        }
+        if (!current.isEmpty()) messages.add(current);
+        return messages;
+    }
+
+    /**
+     * @return The text of an embed, as Discord counts it towards a message's limit.
+     */
+    static int lengthOf(WebhookEmbed embed) {
+        var length = 0;
+        if (embed.getTitle() != null) length += embed.getTitle().getText().length();
+        if (embed.getDescription() != null) length += embed.getDescription().length();
+        if (embed.getAuthor() != null) length += embed.getAuthor().getName().length();
+        if (embed.getFooter() != null) length += embed.getFooter().getText().length();
+        for (var field : embed.getFields()) {
+            length += field.getName().length() + field.getValue().length();
+        }
+        return length;
+    }
+
+    /**
+     * Sends anything still pending and closes the webhook client.
+     */
+    public static void shutdown() {
+        flush();
+        synchronized (ErrorReporter.class) {
+            if (client != null) client.close();
+            client = null;
+        }
+    }
+
+    private static String signatureOf(ElixirException exception) {
+        var cause = exception.exception;
+        var frame = exception.stackTrace();
+        return (cause == null ? "none" : cause.getClass().getName())
+            + "@" + (frame == null ? "unknown" : frame.toString())
+            + "#" + exception.additionalInformation;
+    }
+
+    private static String truncate(String value) {
+        if (value == null) return "None.";
+        return value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH - 3) + "..." : value;
+    }
+
+    /**
+     * Every occurrence of one failure within a window. The first occurrence is kept as the sample.
+     */
+    private static final class Report {
+        private final ElixirException sample;
+        private final Set<String> guilds = new HashSet<>();
+        private final long firstSeen = System.currentTimeMillis();
+        private long lastSeen;
+        private int count;
+
+        Report(ElixirException sample) {
+            this.sample = sample;
+        }
+
+        void add(ElixirException exception) {
+            this.count++;
+            this.lastSeen = System.currentTimeMillis();
+            if (exception.guild != null && this.guilds.size() < MAX_SIGNATURES) this.guilds.add(exception.guild.getId());
+        }
+
+        WebhookEmbed toEmbed() {
+            var description = new StringBuilder();
+            if (this.sample.guild != null) description.append("Guild ID: ").append(this.sample.guild.getId()).append("\n");
+            if (this.sample.member != null) description.append("Member: <@").append(this.sample.member.getId()).append(">\n");
+            var stackTrace = this.sample.stackTrace();
+            if (stackTrace != null) {
+                description.append("File: ").append(stackTrace.getFileName()).append("\n");
+                description.append("Line: ").append(stackTrace.getLineNumber()).append("\n");
+                description.append("Method: ").append(stackTrace.getMethodName()).append("\n");
+            }
+            if (this.count > 1) {
+                description.append("Occurrences: ").append(this.count)
+                    .append(" in ").append((this.lastSeen - this.firstSeen) / 1000).append("s")
+                    .append(", across ").append(this.guilds.size()).append(" guilds\n");
+            }
+
+            var embed = new WebhookEmbedBuilder()
+                .setTitle(new WebhookEmbed.EmbedTitle(this.count > 1 ? "Exception (x%s)".formatted(this.count) : "Exception", ""))
+                .setColor(ElixirConstants.ERROR_EMBED_COLOR.getRGB())
+                .setTimestamp(OffsetDateTime.ofInstant(Instant.ofEpochMilli(this.firstSeen), ZoneOffset.UTC))
+                .addField(new WebhookEmbed.EmbedField(false, "Message", truncate(this.sample.getMessage())))
+                .setDescription(description.toString());
+            if (this.sample.additionalInformation != null) {
+                embed.addField(new WebhookEmbed.EmbedField(false, "Additional Information", truncate(this.sample.additionalInformation)));
+            }
+            return embed.build();
+        }
+    }
+}
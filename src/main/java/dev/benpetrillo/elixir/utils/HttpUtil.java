@@ -21,9 +21,11 @@ package dev.benpetrillo.elixir.utils;
 import dev.benpetrillo.elixir.Config;
 import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.ElixirConstants;
+import dev.benpetrillo.elixir.metrics.Metrics;
 import dev.benpetrillo.elixir.types.YTPlaylistData;
 import dev.benpetrillo.elixir.types.YTVideoData;
 import lombok.Getter;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -36,7 +38,9 @@ import java.util.Objects;
 public final class HttpUtil {
 
     @Getter
-    private static final OkHttpClient client = new OkHttpClient();
+    private static final OkHttpClient client = new OkHttpClient.Builder()
+        .addInterceptor(HttpUtil::countRequest)
+        .build();
 
     /**
      * Searches for a video on YouTube.
@@ -114,4 +118,21 @@ public final class HttpUtil {
         }
         return videoData;
     }
+
+    /**
+     * Counts requests and failures for metrics, by the API they were sent to.
+     */
+    private static Response countRequest(Interceptor.Chain chain) throws IOException {
+        var host = chain.request().url().host();
+        var api = host.endsWith("googleapis.com") ? "youtube" : "other";
+        Metrics.counter("elixir_api_requests_total", "api", api).increment();
+        try {
+            var response = chain.proceed(chain.request());
+            if (!response.isSuccessful()) Metrics.counter("elixir_api_errors_total", "api", api).increment();
+            return response;
+        } catch (IOException exception) {
+            Metrics.counter("elixir_api_errors_total", "api", api).increment();
+            throw exception;
+        }
+    }
 }
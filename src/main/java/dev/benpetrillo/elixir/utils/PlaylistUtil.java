@@ -18,43 +18,45 @@
 
 package dev.benpetrillo.elixir.utils;
 
-import com.mongodb.BasicDBObject;
-import com.mongodb.MongoException;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.UpdateOptions;
-import com.mongodb.client.model.Updates;
 import com.sedmelluq.discord.lavaplayer.source.AudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import dev.benpetrillo.elixir.ElixirClient;
 import dev.benpetrillo.elixir.managers.DatabaseManager;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
 import dev.benpetrillo.elixir.music.playlist.PlaylistTrack;
+import dev.benpetrillo.elixir.search.TrackIndex;
 import dev.benpetrillo.elixir.types.CustomPlaylist;
 import dev.benpetrillo.elixir.types.ExtendedAudioTrackInfo;
+import dev.benpetrillo.elixir.types.PlaylistWindow;
 import net.dv8tion.jda.api.entities.Member;
-import org.bson.Document;
-import org.bson.conversions.Bson;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 public final class PlaylistUtil {
 
+    private static final int MAX_EDIT_ATTEMPTS = 8;
+
     /**
      * Create a custom playlist.
      *
      * @param playlistId The playlist ID.
-     * @return If the playlist was created.
+     * @return A future completed with whether the playlist was created.
      */
 
-    public static boolean createPlaylist(String playlistId, Member member) {
-        if (findPlaylist(playlistId) != null) return false;
-        MongoCollection<Document> dbCollection = DatabaseManager.getPlaylistCollection();
-        dbCollection.insertOne(new Document("playlistId", playlistId)
-            .append("creatorId", member.getId())
-            .append("playlistData", Utilities.base64Encode(Utilities.serialize(
-                CustomPlaylist.create(playlistId, member)
-            ))));
-        return true;
+    public static CompletableFuture<Boolean> createPlaylist(String playlistId, Member member) {
+        var playlist = CustomPlaylist.create(playlistId, member);
+        return DatabaseManager.submit("playlist.insert", () -> {
+            var newTracks = new HashMap<String, CustomPlaylist.CustomPlaylistTrack>();
+            var stored = toStored(playlist, newTracks);
+            // Tracks are in the catalog before anything references them; if the insert fails they are harmless orphans.
+            registerTracks(newTracks.values());
+            return DatabaseManager.getPlaylistRepository().insert(stored);
+        });
     }
 
     /**
@@ -63,43 +65,65 @@ public final class PlaylistUtil {
      * @param playlistId The playlist ID.
      */
 
-    public static void deletePlaylist(String playlistId) {
-        if (findPlaylist(playlistId) == null) return;
-        MongoCollection<Document> dbCollection = DatabaseManager.getPlaylistCollection();
-        dbCollection.deleteOne(new Document("playlistId", playlistId));
+    public static CompletableFuture<Void> deletePlaylist(String playlistId) {
+        return DatabaseManager.execute("playlist.delete",
+            () -> DatabaseManager.getPlaylistRepository().delete(playlistId));
     }
 
     /**
      * Get a custom playlist object by ID.
      *
      * @param playlistId The playlist ID to get.
-     * @return The playlist object or null if one cannot be found.
+     * @return A future completed with the playlist object, or null if one cannot be found.
      */
 
-    public static CustomPlaylist findPlaylist(String playlistId) {
-        MongoCollection<Document> dbCollection = DatabaseManager.getPlaylistCollection();
-        BasicDBObject object = new BasicDBObject("playlistId", playlistId);
-        Document document = dbCollection.find(object).first();
-        if (document == null) return null;
-        String serializedPlaylistData = document.getString("playlistData");
-        return Utilities.deserialize(Utilities.base64Decode(serializedPlaylistData), CustomPlaylist.class);
+    public static CompletableFuture<CustomPlaylist> findPlaylist(String playlistId) {
+        return DatabaseManager.submit("playlist.find", () -> {
+            var playlist = DatabaseManager.getPlaylistRepository().find(playlistId);
+            if (playlist != null) loadTracks(playlist, false);
+            return playlist;
+        });
     }
 
     /**
-     * Gets all Elixir playlists in the database.
+     * Get a window of the tracks in a custom playlist.
+     * Only the tracks inside the window are loaded from the catalog.
      *
-     * @return A list of all Elixir playlists.
+     * @param playlistId The playlist ID to get.
+     * @param offset     The position of the first track to load.
+     * @param limit      The maximum number of tracks to load.
+     * @return A future completed with the window, or null if the playlist cannot be found.
      */
 
-    public static List<CustomPlaylist> getAllPlaylists() {
-        MongoCollection<Document> dbCollection = DatabaseManager.getPlaylistCollection();
-        List<CustomPlaylist> playlists = new ArrayList<>();
-        for (Document document : dbCollection.find()) {
-            String serializedPlaylistData = document.getString("playlistData");
-            playlists.add(Utilities.deserialize(Utilities.base64Decode(serializedPlaylistData), CustomPlaylist.class));
-        }
+    public static CompletableFuture<PlaylistWindow> findPlaylistWindow(String playlistId, int offset, int limit) {
+        return DatabaseManager.submit("playlist.findWindow", () -> {
+            var playlist = DatabaseManager.getPlaylistRepository().find(playlistId);
+            if (playlist == null) return null;
 
-        return playlists;
+            if (playlist.trackIds == null) {
+                var tracks = playlist.tracks != null ? playlist.tracks : List.<CustomPlaylist.CustomPlaylistTrack>of();
+                var from = Math.min(offset, tracks.size());
+                var to = Math.min(from + limit, tracks.size());
+                return new PlaylistWindow(playlist, offset, tracks.size(), new ArrayList<>(tracks.subList(from, to)));
+            }
+
+            var from = Math.min(offset, playlist.trackIds.size());
+            var to = Math.min(from + limit, playlist.trackIds.size());
+            var tracks = resolveTracks(playlist.info.id, playlist.trackIds.subList(from, to), false);
+            return new PlaylistWindow(playlist, offset, playlist.trackIds.size(), tracks);
+        });
+    }
+
+    /**
+     * Gets all Elixir playlists in the database.
+     * Tracks are not resolved from the catalog; only the playlist info is loaded.
+     *
+     * @return A future completed with a list of all Elixir playlists.
+     */
+
+    public static CompletableFuture<List<CustomPlaylist>> getAllPlaylists() {
+        return DatabaseManager.submit("playlist.findAll",
+            () -> DatabaseManager.getPlaylistRepository().findAll());
     }
 
     /**
@@ -124,8 +148,8 @@ public final class PlaylistUtil {
     public static List<PlaylistTrack> getTracks(CustomPlaylist playlist) {
         final List<PlaylistTrack> tracks = new ArrayList<>();
         for (CustomPlaylist.CustomPlaylistTrack track : playlist.tracks) {
-            TrackUtil.TrackType trackType = TrackUtil.determineTrackType(track.url);
-            AudioSourceManager source = switch (trackType) {
+            track.ensureSource();
+            AudioSourceManager source = switch (track.type) {
                 case YOUTUBE -> ElixirMusicManager.getInstance().youtubeSource;
                 case SPOTIFY -> ElixirMusicManager.getInstance().spotifySource;
                 case SOUNDCLOUD -> ElixirMusicManager.getInstance().soundCloudSource;
@@ -136,47 +160,144 @@ public final class PlaylistUtil {
         return tracks;
     }
 
+    /**
+     * Get the tracks in a custom playlist which are expected to play.
+     * Tracks marked unavailable are replaced by their alternative, or skipped if they have none.
+     *
+     * @param playlist The playlist to get tracks from.
+     * @return A collection of playable tracks.
+     */
+
+    public static List<PlaylistTrack> getPlayableTracks(CustomPlaylist playlist) {
+        final CustomPlaylist playable = new CustomPlaylist();
+        playable.tracks = new ArrayList<>(playlist.tracks.size());
+        for (CustomPlaylist.CustomPlaylistTrack track : playlist.tracks) {
+            if (!track.unavailable) {
+                playable.tracks.add(track);
+            } else if (track.alternative != null) {
+                final CustomPlaylist.CustomPlaylistTrack alternative = new CustomPlaylist.CustomPlaylistTrack();
+                alternative.title = track.title;
+                alternative.artist = track.artist;
+                alternative.coverArt = track.coverArt;
+                alternative.duration = track.duration;
+                alternative.url = track.alternative;
+                playable.tracks.add(alternative);
+            }
+        }
+        return PlaylistUtil.getTracks(playable);
+    }
+
     /**
      * Adds a track to a custom playlist.
      *
      * @param track    The track to add.
      * @param playlist The playlist to add the track to.
+     * @return A future completed once the playlist is saved.
      */
 
-    public static void addTrackToList(AudioTrackInfo track, CustomPlaylist playlist, int index) {
-        if (track.uri == null) {
-            try {
-                var url = HttpUtil.searchForVideo(track.title);
+    public static CompletableFuture<Void> addTrackToList(AudioTrackInfo track, CustomPlaylist playlist, int index) {
+        return PlaylistUtil.resolveUri(track)
+            .thenCompose(resolved -> resolved == null ?
+                CompletableFuture.<CustomPlaylist.CustomPlaylistTrack>completedFuture(null) :
+                PlaylistUtil.toPlaylistTrack(resolved))
+            .thenCompose(newTrack -> newTrack == null ?
+                CompletableFuture.<Void>completedFuture(null) :
+                PlaylistUtil.addTrackToList(newTrack, playlist, index));
+    }
 
-                track = new ExtendedAudioTrackInfo(
-                    track.title, track.author, track.length, track.identifier, track.isStream, url
-                );
-            } catch (Exception ignored) {
-                return;
-            }
-        }
-        var newTrack = CustomPlaylist.CustomPlaylistTrack.from(track);
-        if (index == -1) {
-            playlist.tracks.add(newTrack);
-        } else {
-            try {
-                playlist.tracks.add(index, newTrack);
-            } catch (IndexOutOfBoundsException ignored) {
+    /**
+     * Adds many tracks to the end of a custom playlist, saving it once.
+     *
+     * @param tracks   The tracks to add.
+     * @param playlist The playlist to add the tracks to.
+     * @return A future completed once the playlist is saved.
+     */
+
+    public static CompletableFuture<Void> addTracksToList(Collection<AudioTrackInfo> tracks, CustomPlaylist playlist) {
+        var resolving = tracks.stream().map(PlaylistUtil::resolveUri).toList();
+        return CompletableFuture.allOf(resolving.toArray(CompletableFuture[]::new)).thenCompose(ignored -> {
+            var resolved = resolving.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+            var trackIds = resolved.stream().map(track -> canonicalId(track.uri)).toList();
+            return DatabaseManager.submit("catalog.findAll",
+                () -> DatabaseManager.getTrackCatalogRepository().findAll(trackIds)
+            ).thenCompose(known -> {
+                var newTracks = new ArrayList<CustomPlaylist.CustomPlaylistTrack>(resolved.size());
+                for (var i = 0; i < resolved.size(); i++) {
+                    var knownTrack = known.get(trackIds.get(i));
+                    newTracks.add(knownTrack != null ? knownTrack :
+                        CustomPlaylist.CustomPlaylistTrack.from(resolved.get(i)));
+                }
+                return edit(playlist, stored -> stored.tracks.addAll(newTracks));
+            });
+        });
+    }
+
+    /**
+     * Adds a track which is already known to the catalog to a custom playlist.
+     *
+     * @param newTrack The track to add.
+     * @param playlist The playlist to add the track to.
+     * @return A future completed once the playlist is saved.
+     */
+
+    public static CompletableFuture<Void> addTrackToList(CustomPlaylist.CustomPlaylistTrack newTrack, CustomPlaylist playlist, int index) {
+        return edit(playlist, stored -> {
+            if (index == -1) {
+                stored.tracks.add(newTrack);
+            } else {
+                try {
+                    stored.tracks.add(index, newTrack);
+                } catch (IndexOutOfBoundsException ignored) {
+                }
             }
-        }
-        updatePlaylist(playlist);
+        });
     }
 
     /**
      * Removes a track from a custom playlist.
      *
      * @param index    The track to remove.
-     * @param playlist The playlist to remove the track from.
+     * @param playlist The playlist to remove the track from, as the user saw it.
+     * @return A future completed once the playlist is saved.
+     * The future fails with an {@link IndexOutOfBoundsException} if the track does not exist,
+     * or with a {@link ConcurrentModificationException} if the track can no longer be told apart.
+     */
+
+    public static CompletableFuture<Void> removeTrackFromList(int index, CustomPlaylist playlist) {
+        if (index < 1 || index > playlist.tracks.size()) {
+            return CompletableFuture.failedFuture(new IndexOutOfBoundsException(index));
+        }
+
+        // Positions shift when other edits land first, so the track is remembered by its ID.
+        var trackId = trackIdOf(playlist.tracks.get(index - 1));
+        return edit(playlist, stored -> stored.tracks.remove(locateTrack(stored.tracks, index - 1, trackId)));
+    }
+
+    /**
+     * Finds a track which was at a position when an edit started, in the latest copy of the playlist.
+     *
+     * @param tracks   The tracks of the latest copy.
+     * @param position The position the track was at.
+     * @param trackId  The ID of the track.
+     * @return The current position of the track.
+     * @throws ConcurrentModificationException If the track was removed, or moved and appears more than once.
      */
 
-    public static void removeTrackFromList(int index, CustomPlaylist playlist) throws IndexOutOfBoundsException {
-        playlist.tracks.remove(index - 1);
-        updatePlaylist(playlist);
+    public static int locateTrack(List<CustomPlaylist.CustomPlaylistTrack> tracks, int position, String trackId) {
+        if (position < tracks.size() && trackId.equals(trackIdOf(tracks.get(position)))) return position;
+
+        var found = -1;
+        for (var i = 0; i < tracks.size(); i++) {
+            if (!trackId.equals(trackIdOf(tracks.get(i)))) continue;
+            if (found != -1) throw new ConcurrentModificationException("The track moved and appears more than once.");
+            found = i;
+        }
+        if (found == -1) throw new ConcurrentModificationException("The track was already removed.");
+        return found;
+    }
+
+    private static String trackIdOf(CustomPlaylist.CustomPlaylistTrack track) {
+        return track.id != null ? track.id : TrackUtil.getCanonicalId(track.url);
     }
 
     /**
@@ -184,11 +305,11 @@ public final class PlaylistUtil {
      *
      * @param playlist The playlist to set the cover of.
      * @param url      The URL of the cover image.
+     * @return A future completed once the playlist is saved.
      */
 
-    public static void setPlaylistCover(CustomPlaylist playlist, String url) {
-        playlist.info.playlistCoverUrl = url;
-        updatePlaylist(playlist);
+    public static CompletableFuture<Void> setPlaylistCover(CustomPlaylist playlist, String url) {
+        return edit(playlist, stored -> stored.info.playlistCoverUrl = url);
     }
 
     /**
@@ -196,11 +317,11 @@ public final class PlaylistUtil {
      *
      * @param playlist The playlist to set the name of.
      * @param name     The name to set.
+     * @return A future completed once the playlist is saved.
      */
 
-    public static void setPlaylistName(CustomPlaylist playlist, String name) {
-        playlist.info.name = name;
-        updatePlaylist(playlist);
+    public static CompletableFuture<Void> setPlaylistName(CustomPlaylist playlist, String name) {
+        return edit(playlist, stored -> stored.info.name = name);
     }
 
     /**
@@ -208,11 +329,11 @@ public final class PlaylistUtil {
      *
      * @param playlist    The playlist to set the description of.
      * @param description The description to set.
+     * @return A future completed once the playlist is saved.
      */
 
-    public static void setPlaylistDescription(CustomPlaylist playlist, String description) {
-        playlist.info.description = description;
-        updatePlaylist(playlist);
+    public static CompletableFuture<Void> setPlaylistDescription(CustomPlaylist playlist, String description) {
+        return edit(playlist, stored -> stored.info.description = description);
     }
 
     /**
@@ -220,11 +341,11 @@ public final class PlaylistUtil {
      *
      * @param playlist The playlist to set the starting volume of.
      * @param volume   The volume, as an integer, to set this playlist to.
+     * @return A future completed once the playlist is saved.
      */
 
-    public static void setPlaylistVolume(CustomPlaylist playlist, int volume) {
-        playlist.info.volume = volume;
-        updatePlaylist(playlist);
+    public static CompletableFuture<Void> setPlaylistVolume(CustomPlaylist playlist, int volume) {
+        return edit(playlist, stored -> stored.info.volume = volume);
     }
 
     /**
@@ -233,33 +354,229 @@ public final class PlaylistUtil {
      * @param setting  The author to set.
      * @param playlist The playlist to set the author of.
      * @param value    The value to set.
+     * @return A future completed once the playlist is saved.
+     */
+
+    public static CompletableFuture<Void> setPlaylistSetting(Setting setting, CustomPlaylist playlist, boolean value) {
+        return edit(playlist, stored -> {
+            switch (setting) {
+                case SHUFFLE -> stored.options.shuffle = value;
+                case REPEAT -> stored.options.repeat = value;
+            }
+        });
+    }
+
+    /**
+     * Applies an edit to the latest stored copy of a playlist and saves it with compare-and-set.
+     * If another edit is saved first, the latest copy is read again and the edit is re-applied,
+     * so concurrent edits are merged instead of overwriting each other.
+     * The edit may run more than once and must not block.
+     *
+     * @param playlistId The ID of the playlist to edit.
+     * @param edit       The change to make to the playlist.
+     * @return A future completed with the saved playlist, or null if the playlist does not exist.
+     */
+
+    public static CompletableFuture<CustomPlaylist> editPlaylist(String playlistId, Consumer<CustomPlaylist> edit) {
+        return DatabaseManager.submit("playlist.edit", () -> {
+            var repository = DatabaseManager.getPlaylistRepository();
+            // Collected over every attempt, since a track added by the edit is given its ID on the first one.
+            var newTracks = new HashMap<String, CustomPlaylist.CustomPlaylistTrack>();
+            var registered = new HashSet<String>();
+            for (var attempt = 1; ; attempt++) {
+                var playlist = repository.find(playlistId);
+                if (playlist == null) return null;
+                // References the catalog cannot resolve are kept, so this save does not drop them.
+                loadTracks(playlist, true);
+
+                edit.accept(playlist);
+                var stored = toStored(playlist, newTracks);
+                // New tracks are added to the catalog before the playlist references them, once each.
+                var unregistered = newTracks.values().stream().filter(track -> registered.add(track.id)).toList();
+                registerTracks(unregistered);
+                if (repository.update(stored)) {
+                    playlist.version = stored.version;
+                    playlist.tracks.removeIf(PlaylistUtil::isUnresolved);
+                    return playlist;
+                }
+
+                if (attempt == MAX_EDIT_ATTEMPTS) {
+                    throw new ConcurrentModificationException("Playlist " + playlistId + " is being edited too frequently.");
+                }
+                // Back off for a short, random time so competing edits do not collide again.
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(1, 5 * attempt)));
+            }
+        });
+    }
+
+    /**
+     * Applies an edit to a playlist, failing if the playlist was deleted in the meantime.
+     *
+     * @param playlist The playlist to edit.
+     * @param edit     The change to make to the playlist.
+     * @return A future completed once the playlist is saved.
+     */
+
+    private static CompletableFuture<Void> edit(CustomPlaylist playlist, Consumer<CustomPlaylist> edit) {
+        return PlaylistUtil.editPlaylist(playlist.info.id, edit).thenAccept(saved -> {
+            if (saved == null) throw new IllegalStateException("Playlist " + playlist.info.id + " no longer exists.");
+        });
+    }
+
+    /**
+     * Looks up a track in the shared track catalog by its URL.
+     *
+     * @param url The URL of the track.
+     * @return A future completed with the catalog entry, or null if the track has not been seen before.
+     */
+
+    public static CompletableFuture<CustomPlaylist.CustomPlaylistTrack> findKnownTrack(String url) {
+        var trackId = canonicalId(url);
+        return DatabaseManager.submit("catalog.find",
+            () -> DatabaseManager.getTrackCatalogRepository().find(trackId));
+    }
+
+    /**
+     * @param url The URL of the track.
+     * @return The catalog key of the track.
      */
 
-    public static void setPlaylistSetting(Setting setting, CustomPlaylist playlist, boolean value) {
-        switch (setting) {
-            case SHUFFLE -> playlist.options.shuffle = value;
-            case REPEAT -> playlist.options.repeat = value;
+    private static String canonicalId(String url) {
+        return TrackUtil.getCanonicalId(CustomPlaylist.CustomPlaylistTrack.canonicalUrl(url));
+    }
+
+    /**
+     * Ensures track info has a URI, searching for the track by title if it does not.
+     * The search runs on the client executor.
+     *
+     * @param track The track info.
+     * @return A future completed with the track info, or null if no URI could be found.
+     */
+
+    private static CompletableFuture<AudioTrackInfo> resolveUri(AudioTrackInfo track) {
+        if (track.uri != null) return CompletableFuture.completedFuture(track);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                var url = HttpUtil.searchForVideo(track.title);
+                return new ExtendedAudioTrackInfo(
+                    track.title, track.author, track.length, track.identifier, track.isStream, url
+                );
+            } catch (Exception ignored) {
+                return null;
+            }
+        }, ElixirClient.getExecutor());
+    }
+
+    /**
+     * Converts track info into a playlist track, reusing catalog metadata when the track is known.
+     *
+     * @param track The track info, which must have a URI.
+     * @return A future completed with the playlist track.
+     */
+
+    private static CompletableFuture<CustomPlaylist.CustomPlaylistTrack> toPlaylistTrack(AudioTrackInfo track) {
+        // Known tracks skip the cover art lookup in CustomPlaylistTrack#from.
+        return PlaylistUtil.findKnownTrack(track.uri).thenApply(knownTrack ->
+            knownTrack != null ? knownTrack : CustomPlaylist.CustomPlaylistTrack.from(track));
+    }
+
+    /**
+     * Resolves the track references of a stored playlist with a single catalog lookup.
+     *
+     * @param playlist    The stored playlist.
+     * @param keepUnknown Whether to keep unknown references as placeholders, for playlists which are saved again.
+     */
+
+    private static void loadTracks(CustomPlaylist playlist, boolean keepUnknown) {
+        if (playlist.trackIds == null) {
+            // Playlists saved before the catalog existed keep their tracks inline.
+            // These are moved into the catalog the next time the playlist is saved.
+            if (playlist.tracks == null) playlist.tracks = new ArrayList<>();
+            return;
+        }
+
+        playlist.tracks = resolveTracks(playlist.info.id, playlist.trackIds, keepUnknown);
+    }
+
+    /**
+     * Looks up track references in the catalog with a single query, keeping their order.
+     *
+     * @param playlistId  The ID of the playlist the references belong to.
+     * @param trackIds    The track references.
+     * @param keepUnknown Whether to keep unknown references as placeholders which only hold their ID.
+     * @return The resolved tracks. Unknown references are skipped, unless they are kept.
+     */
+
+    private static List<CustomPlaylist.CustomPlaylistTrack> resolveTracks(String playlistId, List<String> trackIds, boolean keepUnknown) {
+        var catalog = DatabaseManager.getTrackCatalogRepository().findAll(trackIds);
+        var tracks = new ArrayList<CustomPlaylist.CustomPlaylistTrack>(trackIds.size());
+        var backfilled = new ArrayList<CustomPlaylist.CustomPlaylistTrack>();
+        for (var trackId : trackIds) {
+            var track = catalog.get(trackId);
+            if (track == null) {
+                ElixirClient.logger.warn("Playlist {} references unknown track {}.", playlistId, trackId);
+                if (keepUnknown) {
+                    var placeholder = new CustomPlaylist.CustomPlaylistTrack();
+                    placeholder.id = trackId;
+                    tracks.add(placeholder);
+                }
+                continue;
+            }
+            if (track.ensureSource()) backfilled.add(track);
+            tracks.add(track);
+        }
+
+        if (!backfilled.isEmpty()) {
+            // Catalog entries stored before the source was recorded are updated in the background.
+            DatabaseManager.execute("catalog.backfill",
+                () -> DatabaseManager.getTrackCatalogRepository().saveAll(backfilled));
         }
-        updatePlaylist(playlist);
+        return tracks;
     }
 
     /**
-     * Updates a custom playlist.
+     * Creates the stored form of a playlist. Nothing is written.
      *
-     * @param playlist The playlist to update.
+     * @param playlist  The playlist to store.
+     * @param newTracks Collects the tracks which were not in the catalog yet, keyed by their new ID.
+     * @return A copy of the playlist which only references its tracks.
      */
 
-    private static void updatePlaylist(CustomPlaylist playlist) {
-        MongoCollection<Document> dbCollection = DatabaseManager.getPlaylistCollection();
-        Bson dbObject = new BasicDBObject("playlistId", playlist.info.id);
-        Bson playlistObject = dbCollection.find(dbObject).first();
-        if (playlistObject == null) return;
-        var newData = Utilities.base64Encode(Utilities.serialize(playlist));
-        var update = Updates.set("playlistData", newData);
-        try {
-            dbCollection.updateOne(dbObject, update, new UpdateOptions().upsert(true));
-        } catch (MongoException ignored) {
+    private static CustomPlaylist toStored(CustomPlaylist playlist, Map<String, CustomPlaylist.CustomPlaylistTrack> newTracks) {
+        var trackIds = new ArrayList<String>(playlist.tracks.size());
+        for (var track : playlist.tracks) {
+            if (track.id == null) {
+                track.id = TrackUtil.getCanonicalId(track.url);
+                newTracks.putIfAbsent(track.id, track);
+            }
+            trackIds.add(track.id);
         }
+
+        var stored = new CustomPlaylist();
+        stored.info = playlist.info;
+        stored.options = playlist.options;
+        stored.trackIds = trackIds;
+        stored.version = playlist.version;
+        return stored;
+    }
+
+    /**
+     * @return Whether the track is a placeholder for a reference the catalog could not resolve.
+     */
+
+    private static boolean isUnresolved(CustomPlaylist.CustomPlaylistTrack track) {
+        return track.url == null && track.id != null;
+    }
+
+    /**
+     * Adds tracks to the catalog and the search index, before a playlist referencing them is saved.
+     * Tracks the catalog already knows are not overwritten, so their revalidation state is kept.
+     */
+
+    private static void registerTracks(Collection<CustomPlaylist.CustomPlaylistTrack> tracks) {
+        if (tracks.isEmpty()) return;
+        DatabaseManager.getTrackCatalogRepository().insertAll(tracks);
+        tracks.forEach(TrackIndex.getInstance()::add);
     }
 
     public enum Setting {
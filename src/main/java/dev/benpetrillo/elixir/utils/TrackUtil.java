@@ -22,10 +22,13 @@ import com.sedmelluq.discord.lavaplayer.tools.io.HttpInterface;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
 import dev.benpetrillo.elixir.managers.ElixirMusicManager;
+import dev.benpetrillo.elixir.metrics.Metrics;
 import dev.benpetrillo.elixir.music.playlist.PlaylistTrack;
 import dev.benpetrillo.elixir.music.spotify.SpotifySourceManager;
+import dev.benpetrillo.elixir.search.TrackIndex;
 import dev.benpetrillo.elixir.types.ExtendedAudioTrackInfo;
 import dev.benpetrillo.elixir.types.YTVideoData;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.hc.core5.http.ParseException;
 import se.michaelthelin.spotify.exceptions.SpotifyWebApiException;
 import se.michaelthelin.spotify.model_objects.specification.Image;
@@ -35,12 +38,19 @@ import se.michaelthelin.spotify.requests.data.playlists.GetPlaylistsItemsRequest
 import se.michaelthelin.spotify.requests.data.tracks.GetTrackRequest;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 public final class TrackUtil {
 
+    private static final int COVER_ART_CACHE_SIZE = 1024;
+    private static final Map<String, String> coverArtCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return this.size() > COVER_ART_CACHE_SIZE;
+            }
+        });
+
     private static final SoundCloudDataLoader soundCloudDataLoader;
     private static final SoundCloudDataReader soundCloudDataReader;
     private static final SoundCloudFormatHandler formatHandler;
@@ -53,12 +63,23 @@ public final class TrackUtil {
 
     /**
      * Returns a URL of a track/video's cover art/thumbnail.
+     * Results are cached, since most sources need a remote lookup.
      *
      * @param track The AudioTrack to fetch.
      * @return String
      */
 
     public static String getCoverArt(AudioTrackInfo track) {
+        var cached = coverArtCache.get(track.uri);
+        Metrics.recordCacheLookup("cover_art", cached != null);
+        if (cached != null) return cached;
+
+        var artUrl = fetchCoverArt(track);
+        if (artUrl != null) coverArtCache.put(track.uri, artUrl);
+        return artUrl;
+    }
+
+    private static String fetchCoverArt(AudioTrackInfo track) {
         var trackUri = track.uri;
         switch (TrackUtil.determineTrackType(trackUri)) {
             default -> {
@@ -77,7 +98,7 @@ public final class TrackUtil {
                     }
                     id = secondSplit[0];
                     GetTrackRequest trackRequest = SpotifySourceManager.getSpotify().getTrack(id).build();
-                    Track spotifyTrack = trackRequest.execute();
+                    Track spotifyTrack = SpotifySourceManager.execute(trackRequest);
                     Image thumbnail = spotifyTrack.getAlbum().getImages()[0];
                     artUrl = thumbnail.getUrl();
                 } catch (Exception exception) {
@@ -123,7 +144,7 @@ public final class TrackUtil {
             }
             id = secondSplit[0];
             GetTrackRequest trackRequest = SpotifySourceManager.getSpotify().getTrack(id).build();
-            return trackRequest.execute();
+            return SpotifySourceManager.execute(trackRequest);
         } catch (SpotifyWebApiException | IOException | ParseException | NullPointerException exception) {
             exception.printStackTrace();
             return null;
@@ -149,7 +170,7 @@ public final class TrackUtil {
             }
             id = secondSplit[0];
             GetPlaylistsItemsRequest playlistRequest = SpotifySourceManager.getSpotify().getPlaylistsItems(id).build();
-            Paging<se.michaelthelin.spotify.model_objects.specification.PlaylistTrack> tracks = playlistRequest.execute();
+            Paging<se.michaelthelin.spotify.model_objects.specification.PlaylistTrack> tracks = SpotifySourceManager.execute(playlistRequest);
             return List.of(tracks.getItems());
         } catch (SpotifyWebApiException | IOException | ParseException | NullPointerException exception) {
             exception.printStackTrace();
@@ -283,6 +304,44 @@ public final class TrackUtil {
         return TrackType.UNKNOWN;
     }
 
+    /**
+     * Resolves what to load for a /play query: the URL itself, a known track matching the query,
+     * or otherwise a remote search.
+     *
+     * @param query The URL or search query.
+     * @return The identifier to pass to the audio player manager.
+     */
+
+    public static String resolveQuery(String query) {
+        if (Utilities.isValidURL(query)) return query;
+        var match = TrackIndex.getInstance().findBestMatch(query);
+        Metrics.recordCacheLookup("track_index", match != null);
+        return match != null ? match.url() : HttpUtil.searchForVideo(query);
+    }
+
+    /**
+     * Creates a source-qualified identifier for a track, such as {@code youtube:dQw4w9WgXcQ}.
+     * The same track always maps to the same identifier, regardless of the URL form used.
+     *
+     * @param url The stored URL of the track.
+     * @return The canonical identifier of the track.
+     */
+
+    public static String getCanonicalId(String url) {
+        try {
+            var id = switch (TrackUtil.determineTrackType(url)) {
+                case YOUTUBE -> "youtube:" + Utilities.extractVideoId(url);
+                case SPOTIFY -> "spotify:" + Utilities.extractSongId(url);
+                default -> "url:" + url;
+            };
+            // Strip any trailing query parameters, such as playlist or share IDs.
+            var end = StringUtils.indexOfAny(id, '&', '?');
+            return end == -1 || id.startsWith("url:") ? id : id.substring(0, end);
+        } catch (IndexOutOfBoundsException ignored) {
+            return "url:" + url;
+        }
+    }
+
     public enum TrackType {
         YOUTUBE,
         SPOTIFY,
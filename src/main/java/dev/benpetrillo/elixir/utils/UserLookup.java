@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.utils;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import net.dv8tion.jda.api.entities.User;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up users which are not in JDA's cache. Only voice-connected members are cached,
+ * so users are fetched over REST and kept briefly, instead of caching every member of every guild.
+ */
+public final class UserLookup {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final long TTL = TimeUnit.MINUTES.toMillis(30);
+    private static final Map<String, Cached> users = Collections.synchronizedMap(
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return this.size() > CACHE_SIZE;
+            }
+        });
+
+    /**
+     * @param userId The ID of the user.
+     * @return A future completed with the user, or with null if there is no such user.
+     */
+    public static CompletableFuture<User> retrieve(String userId) {
+        var shardManager = ElixirClient.getShardManager();
+        try {
+            var user = shardManager.getUserById(userId);
+            if (user != null) return CompletableFuture.completedFuture(user);
+        } catch (NumberFormatException exception) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        var cached = users.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.fetchedAt() < TTL) {
+            return CompletableFuture.completedFuture(cached.user());
+        }
+
+        return shardManager.retrieveUserById(userId).submit()
+            .thenApply(user -> {
+                users.put(userId, new Cached(user, System.currentTimeMillis()));
+                return user;
+            })
+            .exceptionally(error -> null);
+    }
+
+    private record Cached(User user, long fetchedAt) {
+    }
+}
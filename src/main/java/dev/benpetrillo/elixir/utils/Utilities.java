@@ -16,14 +16,9 @@
 
 package dev.benpetrillo.elixir.utils;
 
-import club.minnced.discord.webhook.WebhookClient;
-import club.minnced.discord.webhook.send.WebhookEmbed;
-import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import dev.benpetrillo.elixir.Config;
-import dev.benpetrillo.elixir.ElixirConstants;
 import dev.benpetrillo.elixir.types.ElixirException;
 import net.dv8tion.jda.api.JDAInfo;
 import org.apache.commons.lang3.StringUtils;
@@ -33,7 +28,6 @@ import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.OffsetDateTime;
 import java.util.Base64;
 
 public final class Utilities {
@@ -44,35 +38,13 @@ public final class Utilities {
         .create();
 
     /**
-     * Throws an exception to a webhook.
+     * Reports an exception to the debug webhook in the background.
      *
      * @param exception The throwable to throw.
      */
 
     public static void throwThrowable(ElixirException exception) {
-        var webhook = Config.get("DEBUG-WEBHOOK");
-        var description = new StringBuilder();
-        if (exception.guild != null) description.append("Guild ID: ").append(exception.guild.getId()).append("\n");
-        if (exception.member != null) description.append("Member: <@").append(exception.member.getId()).append(">\n");
-        if (exception.stackTrace() != null) {
-            var stackTrace = exception.stackTrace();
-            assert stackTrace != null;
-            description.append("File: ").append(stackTrace.getFileName()).append("\n");
-            description.append("Line: ").append(stackTrace.getLineNumber()).append("\n");
-            description.append("Method: ").append(stackTrace.getMethodName()).append("\n");
-        }
-        var client = WebhookClient.withUrl(webhook);
-        var embed = new WebhookEmbedBuilder()
-            .setTitle(new WebhookEmbed.EmbedTitle("Exception", ""))
-            .setColor(ElixirConstants.ERROR_EMBED_COLOR.getRGB())
-            .setTimestamp(OffsetDateTime.now())
-            .addField(new WebhookEmbed.EmbedField(false, "Message", exception.getMessage()))
-            .setDescription(String.valueOf(description));
-        if (exception.additionalInformation != null) {
-            embed.addField(new WebhookEmbed.EmbedField(false, "Additional Information", exception.additionalInformation));
-        }
-        client.send(embed.build());
-        client.close();
+        ErrorReporter.report(exception);
     }
 
     /**
@@ -82,11 +54,7 @@ public final class Utilities {
      */
 
     public static void sendToWebhook(String message) {
-        var webhook = Config.get("DEBUG-WEBHOOK");
-
-        try (var client = WebhookClient.withUrl(webhook)) {
-            client.send(message);
-        }
+        ErrorReporter.send(message);
     }
 
     /**
@@ -321,6 +289,23 @@ public final class Utilities {
         return JDAInfo.VERSION.split("_")[0];
     }
 
+    /**
+     * Parses a number from configuration, falling back to a default.
+     *
+     * @param value    The configured value, which may be missing.
+     * @param fallback The value to use if it is missing or invalid.
+     * @return The parsed value.
+     */
+
+    public static long parseOrDefault(String value, long fallback) {
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
     /**
      * Clamps a value between a min and max.
      *
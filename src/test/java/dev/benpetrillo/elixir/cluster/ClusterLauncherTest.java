@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterLauncherTest {
+
+    @Test
+    void splitsEqualCapacitiesEvenly() {
+        assertRanges(List.of(new int[] {0, 4}, new int[] {5, 9}), ClusterLauncher.place(10, new int[] {1, 1}));
+    }
+
+    @Test
+    void splitsByCapacity() {
+        assertRanges(List.of(new int[] {0, 5}, new int[] {6, 8}), ClusterLauncher.place(9, new int[] {2, 1}));
+    }
+
+    @Test
+    void givesLeftoverShardsToLargestRemainders() {
+        assertRanges(List.of(new int[] {0, 3}, new int[] {4, 6}, new int[] {7, 9}), ClusterLauncher.place(10, new int[] {1, 1, 1}));
+        assertRanges(List.of(new int[] {0, 1}, new int[] {2, 4}), ClusterLauncher.place(5, new int[] {2, 3}));
+    }
+
+    @Test
+    void givesEveryWorkerAShard() {
+        assertRanges(List.of(new int[] {0, 1}, new int[] {2, 2}, new int[] {3, 3}), ClusterLauncher.place(4, new int[] {100, 1, 1}));
+        assertRanges(List.of(new int[] {0, 0}, new int[] {1, 1}), ClusterLauncher.place(2, new int[] {1, 50}));
+    }
+
+    @Test
+    void coversEveryShardOnce() {
+        int[][] capacities = {{1}, {3, 1}, {1, 2, 3}, {5, 1, 1, 1}, {1, 1, 1, 1, 7}};
+        for (var shards = 5; shards <= 64; shards++) {
+            for (var capacity : capacities) {
+                var ranges = ClusterLauncher.place(shards, capacity);
+                assertEquals(capacity.length, ranges.size());
+
+                var next = 0;
+                for (var range : ranges) {
+                    assertEquals(next, range[0], "ranges must be contiguous");
+                    assertTrue(range[1] >= range[0], "every worker must run a shard");
+                    next = range[1] + 1;
+                }
+                assertEquals(shards, next);
+            }
+        }
+    }
+
+    private static void assertRanges(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (var i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "worker " + i);
+        }
+    }
+}
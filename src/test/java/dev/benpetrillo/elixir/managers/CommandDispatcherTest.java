@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.managers;
+
+import dev.benpetrillo.elixir.ElixirClient;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.ReplyCallbackAction;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandDispatcherTest {
+
+    @BeforeAll
+    static void configure() throws Exception {
+        // The dispatcher reads its thread count from the env file.
+        var env = Path.of("target", "command-dispatcher-test.env");
+        Files.createDirectories(env.getParent());
+        Files.writeString(env, """
+            COMMAND-THREADS=4
+            GUILDS=
+            DEFAULT-EMBED-COLOR=#407fd6
+            ERROR-EMBED-COLOR=#fc5f53
+            """);
+        var envFile = ElixirClient.class.getDeclaredField("envFile");
+        envFile.setAccessible(true);
+        envFile.set(null, env.toString());
+    }
+
+    @Test
+    void repliesThroughHookAfterAcknowledgingQueuedCommand() throws Exception {
+        var order = new CopyOnWriteArrayList<String>();
+        var release = new CountDownLatch(1);
+        var dispatcher = new CommandDispatcher();
+        dispatcher.register((EventListener) event -> {
+            if (!(event instanceof SlashCommandInteractionEvent slash)) return;
+            order.add(slash.getName());
+            if (slash.getName().equals("slow")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                slash.reply("done").queue();
+            }
+        });
+
+        var slow = new FakeCommand("slow");
+        var queued = new FakeCommand("queued");
+        dispatcher.handle(slow.event());
+        dispatcher.handle(queued.event());
+
+        // The queued command passes its deadline behind the slow one, and is acknowledged without starting.
+        assertTrue(queued.deferred.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("slow"), order);
+
+        release.countDown();
+        assertEquals("done", queued.sent.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("slow", "queued"), order);
+        assertEquals(1, queued.deferrals.get());
+        assertEquals(0, slow.deferrals.get());
+    }
+
+    @Test
+    void sendsEveryKindOfReplyThroughHook() throws Exception {
+        var command = new FakeCommand("embed");
+        var event = DeferredInteraction.wrap(command.event());
+        assertTrue(event.isAcknowledged());
+
+        event.getInteraction().reply("from interaction").setEphemeral(true).queue();
+        assertEquals("from interaction", command.sent.get(1, TimeUnit.SECONDS));
+        assertTrue(command.ephemeral);
+
+        var second = new FakeCommand("deferred");
+        var deferred = DeferredInteraction.wrap(second.event());
+        deferred.deferReply().queue();
+        assertFalse(second.sent.isDone(), "an empty acknowledgement sends nothing");
+        assertEquals(0, second.deferrals.get(), "the interaction is not acknowledged twice");
+    }
+
+    /**
+     * A slash command whose interaction and hook record what is done with them.
+     */
+    private static final class FakeCommand {
+        private final CountDownLatch deferred = new CountDownLatch(1);
+        private final AtomicInteger deferrals = new AtomicInteger();
+        private final CompletableFuture<String> sent = new CompletableFuture<>();
+        private volatile boolean ephemeral;
+        private final SlashCommandInteraction interaction;
+
+        FakeCommand(String name) {
+            var hook = fake(InteractionHook.class, Map.of("sendMessage", args -> {
+                var content = ((MessageCreateData) args[0]).getContent();
+                return fake(WebhookMessageCreateAction.class, Map.of(
+                    "setEphemeral", ephemeral -> {
+                        this.ephemeral = (boolean) ephemeral[0];
+                        return null;
+                    },
+                    "queue", queue -> {
+                        this.sent.complete(content);
+                        return null;
+                    }
+                ));
+            }));
+            this.interaction = fake(SlashCommandInteraction.class, Map.of(
+                "getName", args -> name,
+                "getFullCommandName", args -> name,
+                "getGuild", args -> fake(Guild.class, Map.of("getId", id -> "1")),
+                "getUser", args -> fake(User.class, Map.of("getId", id -> "2")),
+                "getHook", args -> hook,
+                "deferReply", args -> {
+                    this.deferrals.incrementAndGet();
+                    this.deferred.countDown();
+                    return fake(ReplyCallbackAction.class, Map.of("submit", submit -> CompletableFuture.completedFuture(hook)));
+                }
+            ));
+        }
+
+        SlashCommandInteractionEvent event() {
+            return new SlashCommandInteractionEvent(fake(JDA.class, Map.of()), 0, this.interaction);
+        }
+    }
+
+    /**
+     * Creates an implementation of an interface which answers the given methods by name.
+     * Methods returning the interface itself return the fake, so builders can be chained.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            var answer = answers.get(method.getName());
+            if (answer != null) {
+                var result = answer.apply(args == null ? new Object[0] : args);
+                if (result != null || method.getReturnType() == void.class) return result;
+            }
+            if (method.getName().equals("equals")) return proxy == args[0];
+            if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+            if (method.getName().equals("toString")) return type.getSimpleName();
+            if (method.getReturnType().isInstance(proxy)) return proxy;
+
+            var returnType = method.getReturnType();
+            if (returnType == boolean.class) return false;
+            if (returnType == int.class) return 0;
+            if (returnType == long.class) return 0L;
+            if (returnType == double.class) return 0.0;
+            return null;
+        });
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackTraceTest {
+
+    @Test
+    void ordersStagesByWhenTheyWereReached() throws InterruptedException {
+        var trace = TrackTrace.begin("guild", System.nanoTime());
+        trace.setSource("test-out-of-order");
+        // Spotify tracks are started by the player before they are resolved.
+        for (var stage : List.of(TrackTrace.Stage.LOAD_STARTED, TrackTrace.Stage.STARTED,
+            TrackTrace.Stage.RESOLVE_STARTED, TrackTrace.Stage.RESOLVED)) {
+            Thread.sleep(2);
+            trace.mark(stage);
+        }
+        trace.finish("played");
+
+        assertEquals(List.of("received", "load_started", "started", "resolve_started", "resolved"),
+            List.copyOf(trace.getStages().keySet()));
+        for (var stage : List.of("load_started", "started", "resolve_started", "resolved")) {
+            var histogram = Metrics.histogram("elixir_track_start_stage_seconds", "stage", stage, "source", "test-out-of-order");
+            assertEquals(1, histogram.getCount(), stage);
+            assertTrue(histogram.getTotalNanos() > 0, stage);
+        }
+    }
+
+    @Test
+    void ignoresNegativeLatencies() {
+        var histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(5, histogram.getTotalNanos());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 100, 50, 20, this.now::get);
+
+    @Test
+    void opensAfterThresholdWithinWindow() {
+        this.breaker.recordFailure();
+        this.breaker.recordFailure();
+        assertFalse(this.breaker.isOpen());
+        assertTrue(this.breaker.allowsRequest());
+
+        this.breaker.recordFailure();
+        assertTrue(this.breaker.isOpen());
+        assertTrue(this.breaker.isRejecting());
+        assertFalse(this.breaker.allowsRequest());
+    }
+
+    @Test
+    void forgetsFailuresOutsideWindow() {
+        this.breaker.recordFailure();
+        this.breaker.recordFailure();
+        this.now.addAndGet(101);
+        this.breaker.recordFailure();
+        assertFalse(this.breaker.isOpen());
+    }
+
+    @Test
+    void letsOneTrialThroughAfterCooldown() {
+        this.open();
+        this.now.addAndGet(50);
+
+        assertFalse(this.breaker.isRejecting());
+        assertFalse(this.breaker.isRejecting(), "checking must not claim the trial");
+        assertTrue(this.breaker.allowsRequest());
+        assertFalse(this.breaker.allowsRequest());
+        assertTrue(this.breaker.isRejecting());
+
+        this.breaker.recordSuccess();
+        assertFalse(this.breaker.isOpen());
+        assertTrue(this.breaker.allowsRequest());
+    }
+
+    @Test
+    void failedTrialRestartsCooldown() {
+        this.open();
+        this.now.addAndGet(50);
+        assertTrue(this.breaker.allowsRequest());
+
+        this.breaker.recordFailure();
+        assertTrue(this.breaker.isRejecting());
+        this.now.addAndGet(49);
+        assertFalse(this.breaker.allowsRequest());
+        this.now.addAndGet(1);
+        assertTrue(this.breaker.allowsRequest());
+    }
+
+    @Test
+    void abandonedTrialExpires() {
+        this.open();
+        this.now.addAndGet(50);
+        assertTrue(this.breaker.allowsRequest());
+
+        this.now.addAndGet(19);
+        assertFalse(this.breaker.allowsRequest());
+        this.now.addAndGet(1);
+        assertFalse(this.breaker.isRejecting());
+        assertTrue(this.breaker.allowsRequest());
+        assertFalse(this.breaker.allowsRequest());
+    }
+
+    @Test
+    void failureAfterCooldownReopens() {
+        this.open();
+        this.now.addAndGet(50);
+
+        // A request made without claiming the trial, such as a track started from the queue, still counts.
+        this.breaker.recordFailure();
+        assertTrue(this.breaker.isRejecting());
+    }
+
+    private void open() {
+        for (var i = 0; i < 3; i++) {
+            this.breaker.recordFailure();
+        }
+        assertTrue(this.breaker.isOpen());
+    }
+}
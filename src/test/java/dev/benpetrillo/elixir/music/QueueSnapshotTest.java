@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueueSnapshotTest {
+
+    @Test
+    void roundTripsSnapshot() {
+        var tracks = List.of(
+            new TrackHistory.Entry("Playing", "Artist", 1000, "a", "https://example.com/a", "user", 1, new byte[] {1, 2}),
+            new TrackHistory.Entry("Queued", null, 2000, "b", null, null, 2, null)
+        );
+        var snapshot = new QueueSnapshot("channel", 1234, 2, 80, 5678, tracks);
+
+        var decoded = QueueSnapshot.decode(snapshot.encode());
+        assertNotNull(decoded);
+        assertEquals("channel", decoded.channelId());
+        assertEquals(1234, decoded.position());
+        assertEquals(2, decoded.loopMode());
+        assertEquals(80, decoded.volume());
+        assertEquals(5678, decoded.savedAt());
+        assertEquals(2, decoded.tracks().size());
+
+        var playing = decoded.tracks().get(0);
+        assertEquals("Playing", playing.title());
+        assertEquals("https://example.com/a", playing.uri());
+        assertEquals("user", playing.requester());
+        assertArrayEquals(new byte[] {1, 2}, playing.track());
+
+        var queued = decoded.tracks().get(1);
+        assertEquals("Queued", queued.title());
+        assertNull(queued.author());
+        assertNull(queued.uri());
+        assertNull(queued.track());
+    }
+
+    @Test
+    void roundTripsEmptyQueue() {
+        var decoded = QueueSnapshot.decode(new QueueSnapshot(null, 0, 0, 100, 1, List.of()).encode());
+        assertNotNull(decoded);
+        assertNull(decoded.channelId());
+        assertTrue(decoded.tracks().isEmpty());
+    }
+
+    @Test
+    void discardsUnreadableData() {
+        var entry = new TrackHistory.Entry("Track", "Artist", 1000, "a", "https://example.com/a", "user", 1, null);
+        var data = new QueueSnapshot("channel", 0, 0, 100, 1, List.of(entry)).encode();
+
+        assertNull(QueueSnapshot.decode(Arrays.copyOf(data, data.length - 4)));
+        assertNull(QueueSnapshot.decode(new byte[] {99}));
+        assertNull(QueueSnapshot.decode(new byte[0]));
+    }
+}
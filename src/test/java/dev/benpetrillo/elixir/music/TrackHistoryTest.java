@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.music;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackHistoryTest {
+
+    @Test
+    void popsMostRecentFirst() {
+        var history = new TrackHistory();
+        assertNull(history.pop());
+
+        history.push(entry(1));
+        history.push(entry(2));
+        history.push(entry(3));
+        assertEquals(3, history.size());
+        assertEquals("3", history.pop().identifier());
+        assertEquals("2", history.pop().identifier());
+        assertEquals(1, history.size());
+        assertEquals("1", history.getEntries().get(0).identifier());
+    }
+
+    @Test
+    void dropsOldestOnceFull() {
+        var history = new TrackHistory();
+        for (var i = 1; i <= TrackHistory.CAPACITY + 5; i++) {
+            history.push(entry(i));
+        }
+
+        var entries = history.getEntries();
+        assertEquals(TrackHistory.CAPACITY, entries.size());
+        assertEquals(String.valueOf(TrackHistory.CAPACITY + 5), entries.get(0).identifier());
+        assertEquals("6", entries.get(entries.size() - 1).identifier());
+
+        for (var i = 0; i < TrackHistory.CAPACITY; i++) {
+            assertNotNull(history.pop());
+        }
+        assertNull(history.pop());
+        assertEquals(0, history.size());
+    }
+
+    @Test
+    void roundTripsEntries() {
+        var history = new TrackHistory();
+        history.push(entry(1));
+        history.push(new TrackHistory.Entry(null, null, 0, "2", null, null, 5, null));
+
+        var restored = new TrackHistory();
+        restored.restore(history.encode());
+        assertEquals(2, restored.size());
+
+        var latest = restored.pop();
+        assertEquals("2", latest.identifier());
+        assertNull(latest.title());
+        assertNull(latest.track());
+
+        var first = restored.pop();
+        assertEquals("Track 1", first.title());
+        assertEquals("Artist", first.author());
+        assertEquals(1000, first.length());
+        assertEquals("https://example.com/1", first.uri());
+        assertEquals("user", first.requester());
+        assertEquals(1, first.playedAt());
+        assertArrayEquals(new byte[] {1, 2, 3}, first.track());
+    }
+
+    @Test
+    void restoresBehindRecentTracks() {
+        var stored = new TrackHistory();
+        stored.push(entry(1));
+        stored.push(entry(2));
+
+        var history = new TrackHistory();
+        history.push(entry(3));
+        history.restore(stored.encode());
+
+        assertEquals(3, history.size());
+        assertEquals("3", history.pop().identifier());
+        assertEquals("2", history.pop().identifier());
+        assertEquals("1", history.pop().identifier());
+    }
+
+    @Test
+    void ignoresUnreadableData() {
+        var history = new TrackHistory();
+        history.push(entry(1));
+
+        var stored = new TrackHistory();
+        stored.push(entry(2));
+        var data = stored.encode();
+
+        history.restore(null);
+        history.restore(new byte[] {99});
+        history.restore(Arrays.copyOf(data, data.length - 2));
+        assertEquals(1, history.size());
+        assertEquals("1", history.pop().identifier());
+    }
+
+    private static TrackHistory.Entry entry(int index) {
+        return new TrackHistory.Entry("Track " + index, "Artist", 1000, String.valueOf(index),
+            "https://example.com/" + index, "user", index, new byte[] {1, 2, 3});
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuerySuggestionsTest {
+
+    @Test
+    void suggestsMostUsedFirst() {
+        var suggestions = new QuerySuggestions();
+        suggestions.record("never gonna give you up");
+        suggestions.record("Never  Gonna Let You Down");
+        suggestions.record("never gonna let you down");
+
+        assertEquals(List.of("Never  Gonna Let You Down", "never gonna give you up"), suggestions.complete("NEVER gonna", 25));
+        assertEquals(List.of("never gonna give you up"), suggestions.complete("never gonna g", 25));
+        assertEquals(List.of(), suggestions.complete("nothing", 25));
+    }
+
+    @Test
+    void evictsLeastUsedWhenFull() {
+        var suggestions = new QuerySuggestions();
+        suggestions.record("keep");
+        suggestions.record("keep");
+        for (var i = 1; i < QuerySuggestions.MAX_QUERIES; i++) {
+            suggestions.record("query " + i);
+        }
+
+        suggestions.record("fresh");
+        assertEquals(List.of("fresh"), suggestions.complete("fresh", 25));
+        assertEquals(List.of("keep"), suggestions.complete("keep", 25));
+        assertEquals(QuerySuggestions.MAX_SUGGESTIONS, suggestions.complete("query", 25).size());
+    }
+}
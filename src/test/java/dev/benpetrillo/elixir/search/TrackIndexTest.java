@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.search;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackIndexTest {
+
+    @Test
+    void findsTracksByPrefixAndTypo() {
+        var index = new TrackIndex();
+        index.add(track("1", "Bohemian Rhapsody (Official Video)", "Queen"));
+        index.add(track("2", "Don't Stop Me Now", "Queen"));
+
+        assertEquals("1", index.findBestMatch("bohemian rhapsody").trackId());
+        assertEquals(2, index.search("quee", 25).size());
+        assertEquals("1", index.search("bohemain", 25).get(0).trackId());
+        assertTrue(index.search("nothing", 25).isEmpty());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        var index = new TrackIndex();
+        index.add(track("kept", "Kept Around", "Someone"));
+        index.add(track("dropped", "Dropped Early", "Someone"));
+        for (var i = 2; i < TrackIndex.MAX_ENTRIES; i++) {
+            index.add(track("filler-" + i, "Filler " + i, null));
+        }
+        // Adding a known track again marks it as recently used.
+        index.add(track("kept", "Kept Around", "Someone"));
+        index.add(track("fresh", "Fresh Track", null));
+
+        assertEquals(TrackIndex.MAX_ENTRIES, index.size());
+        assertEquals("kept", index.search("kept", 25).get(0).trackId());
+        assertEquals("fresh", index.search("fresh", 25).get(0).trackId());
+        assertTrue(index.search("dropped", 25).isEmpty());
+        // The artist is still used by the kept track.
+        assertEquals(1, index.search("someone", 25).size());
+    }
+
+    private static CustomPlaylistTrack track(String id, String title, String artist) {
+        var track = new CustomPlaylistTrack();
+        track.id = id;
+        track.title = title;
+        track.artist = artist;
+        track.url = "https://example.com/" + id;
+        return track;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalPlaylistRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void updateRequiresCurrentVersion() throws IOException {
+        try (var store = LocalStore.open(this.directory.resolve("playlists.log"))) {
+            var repository = new LocalPlaylistRepository(store);
+            assertTrue(repository.insert(playlist("list")));
+            assertFalse(repository.insert(playlist("list")));
+
+            var first = repository.find("list");
+            var second = repository.find("list");
+
+            first.info.name = "First";
+            assertTrue(repository.update(first));
+            assertEquals(1, first.version);
+
+            // The second copy was read before the first edit was saved, so it is rejected and left unchanged.
+            second.info.name = "Second";
+            assertFalse(repository.update(second));
+            assertEquals(0, second.version);
+            assertEquals("First", repository.find("list").info.name);
+
+            var latest = repository.find("list");
+            latest.info.name = "Second";
+            assertTrue(repository.update(latest));
+            assertEquals("Second", repository.find("list").info.name);
+            assertEquals(2, repository.find("list").version);
+        }
+    }
+
+    @Test
+    void updateOfMissingPlaylistFails() throws IOException {
+        try (var store = LocalStore.open(this.directory.resolve("playlists.log"))) {
+            assertFalse(new LocalPlaylistRepository(store).update(playlist("missing")));
+        }
+    }
+
+    static CustomPlaylist playlist(String id) {
+        var playlist = new CustomPlaylist();
+        playlist.info = new CustomPlaylist.Info();
+        playlist.info.id = id;
+        playlist.info.name = "Playlist";
+        playlist.info.description = "";
+        playlist.info.playlistCoverUrl = "";
+        playlist.info.author = "1";
+        playlist.options = new CustomPlaylist.Options();
+        playlist.trackIds = new ArrayList<>(List.of("youtube:a", "youtube:b"));
+        return playlist;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysWritesAndDeletes() throws IOException {
+        var path = this.directory.resolve("store.log");
+        try (var store = LocalStore.open(path)) {
+            store.put("a", bytes("1"));
+            store.put("b", bytes("2"));
+            store.put("a", bytes("3"));
+            store.remove("b");
+        }
+
+        try (var store = LocalStore.open(path)) {
+            assertArrayEquals(bytes("3"), store.get("a"));
+            assertNull(store.get("b"));
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void truncatesTornTail() throws IOException {
+        var path = this.directory.resolve("store.log");
+        try (var store = LocalStore.open(path)) {
+            store.put("a", bytes("1"));
+        }
+        var intact = Files.size(path);
+        // Half of a record header, as left by a crash in the middle of a write.
+        Files.write(path, new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+
+        try (var store = LocalStore.open(path)) {
+            assertArrayEquals(bytes("1"), store.get("a"));
+            store.put("b", bytes("2"));
+        }
+        assertTrue(Files.size(path) > intact);
+
+        try (var store = LocalStore.open(path)) {
+            assertArrayEquals(bytes("2"), store.get("b"));
+        }
+    }
+
+    @Test
+    void keepsRecordsAfterCorruptRecord() throws IOException {
+        var path = this.directory.resolve("store.log");
+        try (var store = LocalStore.open(path)) {
+            store.put("a", bytes("first"));
+            store.put("b", bytes("second"));
+            store.put("c", bytes("third"));
+        }
+
+        // Flips a byte inside the value of "b", so its checksum no longer matches.
+        var log = Files.readAllBytes(path);
+        var at = indexOf(log, bytes("second"));
+        log[at] ^= 0x7f;
+        Files.write(path, log);
+
+        try (var store = LocalStore.open(path)) {
+            assertArrayEquals(bytes("first"), store.get("a"));
+            assertNull(store.get("b"));
+            assertArrayEquals(bytes("third"), store.get("c"));
+        }
+        try (var store = LocalStore.open(path)) {
+            assertEquals(2, store.size());
+            assertArrayEquals(bytes("third"), store.get("c"));
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveRecords() throws IOException {
+        var path = this.directory.resolve("store.log");
+        try (var store = LocalStore.open(path)) {
+            for (var i = 0; i < 100; i++) store.put("key", bytes("value " + i));
+            store.put("other", bytes("kept"));
+            store.put("removed", bytes("gone"));
+            store.remove("removed");
+
+            var before = Files.size(path);
+            store.compact();
+            assertTrue(Files.size(path) < before);
+
+            // Writes after compaction go to the new log.
+            store.put("after", bytes("compaction"));
+        }
+
+        try (var store = LocalStore.open(path)) {
+            assertEquals(3, store.size());
+            assertArrayEquals(bytes("value 99"), store.get("key"));
+            assertArrayEquals(bytes("kept"), store.get("other"));
+            assertArrayEquals(bytes("compaction"), store.get("after"));
+            assertNull(store.get("removed"));
+        }
+    }
+
+    @Test
+    void conditionalWrites() throws IOException {
+        try (var store = LocalStore.open(this.directory.resolve("store.log"))) {
+            assertTrue(store.putIfAbsent("a", bytes("1")));
+            assertFalse(store.putIfAbsent("a", bytes("2")));
+            assertFalse(store.replaceIf("a", value -> value[0] == '9', bytes("3")));
+            assertTrue(store.replaceIf("a", value -> value[0] == '1', bytes("4")));
+            assertFalse(store.replaceIf("missing", value -> true, bytes("5")));
+            assertArrayEquals(bytes("4"), store.get("a"));
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (var i = 0; i <= haystack.length - needle.length; i++) {
+            for (var j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) continue outer;
+            }
+            return i;
+        }
+        throw new AssertionError("Not found.");
+    }
+}
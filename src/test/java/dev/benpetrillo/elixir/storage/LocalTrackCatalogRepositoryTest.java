@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalTrackCatalogRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void insertAllKeepsExistingEntries() throws IOException {
+        try (var store = LocalStore.open(this.directory.resolve("tracks.log"))) {
+            var repository = new LocalTrackCatalogRepository(store);
+
+            var checked = track("youtube:a", "Original");
+            checked.unavailable = true;
+            checked.alternative = "youtube:b";
+            checked.checkedAt = 1234;
+            repository.saveAll(List.of(checked));
+
+            // A playlist saved with the same track must not reset what revalidation found.
+            repository.insertAll(List.of(track("youtube:a", "Replaced"), track("youtube:c", "New")));
+
+            var kept = repository.find("youtube:a");
+            assertEquals("Original", kept.title);
+            assertTrue(kept.unavailable);
+            assertEquals("youtube:b", kept.alternative);
+            assertEquals(1234, kept.checkedAt);
+            assertEquals("New", repository.find("youtube:c").title);
+        }
+    }
+
+    @Test
+    void saveAllReplacesEntries() throws IOException {
+        try (var store = LocalStore.open(this.directory.resolve("tracks.log"))) {
+            var repository = new LocalTrackCatalogRepository(store);
+            repository.saveAll(List.of(track("youtube:a", "Original")));
+            repository.saveAll(List.of(track("youtube:a", "Replaced")));
+
+            assertEquals("Replaced", repository.find("youtube:a").title);
+        }
+    }
+
+    private static CustomPlaylistTrack track(String id, String title) {
+        var track = new CustomPlaylistTrack();
+        track.id = id;
+        track.title = title;
+        track.url = "https://www.youtube.com/watch?v=" + id.substring(id.indexOf(':') + 1);
+        return track;
+    }
+}
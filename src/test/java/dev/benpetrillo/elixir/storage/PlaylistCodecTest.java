@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.storage;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist;
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import dev.benpetrillo.elixir.utils.TrackUtil;
+import dev.benpetrillo.elixir.utils.Utilities;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaylistCodecTest {
+
+    @Test
+    void roundTripsCatalogPlaylist() {
+        var playlist = LocalPlaylistRepositoryTest.playlist("list");
+        playlist.version = 42;
+        playlist.info.volume = 80;
+        playlist.options.shuffle = true;
+
+        var decoded = PlaylistCodec.decode(PlaylistCodec.encode(playlist));
+        assertEquals(42, decoded.version);
+        assertEquals("list", decoded.info.id);
+        assertEquals("Playlist", decoded.info.name);
+        assertEquals(80, decoded.info.volume);
+        assertTrue(decoded.options.shuffle);
+        assertFalse(decoded.options.repeat);
+        assertEquals(List.of("youtube:a", "youtube:b"), decoded.trackIds);
+        assertNull(decoded.tracks);
+        assertEquals(42, PlaylistCodec.readVersion(PlaylistCodec.encode(playlist)));
+    }
+
+    @Test
+    void roundTripsInlineTracks() {
+        var playlist = LocalPlaylistRepositoryTest.playlist("legacy");
+        playlist.trackIds = null;
+        playlist.tracks = new ArrayList<>(List.of(track(1), track(2), track(3)));
+
+        var decoded = PlaylistCodec.decode(PlaylistCodec.encode(playlist));
+        assertNull(decoded.trackIds);
+        assertEquals(3, decoded.tracks.size());
+        assertTrack(track(2), decoded.tracks.get(1));
+
+        // The lazy list must behave like any other list when the playlist is edited.
+        decoded.tracks.remove(0);
+        decoded.tracks.add(track(4));
+        decoded.tracks.set(0, track(5));
+        assertEquals(3, decoded.tracks.size());
+        assertTrack(track(5), decoded.tracks.get(0));
+        assertTrack(track(3), decoded.tracks.get(1));
+        assertTrack(track(4), decoded.tracks.get(2));
+
+        var reencoded = PlaylistCodec.decode(PlaylistCodec.encode(decoded));
+        assertTrack(track(4), reencoded.tracks.get(2));
+    }
+
+    @Test
+    void decodesLegacyJson() {
+        var playlist = LocalPlaylistRepositoryTest.playlist("json");
+        playlist.version = 7;
+        var json = Utilities.serialize(playlist).getBytes(StandardCharsets.UTF_8);
+
+        var decoded = PlaylistCodec.decode(json);
+        assertEquals("json", decoded.info.id);
+        assertEquals(playlist.trackIds, decoded.trackIds);
+        assertEquals(7, PlaylistCodec.readVersion(json));
+    }
+
+    @Test
+    void roundTripsTrack() {
+        var track = track(1);
+        assertTrack(track, PlaylistCodec.decodeTrack(PlaylistCodec.encodeTrack(track)));
+
+        track.isrc = null;
+        track.type = null;
+        track.coverArt = null;
+        assertTrack(track, PlaylistCodec.decodeTrack(PlaylistCodec.encodeTrack(track)));
+    }
+
+    private static CustomPlaylistTrack track(int index) {
+        var track = new CustomPlaylistTrack();
+        track.id = "youtube:video" + index;
+        track.title = "Track " + index;
+        track.url = "https://www.youtube.com/watch?v=video" + index;
+        track.artist = "Artist";
+        track.coverArt = "https://i.ytimg.com/vi/video" + index + "/hqdefault.jpg";
+        track.duration = 180_000 + index;
+        track.isrc = "ISRC" + index;
+        track.type = TrackUtil.TrackType.YOUTUBE;
+        track.identifier = "video" + index;
+        return track;
+    }
+
+    private static void assertTrack(CustomPlaylistTrack expected, CustomPlaylistTrack actual) {
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.title, actual.title);
+        assertEquals(expected.url, actual.url);
+        assertEquals(expected.artist, actual.artist);
+        assertEquals(expected.coverArt, actual.coverArt);
+        assertEquals(expected.duration, actual.duration);
+        assertEquals(expected.isrc, actual.isrc);
+        assertEquals(expected.type, actual.type);
+        assertEquals(expected.identifier, actual.identifier);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.utils;
+
+import club.minnced.discord.webhook.send.WebhookEmbed;
+import club.minnced.discord.webhook.send.WebhookEmbedBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorReporterTest {
+
+    @Test
+    void keepsSmallEmbedsInOneMessage() {
+        var embeds = embeds(5, 100);
+        assertEquals(List.of(embeds), ErrorReporter.batch(embeds));
+    }
+
+    @Test
+    void splitsAtTenEmbeds() {
+        var batches = ErrorReporter.batch(embeds(12, 10));
+        assertEquals(2, batches.size());
+        assertEquals(10, batches.get(0).size());
+        assertEquals(2, batches.get(1).size());
+    }
+
+    @Test
+    void splitsLongEmbedsWithinTextLimit() {
+        // Each embed holds the longest message and additional information, with a description.
+        var embeds = embeds(10, 2400);
+        var batches = ErrorReporter.batch(embeds);
+        assertEquals(5, batches.size());
+        for (var batch : batches) {
+            assertTrue(batch.stream().mapToInt(ErrorReporter::lengthOf).sum() <= 6000);
+        }
+        assertEquals(embeds, batches.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void countsEveryTextPart() {
+        var embed = new WebhookEmbedBuilder()
+            .setTitle(new WebhookEmbed.EmbedTitle("Title", ""))
+            .setDescription("Description")
+            .addField(new WebhookEmbed.EmbedField(false, "Name", "Value"))
+            .build();
+        assertEquals("Title".length() + "Description".length() + "Name".length() + "Value".length(), ErrorReporter.lengthOf(embed));
+    }
+
+    private static List<WebhookEmbed> embeds(int count, int length) {
+        var embeds = new ArrayList<WebhookEmbed>(count);
+        for (var i = 0; i < count; i++) {
+            embeds.add(new WebhookEmbedBuilder().setDescription("x".repeat(length)).build());
+        }
+        return embeds;
+    }
+}
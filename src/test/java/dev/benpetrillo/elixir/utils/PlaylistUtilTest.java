@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2024 Ben Petrillo, KingRainbow44.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE
+ * OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * All portions of this software are available for public use,
+ * provided that credit is given to the original author(s).
+ */
+
+package dev.benpetrillo.elixir.utils;
+
+import dev.benpetrillo.elixir.types.CustomPlaylist.CustomPlaylistTrack;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaylistUtilTest {
+
+    @Test
+    void locatesTrackAtItsPosition() {
+        var tracks = tracks("a", "b", "c");
+        assertEquals(1, PlaylistUtil.locateTrack(tracks, 1, "youtube:b"));
+    }
+
+    @Test
+    void followsTrackMovedByAnotherEdit() {
+        // Another edit inserted a track in front, so "b" moved from 1 to 2.
+        var tracks = tracks("x", "a", "b", "c");
+        assertEquals(2, PlaylistUtil.locateTrack(tracks, 1, "youtube:b"));
+    }
+
+    @Test
+    void rejectsTrackAlreadyRemoved() {
+        var tracks = tracks("a", "c");
+        assertThrows(ConcurrentModificationException.class, () -> PlaylistUtil.locateTrack(tracks, 1, "youtube:b"));
+    }
+
+    @Test
+    void rejectsAmbiguousMovedTrack() {
+        var tracks = tracks("x", "b", "a", "b");
+        assertThrows(ConcurrentModificationException.class, () -> PlaylistUtil.locateTrack(tracks, 0, "youtube:b"));
+    }
+
+    @Test
+    void prefersOriginalPositionOfDuplicate() {
+        var tracks = tracks("b", "a", "b");
+        assertEquals(2, PlaylistUtil.locateTrack(tracks, 2, "youtube:b"));
+    }
+
+    private static List<CustomPlaylistTrack> tracks(String... ids) {
+        var tracks = new ArrayList<CustomPlaylistTrack>();
+        for (var id : ids) {
+            var track = new CustomPlaylistTrack();
+            track.id = "youtube:" + id;
+            track.url = "https://www.youtube.com/watch?v=" + id;
+            tracks.add(track);
+        }
+        return tracks;
+    }
+}